@@ -1,13 +1,23 @@
 package graphic;
 
 import graphic.controller.Controller;
+import graphic.model.util.GameSerializer;
 import graphic.model.util.MapBuilder;
+import graphic.model.util.MapGenerator;
+import graphic.metrics.HeapFootprint;
 import graphic.model.Game;
+import graphic.replay.ActionRecorder;
+import graphic.replay.Replayer;
+import graphic.server.GameServer;
+import graphic.server.LoadGenerator;
+import graphic.simulation.ScriptRunner;
+import graphic.simulation.Simulator;
 import graphic.view.View;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class Main {
 
@@ -17,32 +27,75 @@ public class Main {
      */
     public static void main(String[] args) {
         if(args.length > 0 && args[0].equals("build")) {
-            MapBuilder builder = new MapBuilder();
+            MapBuilder builder = new ScriptRunner();
             builder.build(args);
             return;
         }
+        if(args.length > 0 && args[0].equals("script")) {
+            ScriptRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("generate")) {
+            MapGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("simulate")) {
+            Simulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("replay")) {
+            Replayer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("serve")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("loadgen")) {
+            LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals("footprint")) {
+            HeapFootprint.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
         // Load gamestate
         Game game = new Game();
         try {
-            FileInputStream fileIn = new FileInputStream("game.data");
-            ObjectInputStream in = new ObjectInputStream(fileIn);
-            game = (Game) in.readObject();
-            game.initObservers();
-            game.updateObjectNums();
-            in.close();
-            fileIn.close();
+            game = GameSerializer.load(new File("game.data"));
         } catch (IOException | ClassNotFoundException e) {
             System.out.println("Could not open file: game.data");
             return;
         }
 
+        // Seed the game, a reported seed can be replayed with -Dlogarlec.seed
+        Long seed = Long.getLong("logarlec.seed");
+        game.setSeed(seed != null ? seed : new SplittableRandom().nextLong());
+        System.out.println("Seed: " + game.getSeed());
+
+        // Record the session with -Dlogarlec.record=<file>, it can be replayed with "replay <file>"
+        ActionRecorder recorder = null;
+        String record = System.getProperty("logarlec.record");
+        if(record != null) {
+            try {
+                recorder = ActionRecorder.open(new File(record));
+            } catch (IOException e) {
+                System.out.println("Could not write file: " + record);
+                return;
+            }
+            recorder.attach(game);
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::close));
+        }
+
         // Create view
         View view = new View();
         view.init(game);
 
         // Create controller
         Controller controller = new Controller(game, view);
+        if(recorder != null)
+            view.registerActionHandler(recorder.wrap(controller));
 
         // Start game
         controller.startGame();
@@ -0,0 +1,179 @@
+package graphic.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mikrobenchmarkok belépési pontja. Minden pálya és entitásszám párosítást külön JVM-ben futtat,
+ * hogy a JIT profilja ne hasson át egyik mérésről a másikra.
+ * Minden mérés a bemelegítő körök után több mért körből áll, egy kör egy adag előkészített
+ * állapoton futtatja le a műveletet, az eredmény egy műveletre jutó átlagos idő nanoszekundumban.
+ * <p>
+ * Használat: {@code Benchmarks [-m pályák] [-e entitásszámok] [-b névszűrő] [-w bemelegítés] [-i körök] [-n adag]}
+ */
+public class Benchmarks {
+
+    /**
+     * Az eredmények elnyelője, hogy a JIT ne hagyhassa el a mért számításokat.
+     */
+    private static volatile Object sink;
+
+    /**
+     * A mérendő pályák, vesszővel elválasztva.
+     */
+    private String maps = "input.txt,BigMapDone.txt";
+
+    /**
+     * A zsúfolt szobába helyezett további entitások száma, vesszővel elválasztva.
+     */
+    private String entities = "0,16,256";
+
+    /**
+     * Csak azok a mérések futnak, amelyek neve tartalmazza ezt a szöveget.
+     */
+    private String filter = "";
+
+    /**
+     * A bemelegítő körök száma.
+     */
+    private int warmup = 5;
+
+    /**
+     * A mért körök száma.
+     */
+    private int iterations = 10;
+
+    /**
+     * Az egy körben előkészített állapotok száma.
+     */
+    private int batch = 200;
+
+    /**
+     * A mérések belépési pontja.
+     * @param args a mérés paraméterei
+     */
+    public static void main(String[] args) throws Exception {
+        Benchmarks benchmarks = new Benchmarks();
+        if (args.length >= 3 && args[0].equals("--child")) {
+            benchmarks.parse(args, 3);
+            benchmarks.runChild(args[1], Integer.parseInt(args[2]));
+        } else {
+            benchmarks.parse(args, 0);
+            benchmarks.runAll();
+        }
+    }
+
+    /**
+     * Feldolgozza a parancssori kapcsolókat.
+     * @param args a parancssori argumentumok
+     * @param from az első feldolgozandó argumentum indexe
+     */
+    private void parse(String[] args, int from) {
+        for (int i = from; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-m" -> maps = args[i + 1];
+                case "-e" -> entities = args[i + 1];
+                case "-b" -> filter = args[i + 1];
+                case "-w" -> warmup = Integer.parseInt(args[i + 1]);
+                case "-i" -> iterations = Integer.parseInt(args[i + 1]);
+                case "-n" -> batch = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Minden pálya és entitásszám párosításra elindít egy külön JVM-et, amely lefuttatja a méréseket.
+     */
+    private void runAll() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        System.out.println(String.format("%-20s %-16s %8s %14s %12s", "Benchmark", "Map", "Entities", "ns/op", "error"));
+        for (String map : maps.split(",")) {
+            for (String count : entities.split(",")) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                        Benchmarks.class.getName(), "--child", map, count));
+                command.addAll(List.of("-b", filter, "-w", String.valueOf(warmup),
+                        "-i", String.valueOf(iterations), "-n", String.valueOf(batch)));
+                Process process = new ProcessBuilder(command).inheritIO().start();
+                if (process.waitFor() != 0)
+                    System.out.println("Fork failed: " + map + " " + count);
+            }
+        }
+    }
+
+    /**
+     * Lefuttatja a méréseket egy pályán és entitásszámmal.
+     * @param map a pálya neve
+     * @param count a zsúfolt szobába helyezett további entitások száma
+     */
+    private void runChild(String map, int count) throws Exception {
+        Fixture fixture = new Fixture(map, count);
+        for (MicroBenchmark<?> benchmark : ModelBenchmarks.all()) {
+            if (!benchmark.getName().contains(filter)) continue;
+            report(benchmark.getName(), fixture, measure(benchmark, fixture));
+        }
+        boolean saves = false;
+        for (MicroBenchmark<?> benchmark : SaveBenchmarks.all()) {
+            if (!benchmark.getName().contains(filter)) continue;
+            report(benchmark.getName(), fixture, measure(benchmark, fixture));
+            saves = true;
+        }
+        if (saves)
+            System.out.println(SaveBenchmarks.sizes(fixture.sharedGame()));
+    }
+
+    /**
+     * Kiírja egy mérés eredményét.
+     * @param name a mérés neve
+     * @param fixture a mérés pályája
+     * @param samples a körönként mért idők, vagy null, ha a mérés ezen a pályán nem értelmezett
+     */
+    static void report(String name, Fixture fixture, double[] samples) {
+        if (samples == null) {
+            System.out.println(String.format("%-20s %-16s %8d %14s %12s", name, fixture.getMap(), fixture.getEntities(), "n/a", ""));
+            return;
+        }
+        double mean = 0;
+        for (double sample : samples) mean += sample;
+        mean /= samples.length;
+        double variance = 0;
+        for (double sample : samples) variance += (sample - mean) * (sample - mean);
+        double error = samples.length > 1 ? Math.sqrt(variance / (samples.length - 1)) : 0;
+        System.out.println(String.format("%-20s %-16s %8d %14.1f %12.1f", name, fixture.getMap(), fixture.getEntities(), mean, error));
+    }
+
+    /**
+     * Megméri a műveletet a bemelegítő és a mért körökben.
+     * @param benchmark a mérés
+     * @param fixture a mérés pályája
+     * @return a mért körök egy műveletre jutó ideje, vagy null, ha a mérés ezen a pályán nem értelmezett
+     */
+    private <S> double[] measure(MicroBenchmark<S> benchmark, Fixture fixture) {
+        if (benchmark.setup(fixture) == null)
+            return null;
+        for (int i = 0; i < warmup; i++)
+            iteration(benchmark, fixture);
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++)
+            samples[i] = iteration(benchmark, fixture);
+        return samples;
+    }
+
+    /**
+     * Előkészít egy adag állapotot, majd megméri a művelet futását rajtuk.
+     * @param benchmark a mérés
+     * @param fixture a mérés pályája
+     * @return egy műveletre jutó idő nanoszekundumban
+     */
+    private <S> double iteration(MicroBenchmark<S> benchmark, Fixture fixture) {
+        List<S> states = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++)
+            states.add(benchmark.setup(fixture));
+
+        long start = System.nanoTime();
+        for (S state : states)
+            sink = benchmark.run(state);
+        return (double) (System.nanoTime() - start) / batch;
+    }
+}
@@ -0,0 +1,140 @@
+package graphic.benchmark;
+
+import graphic.model.Game;
+import graphic.model.characters.CleaningLady;
+import graphic.model.characters.Entity;
+import graphic.model.characters.Prof;
+import graphic.model.characters.Student;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.model.util.IdAllocator;
+import graphic.simulation.GameTemplate;
+import graphic.simulation.Simulator;
+
+import java.io.IOException;
+
+/**
+ * Egy mérés pályája: a maps mappából betöltött játék, amelynek első szobájába (a zsúfolt szobába)
+ * a paraméterként kapott számú további NPC kerül. Minden méréshez friss másolatot ad.
+ */
+public class Fixture {
+
+    /**
+     * A mérések seedje, hogy a véletlenszerű döntések minden futásban azonosak legyenek.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * A pálya neve.
+     */
+    private final String map;
+
+    /**
+     * A zsúfolt szobába helyezett további entitások száma.
+     */
+    private final int entities;
+
+    /**
+     * A pálya állapota, amelyből a másolatok készülnek.
+     */
+    private final GameTemplate template;
+
+    /**
+     * A csak olvasó mérések által közösen használt játék.
+     */
+    private final Game shared;
+
+    /**
+     * Betölti a pályát és elhelyezi rajta a további entitásokat.
+     * @param map a pálya neve
+     * @param entities a zsúfolt szobába helyezett további entitások száma
+     */
+    public Fixture(String map, int entities) throws IOException, ClassNotFoundException {
+        this.map = map;
+        this.entities = entities;
+
+        Game game = Simulator.loadGame(map);
+        Room crowded = game.getRooms().get(0);
+        crowded.setCapacity(crowded.getCapacity() + entities + 1);
+        for (int i = 0; i < entities; i++) {
+            Entity npc = i % 4 == 3
+                    ? new CleaningLady(game.getIds().next(IdAllocator.Kind.ENTITY, "CleaningLady"))
+                    : new Prof(game.getIds().next(IdAllocator.Kind.ENTITY, "Prof"));
+            npc.setRoom(crowded);
+            crowded.addEntity(npc);
+            game.addEntity(npc);
+        }
+
+        template = new GameTemplate(game);
+        shared = newGame();
+    }
+
+    public String getMap() {
+        return map;
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return A pálya egy friss, rögzített seedű másolata.
+     */
+    public Game newGame() {
+        Game game = template.newGame();
+        game.setSeed(SEED);
+        return game;
+    }
+
+    /**
+     * @return A csak olvasó mérések által közösen használt játék.
+     */
+    public Game sharedGame() {
+        return shared;
+    }
+
+    /**
+     * @param game a játék
+     * @return A játék zsúfolt szobája.
+     */
+    public static Room crowdedRoom(Game game) {
+        return game.getRooms().get(0);
+    }
+
+    /**
+     * @param game a játék
+     * @param skip ennyi üres szobát átugrik
+     * @return A játék egy olyan szobája, amelyben nincs entitás, vagy null.
+     */
+    public static Room emptyRoom(Game game, int skip) {
+        for (Room room : game.getRooms()) {
+            if (room.getStudents().isEmpty() && room.getOthers().isEmpty() && skip-- == 0)
+                return room;
+        }
+        return null;
+    }
+
+    /**
+     * @param game a játék
+     * @return A játék első hallgatója, vagy null.
+     */
+    public static Student firstStudent(Game game) {
+        for (Entity e : game.getEntities()) {
+            if (e instanceof Student student)
+                return student;
+        }
+        return null;
+    }
+
+    /**
+     * @param room a szoba
+     * @return A szoba egy olyan ajtaja, amelyen ki lehet menni, vagy null.
+     */
+    public static Door openDoor(Room room) {
+        for (Door door : room.getDoors()) {
+            if (door.isClosed() || (door.isOneway() && door.getSecondRoom().equals(room))) continue;
+            return door;
+        }
+        return null;
+    }
+}
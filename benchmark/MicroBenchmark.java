@@ -0,0 +1,60 @@
+package graphic.benchmark;
+
+import java.util.function.Function;
+
+/**
+ * Egy mérendő művelet leírása. Minden méréshez a setup egy friss állapotot készít elő,
+ * amelynek elkészítése nem számít bele a mért időbe, majd az operation ezen az állapoton fut.
+ * @param <S> az előkészített állapot típusa
+ */
+public final class MicroBenchmark<S> {
+
+    /**
+     * A mérés neve.
+     */
+    private final String name;
+
+    /**
+     * Egy méréshez szükséges állapotot előkészítő függvény.
+     */
+    private final Function<Fixture, S> setup;
+
+    /**
+     * A mért művelet, visszatérési értékét a mérő elnyeli, hogy a JIT ne dobja el a számítást.
+     */
+    private final Function<S, Object> operation;
+
+    /**
+     * Létrehoz egy mérést.
+     * @param name a mérés neve
+     * @param setup az állapotot előkészítő függvény
+     * @param operation a mért művelet
+     */
+    public MicroBenchmark(String name, Function<Fixture, S> setup, Function<S, Object> operation) {
+        this.name = name;
+        this.setup = setup;
+        this.operation = operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Előkészít egy állapotot a méréshez.
+     * @param fixture a mérés pályája
+     * @return az előkészített állapot
+     */
+    public S setup(Fixture fixture) {
+        return setup.apply(fixture);
+    }
+
+    /**
+     * Lefuttatja a mért műveletet.
+     * @param state az előkészített állapot
+     * @return a művelet eredménye
+     */
+    public Object run(S state) {
+        return operation.apply(state);
+    }
+}
@@ -0,0 +1,58 @@
+package graphic.benchmark;
+
+import graphic.model.Game;
+import graphic.model.characters.CleaningLady;
+import graphic.model.characters.Student;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.model.util.IdAllocator;
+
+import java.util.List;
+
+/**
+ * A modell gyakran futó műveleteinek mérései.
+ */
+public final class ModelBenchmarks {
+
+    private ModelBenchmarks() {
+    }
+
+    /**
+     * @return Az összes modell mérés.
+     */
+    public static List<MicroBenchmark<?>> all() {
+        return List.of(
+                new MicroBenchmark<>("Game.tick", Fixture::newGame, game -> {
+                    game.tick();
+                    return game;
+                }),
+                new MicroBenchmark<>("Room.merge", fixture -> {
+                    Game game = fixture.newGame();
+                    return new Room[]{Fixture.emptyRoom(game, 0), Fixture.emptyRoom(game, 1)};
+                }, rooms -> rooms[0].merge(rooms[1])),
+                new MicroBenchmark<>("Room.split", fixture -> Fixture.emptyRoom(fixture.newGame(), 0), Room::split),
+                new MicroBenchmark<>("Entity.move", fixture -> {
+                    Student student = Fixture.firstStudent(fixture.newGame());
+                    return new Object[]{student, Fixture.openDoor(student.getRoom())};
+                }, args -> args[1] != null && ((Student) args[0]).move((Door) args[1])),
+                new MicroBenchmark<>("Room.acceptEntity", fixture -> {
+                    Student student = new Student("Newcomer");
+                    student.setRoom(Fixture.crowdedRoom(fixture.sharedGame()));
+                    return student;
+                }, student -> student.getRoom().acceptEntity(student)),
+                new MicroBenchmark<>("Room.clean", fixture -> {
+                    Game game = fixture.newGame();
+                    Room room = Fixture.crowdedRoom(game);
+                    CleaningLady cleaningLady = new CleaningLady(game.getIds().next(IdAllocator.Kind.ENTITY, "CleaningLady"));
+                    cleaningLady.setRoom(room);
+                    return cleaningLady;
+                }, cleaningLady -> {
+                    cleaningLady.getRoom().clean(cleaningLady);
+                    return cleaningLady;
+                }),
+                new MicroBenchmark<>("Room.occupants", fixture -> Fixture.crowdedRoom(fixture.sharedGame()),
+                        room -> room.getStudents().size() + room.getOthers().size()),
+                new MicroBenchmark<>("Game.getinfo", Fixture::sharedGame, Game::getinfo)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package graphic.benchmark;
+
+import graphic.model.Game;
+import graphic.model.util.GameSerializer;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * A játék mentésének és betöltésének mérései, ObjectOutputStream-en keresztül és közvetlenül bináris formátumban.
+ * A Game a Java szerializációban is a bináris mentését írja ki, így a két mérés különbsége az ObjectOutputStream többletköltsége.
+ */
+public final class SaveBenchmarks {
+
+    private SaveBenchmarks() {
+    }
+
+    /**
+     * @return Az összes mentési és betöltési mérés.
+     */
+    public static List<MicroBenchmark<?>> all() {
+        return List.of(
+                new MicroBenchmark<>("Save.java", Fixture::sharedGame, SaveBenchmarks::javaBytes),
+                new MicroBenchmark<>("Save.binary", Fixture::sharedGame, SaveBenchmarks::binaryBytes),
+                new MicroBenchmark<>("Load.java", fixture -> javaBytes(fixture.sharedGame()), bytes -> {
+                    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        Game game = (Game) in.readObject();
+                        game.initObservers();
+                        return game;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (ClassNotFoundException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }),
+                new MicroBenchmark<>("Load.binary", fixture -> binaryBytes(fixture.sharedGame()), bytes -> {
+                    try {
+                        return GameSerializer.read(new ByteArrayInputStream(bytes));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+        );
+    }
+
+    /**
+     * @param game a játék
+     * @return A két formátum mérete bájtban, kiírható formában.
+     */
+    public static String sizes(Game game) {
+        return String.format("Save size: java %d bytes, binary %d bytes", javaBytes(game).length, binaryBytes(game).length);
+    }
+
+    /**
+     * @return A játék Java szerializációval mentve.
+     */
+    private static byte[] javaBytes(Game game) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(game);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return A játék bináris formátumban mentve.
+     */
+    private static byte[] binaryBytes(Game game) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GameSerializer.write(game, bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
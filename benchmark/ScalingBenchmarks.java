@@ -0,0 +1,423 @@
+package graphic.benchmark;
+
+import graphic.controller.Controller;
+import graphic.model.Game;
+import graphic.model.characters.Student;
+import graphic.model.util.MapGenerator;
+import graphic.simulation.GameResult;
+import graphic.simulation.GameTemplate;
+import graphic.simulation.HeadlessDisplay;
+import graphic.simulation.MonteCarlo;
+import graphic.simulation.RandomPolicy;
+import graphic.simulation.Simulation;
+import graphic.simulation.Simulator;
+import graphic.simulation.StudentPolicy;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * A motor méretezési mérései. A mikrobenchmarkokkal szemben teljes játékokat játszik le generált pályákon, a
+ * Controller.endTurn és a Game.tick útján, grafikus felület nélkül, rögzített seedekkel.
+ * <p>
+ * Minden szobaszám és NPC sűrűség párosítás külön JVM-ben fut, hogy a csúcs heap és a JIT profil ne hasson át.
+ * Egy mérés legenerálja és felépíti a pályát, lejátssza a bemelegítő játékokat, majd a rögzített mért
+ * játékkészletet ismételt menetekben, és kiírja a leggyorsabb menetből számolt körök/másodperc, az allokációs
+ * ráta és a csúcs heap értékét. Az eredmények CSV-be kerülnek; megadott alapvonal
+ * esetén a kör ideje párosításonként összevetődik vele, és a körönkénti idő szobaszám szerinti kitevője is
+ * (1 a lineáris), így a szuperlineáris romlás akkor is látszik, ha a kis pályák nem lassultak.
+ * <p>
+ * Használat: {@code ScalingBenchmarks [-r szobaszámok] [-n NPC-k szobánként] [-g játékok szobaszámonként] [-w bemelegítés mp]
+ * [-m mérés mp] [-s seed] [-o kimenet.csv] [-b alapvonal.csv] [-x megengedett lassulás] [-j JVM kapcsolók]}
+ */
+public class ScalingBenchmarks {
+
+    /**
+     * A CSV fejléce, a gyermek JVM-ek ebben a sorrendben írják ki az eredményt.
+     */
+    private static final String HEADER = "rooms,npcs,entities,games,turns,build_ms,model_mb,turns_per_s,ms_per_turn,"
+            + "ns_per_turn_room,alloc_mb_per_s,alloc_kb_per_turn,peak_heap_mb";
+
+    /**
+     * A gyermek JVM eredménysorának előtagja, hogy a pályaépítés esetleges kiírásai ne keveredjenek bele.
+     */
+    private static final String ROW = "ROW,";
+
+    /**
+     * A kitevő ennyivel nőhet az alapvonalhoz képest, mielőtt romlásnak számít. A kitevő két zajos mérés
+     * hányadosából adódik, ezért a tűrés bőkezű.
+     */
+    private static final double EXPONENT_TOLERANCE = 0.25;
+
+    /**
+     * A mérendő szobaszámok, vesszővel elválasztva.
+     */
+    private String rooms = "100,10000,1000000";
+
+    /**
+     * Az NPC-k átlagos száma szobánként, vesszővel elválasztva.
+     */
+    private String npcs = "0.05,0.2";
+
+    /**
+     * A mért játékkészlet mérete a szobaszámok sorrendjében, vesszővel elválasztva, a rövidebb lista utolsó értéke
+     * érvényes a többire. A készlet seedjei rögzítettek, így a körszám összevethető. A 10⁶ szobás pályán egy játék
+     * perceket vesz igénybe, ezért ott egy is elég.
+     */
+    private String games = "10,3,1";
+
+    /**
+     * A bemelegítés és a mérés legrövidebb ideje másodpercben. A mérés ennyi ideig ismétli a játékkészletet, a kis
+     * pályák így elég menetet játszanak a JIT-nek és a zajmentes menethez, a nagyok egyetlen menettel is túllépik.
+     */
+    private double warmup = 2;
+    private double measure = 2;
+
+    /**
+     * A pályák és a játékok seedje.
+     */
+    private long seed = 42;
+
+    /**
+     * A kimeneti CSV és az alapvonal, vagy null.
+     */
+    private String output = "scaling.csv";
+    private String baseline;
+
+    /**
+     * A kör idejének megengedett aránya az alapvonalhoz képest.
+     */
+    private double threshold = 1.25;
+
+    /**
+     * A gyermek JVM-ek további kapcsolói szóközzel elválasztva, például -Xmx4g.
+     */
+    private String jvm = "";
+
+    /**
+     * A mérések belépési pontja.
+     * @param args a mérés paraméterei
+     */
+    public static void main(String[] args) throws Exception {
+        ScalingBenchmarks benchmarks = new ScalingBenchmarks();
+        if (args.length >= 3 && args[0].equals("--child")) {
+            benchmarks.parse(args, 3);
+            benchmarks.runChild(Integer.parseInt(args[1]), Double.parseDouble(args[2]));
+        } else {
+            benchmarks.parse(args, 0);
+            if (!benchmarks.runAll())
+                System.exit(1);
+        }
+    }
+
+    /**
+     * Feldolgozza a parancssori kapcsolókat.
+     * @param args a parancssori argumentumok
+     * @param from az első feldolgozandó argumentum indexe
+     */
+    private void parse(String[] args, int from) {
+        for (int i = from; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-r" -> rooms = args[i + 1];
+                case "-n" -> npcs = args[i + 1];
+                case "-g" -> games = args[i + 1];
+                case "-w" -> warmup = Double.parseDouble(args[i + 1]);
+                case "-m" -> measure = Double.parseDouble(args[i + 1]);
+                case "-s" -> seed = Long.parseLong(args[i + 1]);
+                case "-o" -> output = args[i + 1];
+                case "-b" -> baseline = args[i + 1];
+                case "-x" -> threshold = Double.parseDouble(args[i + 1]);
+                case "-j" -> jvm = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Minden párosításra elindít egy külön JVM-et, kiírja és elmenti az eredményeket, és összeveti őket az alapvonallal.
+     * @return hamis, ha valamelyik mérés meghiúsult vagy romlást mutat
+     */
+    private boolean runAll() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Row> results = new ArrayList<>();
+        boolean ok = true;
+        System.out.println(String.format("%9s %6s %9s %7s %10s %10s %12s %10s %14s %10s",
+                "Rooms", "NPCs", "Entities", "Turns", "Model MB", "Turns/s", "ns/turn/room", "Alloc MB/s", "Alloc KB/turn", "Peak MB"));
+        String[] counts = rooms.split(",");
+        String[] gameCounts = games.split(",");
+        for (int r = 0; r < counts.length; r++) {
+            String count = counts[r];
+            String gameCount = gameCounts[Math.min(r, gameCounts.length - 1)].trim();
+            for (String density : npcs.split(",")) {
+                List<String> command = new ArrayList<>(List.of(java));
+                if (!jvm.isBlank())
+                    command.addAll(List.of(jvm.trim().split("\\s+")));
+                command.addAll(List.of("-cp", System.getProperty("java.class.path"), ScalingBenchmarks.class.getName(),
+                        "--child", count.trim(), density.trim(), "-g", gameCount, "-w", String.valueOf(warmup),
+                        "-m", String.valueOf(measure), "-s", String.valueOf(seed)));
+                Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                Row row = null;
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        if (line.startsWith(ROW))
+                            row = Row.parse(line.substring(ROW.length()));
+                        else
+                            System.out.println(line);
+                    }
+                }
+                if (process.waitFor() != 0 || row == null) {
+                    System.out.println("Fork failed: " + count + " rooms, " + density + " NPCs");
+                    ok = false;
+                    continue;
+                }
+                results.add(row);
+                System.out.println(String.format("%9d %6s %9d %7d %10.1f %10.1f %12.1f %10.1f %14.1f %10.1f",
+                        row.rooms, row.npcs, row.entities, row.turns, row.modelMb, row.turnsPerSecond, row.nsPerTurnRoom,
+                        row.allocMbPerSecond, row.allocKbPerTurn, row.peakHeapMb));
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(output))) {
+            out.println(HEADER);
+            for (Row row : results)
+                out.println(row.csv);
+        }
+        System.out.println("Results written to " + output);
+
+        Map<String, Row> previous = new HashMap<>();
+        if (baseline != null) {
+            try {
+                List<String> lines = Files.readAllLines(new File(baseline).toPath());
+                for (String line : lines.subList(Math.min(1, lines.size()), lines.size()))
+                    if (!line.isBlank()) {
+                        Row row = Row.parse(line);
+                        previous.put(row.key(), row);
+                    }
+            } catch (IOException e) {
+                System.out.println("Could not open file: " + baseline);
+                return false;
+            }
+        }
+        return compare(results, previous) && ok;
+    }
+
+    /**
+     * Kiírja a párosítások összevetését az alapvonallal és a szobaszám szerinti kitevőket.
+     * @param results a mostani eredmények
+     * @param previous az alapvonal eredményei párosítás szerint, üres, ha nincs alapvonal
+     * @return hamis, ha valamelyik párosítás romlást mutat
+     */
+    private boolean compare(List<Row> results, Map<String, Row> previous) {
+        boolean ok = true;
+        System.out.println(String.format("%n%9s %6s %12s %12s %8s %9s %9s  %s",
+                "Rooms", "NPCs", "ms/turn", "Baseline", "Ratio", "Exponent", "Baseline", "Status"));
+        Map<String, Row> smaller = new HashMap<>();
+        List<Row> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingInt((Row r) -> r.rooms));
+        for (Row row : sorted) {
+            Row base = previous.get(row.key());
+            Row prev = smaller.put(row.npcs, row);
+            double exponent = prev != null ? exponent(prev, row) : Double.NaN;
+            double baseExponent = Double.NaN;
+            if (prev != null && base != null && previous.containsKey(prev.key()))
+                baseExponent = exponent(previous.get(prev.key()), base);
+            double ratio = base != null ? row.msPerTurn / base.msPerTurn : Double.NaN;
+
+            List<String> status = new ArrayList<>();
+            // Azonos seedekkel azonos számú játék csak a játékmenet megváltozásakor ad más körszámot
+            if (base != null && base.games == row.games && base.turns != row.turns)
+                status.add("turns changed (" + base.turns + " -> " + row.turns + ")");
+            if (ratio > threshold)
+                status.add("SLOWER");
+            // A görbe meredekebb lett, és a nagyobb pálya ténylegesen lassult
+            if (exponent > baseExponent + EXPONENT_TOLERANCE && ratio > 1)
+                status.add("SUPERLINEAR");
+            if (status.contains("SLOWER") || status.contains("SUPERLINEAR"))
+                ok = false;
+            System.out.println(String.format("%9d %6s %12.3f %12s %8s %9s %9s  %s", row.rooms, row.npcs, row.msPerTurn,
+                    base != null ? String.format("%.3f", base.msPerTurn) : "-",
+                    Double.isNaN(ratio) ? "-" : String.format("%.2f", ratio),
+                    Double.isNaN(exponent) ? "-" : String.format("%.2f", exponent),
+                    Double.isNaN(baseExponent) ? "-" : String.format("%.2f", baseExponent),
+                    status.isEmpty() ? "ok" : String.join(", ", status)));
+        }
+        return ok;
+    }
+
+    /**
+     * @return A kör idejének kitevője a szobaszám szerint két mérés között: 1 lineáris, afölött szuperlineáris.
+     */
+    private static double exponent(Row smaller, Row larger) {
+        return Math.log(larger.msPerTurn / smaller.msPerTurn) / Math.log((double) larger.rooms / smaller.rooms);
+    }
+
+    /**
+     * Lefuttatja egy párosítás mérését, és kiírja az eredménysort.
+     * @param roomCount a szobák száma
+     * @param density az NPC-k átlagos száma szobánként
+     */
+    private void runChild(int roomCount, double density) throws Exception {
+        int gameCount = Integer.parseInt(games.trim());
+        long before = usedAfterGc();
+        File map = File.createTempFile("scaling-", ".txt");
+        Game game;
+        long build;
+        try {
+            MapGenerator generator = new MapGenerator();
+            generator.parse(new String[]{"-r", String.valueOf(roomCount), "-s", String.valueOf(seed),
+                    "-n", String.valueOf(density)}, 0);
+            try (Writer out = new BufferedWriter(new FileWriter(map), 1 << 16)) {
+                generator.generate(out);
+            }
+            long start = System.nanoTime();
+            game = Simulator.loadGame(map.getPath());
+            build = System.nanoTime() - start;
+        } finally {
+            map.delete();
+        }
+        long model = usedAfterGc() - before;
+        int entities = game.getEntities().size();
+        GameTemplate template = new GameTemplate(game);
+        game = null;
+
+        // A bemelegítő játékok seedjei nem esnek egybe a mértekével
+        MonteCarlo seeds = new MonteCarlo(template, seed);
+        MonteCarlo warmupSeeds = new MonteCarlo(template, ~seed);
+        long warmupEnd = System.nanoTime() + (long) (warmup * 1e9);
+        for (int i = 0; System.nanoTime() < warmupEnd; i++)
+            warmup(template, warmupSeeds.gameSeed(i), warmupEnd);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                pools.add(pool);
+            }
+
+        // Ugyanazt a játékkészletet játssza le újra és újra, az idő a leggyorsabb meneté, mert a gép többi
+        // terhelése és a GC csak lassíthat, a menetek mediánja futásonként akár kétszeresére is szór
+        long fastest = Long.MAX_VALUE;
+        long elapsed = 0, allocated = 0;
+        int turns = -1, allTurns = 0;
+        while (fastest == Long.MAX_VALUE || elapsed < measure * 1e9) {
+            long passElapsed = 0;
+            int passTurns = 0;
+            for (int i = 0; i < gameCount; i++) {
+                Game copy = template.newGame();
+                copy.setSeed(seeds.gameSeed(i));
+                Simulation simulation = new Simulation(copy, new RandomPolicy(copy.splitRandom()));
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                GameResult result = simulation.run();
+                allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                passElapsed += result.getElapsedNanos();
+                passTurns += result.getTurns();
+            }
+            if (turns >= 0 && turns != passTurns)
+                System.out.println("Warning: non-deterministic games, " + turns + " and " + passTurns + " turns");
+            turns = passTurns;
+            allTurns += passTurns;
+            elapsed += passElapsed;
+            fastest = Math.min(fastest, passElapsed);
+        }
+        // A készletek csúcsainak összege, ezek nem feltétlenül egyszerre álltak fenn
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools)
+            peak += pool.getPeakUsage().getUsed();
+
+        double seconds = fastest / 1e9;
+        double msPerTurn = seconds * 1e3 / turns;
+        System.out.println(ROW + String.join(",", String.valueOf(roomCount), String.valueOf(density),
+                String.valueOf(entities), String.valueOf(gameCount), String.valueOf(turns),
+                String.format(Locale.ROOT, "%.1f", build / 1e6),
+                String.format(Locale.ROOT, "%.1f", model / 1048576.0),
+                String.format(Locale.ROOT, "%.2f", turns / seconds),
+                String.format(Locale.ROOT, "%.4f", msPerTurn),
+                String.format(Locale.ROOT, "%.2f", msPerTurn * 1e6 / roomCount),
+                String.format(Locale.ROOT, "%.1f", allocated / 1048576.0 / (elapsed / 1e9)),
+                String.format(Locale.ROOT, "%.1f", allocated / 1024.0 / allTurns),
+                String.format(Locale.ROOT, "%.1f", peak / 1048576.0)));
+    }
+
+    /**
+     * Lejátszik egy bemelegítő játékot a megadott seeddel a játék végéig vagy a határidőig. A nagy pályákon egy
+     * kör másodpercekig tart, ezért a határidőt körönként ellenőrzi.
+     * @param end a határidő System.nanoTime szerint
+     */
+    private static void warmup(GameTemplate template, long gameSeed, long end) {
+        Game copy = template.newGame();
+        copy.setSeed(gameSeed);
+        StudentPolicy policy = new RandomPolicy(copy.splitRandom());
+        Controller controller = new Controller(copy, new HeadlessDisplay());
+        controller.startGame();
+        while (!copy.gameEnded() && System.nanoTime() < end) {
+            if (controller.getActiveCharacter() instanceof Student student && !student.isKilled())
+                policy.play(student, copy, controller);
+            controller.endTurn();
+        }
+    }
+
+    /**
+     * @return A foglalt heap egy teljes szemétgyűjtés után, bájtban.
+     */
+    private static long usedAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Egy párosítás eredménye a CSV egy sora alapján.
+     */
+    private static final class Row {
+        final String csv;
+        int rooms;
+        String npcs;
+        int entities;
+        int games;
+        int turns;
+        double modelMb;
+        double turnsPerSecond;
+        double msPerTurn;
+        double nsPerTurnRoom;
+        double allocMbPerSecond;
+        double allocKbPerTurn;
+        double peakHeapMb;
+
+        private Row(String csv) {
+            this.csv = csv;
+        }
+
+        /**
+         * @param csv a CSV egy sora a HEADER oszlopsorrendjében
+         * @return a sor adatai
+         */
+        static Row parse(String csv) {
+            String[] values = csv.trim().split(",");
+            Row row = new Row(csv.trim());
+            row.rooms = Integer.parseInt(values[0]);
+            row.npcs = values[1];
+            row.entities = Integer.parseInt(values[2]);
+            row.games = Integer.parseInt(values[3]);
+            row.turns = Integer.parseInt(values[4]);
+            row.modelMb = Double.parseDouble(values[6]);
+            row.turnsPerSecond = Double.parseDouble(values[7]);
+            row.msPerTurn = Double.parseDouble(values[8]);
+            row.nsPerTurnRoom = Double.parseDouble(values[9]);
+            row.allocMbPerSecond = Double.parseDouble(values[10]);
+            row.allocKbPerTurn = Double.parseDouble(values[11]);
+            row.peakHeapMb = Double.parseDouble(values[12]);
+            return row;
+        }
+
+        /**
+         * @return A párosítás azonosítója az alapvonalban.
+         */
+        String key() {
+            return rooms + "/" + npcs;
+        }
+    }
+}
@@ -1,28 +1,49 @@
 package graphic.controller;
 
+import graphic.metrics.GameEvents;
+import graphic.metrics.Histogram;
+import graphic.metrics.Metrics;
+import graphic.metrics.Tracer;
 import graphic.model.*;
 import graphic.model.characters.CleaningLady;
 import graphic.model.characters.Entity;
 import graphic.model.characters.Prof;
 import graphic.model.characters.Student;
+import graphic.model.common.Notifications;
 import graphic.model.items.Item;
 import graphic.model.places.Door;
-import graphic.view.View;
+import graphic.model.places.Room;
+import graphic.model.util.GameRandom;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Map;
 
 /**
  * A játékot kezelő Controller osztály, amely vezérli a játék folyamatát és az entitások közötti interakciót a játékkörnyezettel.
  */
 public class Controller implements ActionHandler {
 
+    /**
+     * Ha be van kapcsolva (-Dlogarlec.observers=true), minden kör végén kiírja a modell megfigyelőinek számát.
+     */
+    private static final boolean REPORT_OBSERVERS = Boolean.getBoolean("logarlec.observers");
+
+    /**
+     * A kör végének és az NPC-k köreinek időmérései.
+     */
+    private static final Histogram END_TURN = Metrics.timer("controller.endTurn");
+    private static final Histogram PROF_TURN = Metrics.timer("controller.npc.prof");
+    private static final Histogram CLEANING_LADY_TURN = Metrics.timer("controller.npc.cleaningLady");
+
     /**
      * A játékot tároló objektum.
      */
     private Game game;
 
-    private View view;
+    /**
+     * A játék megjelenítése, grafikus vagy headless.
+     */
+    private GameDisplay view;
 
     /**
      * Az aktív karaktert tároló entitás objektum.
@@ -35,18 +56,18 @@ public class Controller implements ActionHandler {
     private int activeCharacterIndex;
 
     /**
-     * Egy Random objektum, amelyet közösen használunk a véletlenszerűség generálásához.
+     * A játékból leválasztott generátor, amelyet közösen használunk az NPC-k döntéseihez.
      */
-    private final Random sharedRandom;
+    private final GameRandom sharedRandom;
 
     /**
      * Konstruktor egy Controller példány létrehozásához egy adott játékobjektummal.
      */
-    public Controller(Game game, View view) {
+    public Controller(Game game, GameDisplay view) {
         this.game = game;
         this.view = view;
         this.view.registerActionHandler(this);
-        sharedRandom = new Random();
+        sharedRandom = game.splitRandom();
         activeCharacterIndex=0;
     }
 
@@ -67,22 +88,40 @@ public class Controller implements ActionHandler {
         view.start();
     }
 
+    /**
+     * @return Az éppen soron lévő karakter.
+     */
+    public Entity getActiveCharacter() {
+        return activeCharacter;
+    }
+
     /**
      * Kezeli a professzor körét egy adott professzor entitás esetén.
      * @param prof Az aktív professzor entitás, akinek a körét kezelni kell.
      */
     public void handleProfTurn(Prof prof) {
-        ArrayList<Door> doors = prof.getRoom().getDoors();
-        if(!doors.isEmpty()) {
-            int index = sharedRandom.nextInt(doors.size());
-            prof.move(doors.get(index));
-        }
+        long start = Metrics.now();
+        GameEvents.NpcTurn event = new GameEvents.NpcTurn();
+        event.begin();
+        Room from = prof.getRoom();
+        Tracer.begin("Controller.handleProfTurn");
+        try {
+            ArrayList<Door> doors = prof.getRoom().getDoors();
+            if(!doors.isEmpty()) {
+                int index = sharedRandom.nextInt(doors.size());
+                prof.move(doors.get(index));
+            }
 
-        ArrayList<Item> items = prof.getRoom().getItems();
-        if(!items.isEmpty()) {
-            int index = sharedRandom.nextInt(items.size());
-            prof.pickUp(items.get(index));
+            ArrayList<Item> items = prof.getRoom().getItems();
+            if(!items.isEmpty()) {
+                int index = sharedRandom.nextInt(items.size());
+                prof.pickUp(items.get(index));
+            }
+        } finally {
+            Tracer.end();
         }
+        PROF_TURN.since(start);
+        commit(event, prof, from);
     }
 
     /**
@@ -90,11 +129,40 @@ public class Controller implements ActionHandler {
      * @param cleaningLady Az aktív takarítónő entitás, akinek a körét kezelni kell.
      */
     public void handleCleaningLadyTurn(CleaningLady cleaningLady) {
-        ArrayList<Door> doors = cleaningLady.getRoom().getDoors();
-        if(!doors.isEmpty()) {
-            int index = sharedRandom.nextInt(doors.size());
-            cleaningLady.move(doors.get(index));
+        long start = Metrics.now();
+        GameEvents.NpcTurn event = new GameEvents.NpcTurn();
+        event.begin();
+        Room from = cleaningLady.getRoom();
+        Tracer.begin("Controller.handleCleaningLadyTurn");
+        try {
+            ArrayList<Door> doors = cleaningLady.getRoom().getDoors();
+            if(!doors.isEmpty()) {
+                int index = sharedRandom.nextInt(doors.size());
+                cleaningLady.move(doors.get(index));
+            }
+        } finally {
+            Tracer.end();
         }
+        CLEANING_LADY_TURN.since(start);
+        commit(event, cleaningLady, from);
+    }
+
+    /**
+     * Lezárja egy NPC körének JFR eseményét, ha egy felvétel kéri.
+     * @param event az NPC körének eseménye
+     * @param npc az NPC
+     * @param from az NPC szobája a kör elején
+     */
+    private static void commit(GameEvents.NpcTurn event, Entity npc, Room from) {
+        event.end();
+        if(!event.shouldCommit())
+            return;
+        event.npc = npc.getID();
+        event.kind = npc.getClass().getSimpleName();
+        event.fromRoom = from.getID();
+        event.room = npc.getRoom().getID();
+        event.roomEntities = npc.getRoom().getEntities().size();
+        event.commit();
     }
 
     /**
@@ -102,11 +170,13 @@ public class Controller implements ActionHandler {
      * @param selectedDoor Az ajtó amin keresztül mozogjon.
      */
     public void move(Door selectedDoor) {
-        if(activeCharacter instanceof Student student && !student.getStudentMoved()) {
-            student.move(selectedDoor);
-            student.setStudentMoved(true);
-            view.update(student);
-        }
+        Notifications.batch(() -> {
+            if(activeCharacter instanceof Student student && !student.getStudentMoved()) {
+                student.move(selectedDoor);
+                student.setStudentMoved(true);
+                view.update(student);
+            }
+        });
     }
 
     /**
@@ -114,10 +184,12 @@ public class Controller implements ActionHandler {
      * @param item a kapott tárgy.
      */
     public void pickup(Item item) {
-        activeCharacter.pickUp(item);
-        if(activeCharacter instanceof Student student) {
-            view.update(student);
-        }
+        Notifications.batch(() -> {
+            activeCharacter.pickUp(item);
+            if(activeCharacter instanceof Student student) {
+                view.update(student);
+            }
+        });
     }
 
 
@@ -126,10 +198,12 @@ public class Controller implements ActionHandler {
      * @param item A tárgy amelyet aktivál
      */
     public void activate(Item item) {
-        activeCharacter.activateItem(item);
-        if(activeCharacter instanceof Student student) {
-            view.update(student);
-        }
+        Notifications.batch(() -> {
+            activeCharacter.activateItem(item);
+            if(activeCharacter instanceof Student student) {
+                view.update(student);
+            }
+        });
     }
 
 
@@ -139,10 +213,12 @@ public class Controller implements ActionHandler {
      * @param item Az elhelyezett tárgy.
      */
     public void drop(Item item) {
-        activeCharacter.drop(item);
-        if(activeCharacter instanceof Student student) {
-            view.update(student);
-        }
+        Notifications.batch(() -> {
+            activeCharacter.drop(item);
+            if(activeCharacter instanceof Student student) {
+                view.update(student);
+            }
+        });
     }
 
 
@@ -153,10 +229,12 @@ public class Controller implements ActionHandler {
      */
     public void link(Item item1, Item item2) {
         if(item1.equals(item2)) return;
-        activeCharacter.linkItems(item1, item2);
-        if(activeCharacter instanceof Student student) {
-            view.update(student);
-        }
+        Notifications.batch(() -> {
+            activeCharacter.linkItems(item1, item2);
+            if(activeCharacter instanceof Student student) {
+                view.update(student);
+            }
+        });
     }
 
 
@@ -172,6 +250,60 @@ public class Controller implements ActionHandler {
      * Véget vett az aktív játékos körének.
      */
     public void endTurn(){
+        long start = Metrics.now();
+        GameEvents.EndTurn event = new GameEvents.EndTurn();
+        event.begin();
+        Tracer.setTurn(game.getTurn());
+        Tracer.begin("Controller.endTurn");
+        try {
+            Notifications.batch(() -> {
+                nextCharacter();
+                if(!game.gameEnded() && activeCharacter instanceof Student student)
+                    view.update(student);
+            });
+        } finally {
+            Tracer.end();
+        }
+        END_TURN.since(start);
+        event.end();
+        if(event.shouldCommit()) {
+            event.turn = game.getTurn();
+            event.student = activeCharacter.getID();
+            event.room = activeCharacter.getRoom() != null ? activeCharacter.getRoom().getID() : null;
+            event.rooms = game.getRooms().size();
+            event.entities = game.getEntities().size();
+            event.commit();
+        }
+        if(REPORT_OBSERVERS)
+            reportObservers();
+
+        if(game.isGameWon()) {
+            view.displayEndMessage("You won!");
+        } else if(game.gameEnded()) {
+            view.displayEndMessage("You lost!");
+        }
+    }
+
+    /**
+     * Kiírja a modell megfigyelőinek összesített számát és a legtöbbet megfigyelt objektumot.
+     */
+    private void reportObservers() {
+        Map<String, Integer> counts = game.observerCounts();
+        int total = 0;
+        Map.Entry<String, Integer> max = null;
+        for(Map.Entry<String, Integer> entry : counts.entrySet()) {
+            total += entry.getValue();
+            if(max == null || entry.getValue() > max.getValue())
+                max = entry;
+        }
+        System.out.println("Observers: " + total + " on " + counts.size() + " objects"
+                + (max != null ? ", most on " + max.getKey() + " (" + max.getValue() + ")" : ""));
+    }
+
+    /**
+     * Továbbadja a kört a következő élő hallgatónak, közben lejátssza az NPC-k köreit és a játék ciklusait.
+     */
+    private void nextCharacter() {
         ArrayList<Entity> entities = game.getEntities();
         if(activeCharacter instanceof Student student)
             student.setStudentMoved(false);
@@ -200,15 +332,5 @@ public class Controller implements ActionHandler {
 
             activeCharacter = entities.get(activeCharacterIndex);
         }
-
-        if(game.isGameWon()) {
-            view.displayEndMessage("You won!");
-            return;
-        } else if(game.gameEnded()) {
-            view.displayEndMessage("You lost!");
-            return;
-        }
-
-        if(activeCharacter instanceof Student student) view.update(student);
     }
 }
\ No newline at end of file
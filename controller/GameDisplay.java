@@ -0,0 +1,40 @@
+package graphic.controller;
+
+import graphic.model.characters.Student;
+import graphic.model.places.Room;
+
+/**
+ * A GameDisplay interfész meghatározza, hogy a Controller milyen műveleteket vár el a megjelenítéstől.
+ * Ennek köszönhetően a Controller grafikus felület nélkül (headless módban) is futtatható.
+ */
+public interface GameDisplay {
+
+    /**
+     * Regisztrál egy ActionHandler objektumot, amely a felhasználói műveleteket kezeli.
+     * @param actionHandler a műveleteket kezelő objektum
+     */
+    void registerActionHandler(ActionHandler actionHandler);
+
+    /**
+     * Frissíti a megjelenítést a megadott hallgató állapotának megfelelően.
+     * @param student az aktív hallgató
+     */
+    void update(Student student);
+
+    /**
+     * Megjeleníti a megadott szobába való bepillantást.
+     * @param room a megtekintett szoba
+     */
+    void peek(Room room);
+
+    /**
+     * Elindítja a megjelenítést.
+     */
+    void start();
+
+    /**
+     * Megjelenít egy üzenetet a játék végén.
+     * @param text a megjelenítendő üzenet
+     */
+    void displayEndMessage(String text);
+}
@@ -0,0 +1,61 @@
+package graphic.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Egy eseményszámláló. Több szálról is olcsón növelhető, mert a LongAdder szálanként külön cellába számol.
+ */
+public final class Counter {
+
+    /**
+     * A számláló neve a registryben.
+     */
+    private final String name;
+
+    /**
+     * Az összeg.
+     */
+    private final LongAdder adder = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Eggyel növeli a számlálót, ha a mérés be van kapcsolva.
+     */
+    public void increment() {
+        if (Metrics.ENABLED)
+            adder.increment();
+    }
+
+    /**
+     * Növeli a számlálót, ha a mérés be van kapcsolva.
+     * @param n a növekmény
+     */
+    public void add(long n) {
+        if (Metrics.ENABLED)
+            adder.add(n);
+    }
+
+    /**
+     * @return A számláló neve.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return A számláló jelenlegi értéke.
+     */
+    public long sum() {
+        return adder.sum();
+    }
+
+    /**
+     * Lenullázza a számlálót.
+     */
+    void reset() {
+        adder.reset();
+    }
+}
@@ -0,0 +1,191 @@
+package graphic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A játék JDK Flight Recorder eseményei. Egy futó JFR felvétel (például -XX:StartFlightRecording vagy jcmd JFR.start)
+ * a szokásos eszközökkel megjeleníthető, az események a "Logarlec" kategóriában, logarlec.* néven szerepelnek.
+ * <p>
+ * Felvétel nélkül az események ki vannak kapcsolva: a begin és a shouldCommit semmibe sem kerül, a mezőket a
+ * mérőpontok csak a shouldCommit után töltik ki. A veremkép rögzítése ki van kapcsolva, mert a hívási hely minden
+ * eseménynél ugyanaz.
+ */
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    /**
+     * A Controller.endTurn, a következő hallgató köréig lejátszott NPC körökkel és ciklusokkal együtt.
+     */
+    @Name("logarlec.EndTurn")
+    @Label("End Turn")
+    @Category("Logarlec")
+    @Description("Controller.endTurn including the NPC turns and game ticks until the next student")
+    @StackTrace(false)
+    public static final class EndTurn extends Event {
+        @Label("Turn")
+        public int turn;
+
+        @Label("Next Student")
+        public String student;
+
+        @Label("Room")
+        @Description("Room of the next student")
+        public String room;
+
+        @Label("Rooms")
+        public int rooms;
+
+        @Label("Entities")
+        public int entities;
+    }
+
+    /**
+     * Egy NPC köre a Controller handleProfTurn vagy handleCleaningLadyTurn metódusában.
+     */
+    @Name("logarlec.NpcTurn")
+    @Label("NPC Turn")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class NpcTurn extends Event {
+        @Label("NPC")
+        public String npc;
+
+        @Label("Kind")
+        public String kind;
+
+        @Label("From Room")
+        public String fromRoom;
+
+        @Label("Room")
+        public String room;
+
+        @Label("Room Entities")
+        @Description("Entities in the room after the turn")
+        public int roomEntities;
+    }
+
+    /**
+     * Egy Game.tick a szobák egyesítésének és osztódásának kimenetelével.
+     */
+    @Name("logarlec.Tick")
+    @Label("Game Tick")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class Tick extends Event {
+        @Label("Turn")
+        public int turn;
+
+        @Label("Rooms")
+        public int rooms;
+
+        @Label("Entities")
+        public int entities;
+
+        @Label("Merged Room")
+        @Description("Room that absorbed another one, if any")
+        public String merged;
+
+        @Label("Split Room")
+        @Description("Room that split in two, if any")
+        public String split;
+    }
+
+    /**
+     * Egy Room.clean, vagyis a takarítónő kiküldi a szobából a többi entitást.
+     */
+    @Name("logarlec.RoomClean")
+    @Label("Room Clean")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class RoomClean extends Event {
+        @Label("Room")
+        public String room;
+
+        @Label("Cleaner")
+        public String cleaner;
+
+        @Label("Evicted")
+        public int evicted;
+
+        @Label("Remaining")
+        public int remaining;
+    }
+
+    /**
+     * Egy Transistor.teleport kísérlet.
+     */
+    @Name("logarlec.Teleport")
+    @Label("Teleport")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class Teleport extends Event {
+        @Label("Student")
+        public String student;
+
+        @Label("From Room")
+        public String fromRoom;
+
+        @Label("Target Room")
+        public String room;
+
+        @Label("Accepted")
+        public boolean accepted;
+
+        @Label("Room Entities")
+        @Description("Entities in the target room after the attempt")
+        public int roomEntities;
+    }
+
+    /**
+     * Egy Student.kill kísérlet.
+     */
+    @Name("logarlec.StudentKill")
+    @Label("Student Kill")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class StudentKill extends Event {
+        @Label("Student")
+        public String student;
+
+        @Label("Murderer")
+        public String murderer;
+
+        @Label("Room")
+        public String room;
+
+        @Label("Killed")
+        @Description("False if the student was protected")
+        public boolean killed;
+
+        @Label("Room Entities")
+        public int roomEntities;
+    }
+
+    /**
+     * A View.update, a nézet frissítése a soron lévő hallgatóra.
+     */
+    @Name("logarlec.ViewUpdate")
+    @Label("View Update")
+    @Category("Logarlec")
+    @StackTrace(false)
+    public static final class ViewUpdate extends Event {
+        @Label("Student")
+        public String student;
+
+        @Label("Room")
+        public String room;
+
+        @Label("Room Entities")
+        public int roomEntities;
+
+        @Label("Room Items")
+        public int roomItems;
+    }
+}
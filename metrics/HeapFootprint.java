@@ -0,0 +1,532 @@
+package graphic.metrics;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import graphic.model.Game;
+import graphic.model.characters.Entity;
+import graphic.model.common.ObserverList;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.simulation.Simulator;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Megbecsli egy betöltött játék modelljének heap-foglalását osztályonként és gyűjteményenként, a HotSpot
+ * objektum-elrendezése alapján (fejléc, mezők, 8 bájtos igazítás, tömörített referenciák).
+ * <p>
+ * A modell objektumai (a Game, a szobák, ajtók, entitások és tárgyak) a tulajdonosok. Minden más objektum annak
+ * a tulajdonosnak számít bele a megtartott méretébe, amelyik először éri el, a Game az utolsó, így neki csak
+ * a saját listái és indexei jutnak. A gyengén hivatkozott megfigyelők nem számítanak bele.
+ * <p>
+ * A java.util belsői csak a --add-opens java.base/java.util=ALL-UNNAMED kapcsolóval olvashatók, enélkül az
+ * ArrayList és a HashMap kapacitását a növekedési szabályukból becsüli.
+ * <p>
+ * Használat: {@code footprint <pálya|mentés> [-n sorok]}.
+ */
+public final class HeapFootprint {
+
+    /**
+     * Egy referencia, egy objektumfejléc és egy tömbfejléc mérete bájtban.
+     */
+    private static final int REF;
+    private static final int HEADER;
+    private static final int ARRAY_HEADER;
+
+    /**
+     * Az ArrayList és a HashMap belső tömbje, vagy null, ha nem olvasható.
+     */
+    private static final Field ARRAY_LIST_DATA = internal(ArrayList.class, "elementData");
+    private static final Field HASH_MAP_TABLE = internal(HashMap.class, "table");
+
+    /**
+     * Az ObserverList lustán létrehozott listája.
+     */
+    private static final Field OBSERVER_REFS = internal(ObserverList.class, "refs");
+
+    static {
+        boolean compressedOops = true, compressedClassPointers = true;
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            compressedOops = Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+            compressedClassPointers = Boolean.parseBoolean(bean.getVMOption("UseCompressedClassPointers").getValue());
+        } catch (RuntimeException e) {
+            // Nem HotSpot, a 32 GB alatti heap szokásos beállításaival számol
+        }
+        REF = compressedOops ? 4 : 8;
+        HEADER = compressedClassPointers ? 12 : 16;
+        ARRAY_HEADER = compressedClassPointers ? 16 : 24;
+    }
+
+    /**
+     * A már valamelyik tulajdonosnak tulajdonított objektumok.
+     */
+    private final Set<Object> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * A tulajdonosok adatai osztályonként.
+     */
+    private final Map<Class<?>, ClassStats> classes = new HashMap<>();
+
+    /**
+     * A tulajdonosok gyűjtemény mezőinek adatai Osztály.mező szerint.
+     */
+    private final Map<String, FieldStats> fields = new HashMap<>();
+
+    /**
+     * Az osztályok olvasható példánymezői, vagy null, ha az osztály belsői nem olvashatók.
+     */
+    private final Map<Class<?>, List<Field>> fieldCache = new HashMap<>();
+
+    /**
+     * A belsők nélkül, csak fejlécként becsült osztályok.
+     */
+    private final Set<String> opaque = new TreeSet<>();
+
+    /**
+     * Az ArrayListek száma és az összes kihasználatlan kapacitásuk bájtban.
+     */
+    private int arrayLists;
+    private long wasted;
+
+    /**
+     * Az éppen bejárt mező ArrayListjeinek kihasználatlan kapacitása bájtban.
+     */
+    private long fieldWasted;
+
+    /**
+     * Az ObserverList példányok száma, és ezek közül azoké, amelyek még nem foglaltak listát.
+     */
+    private int observerLists;
+    private int unallocatedObserverLists;
+
+    private HeapFootprint() {
+    }
+
+    /**
+     * A parancs belépési pontja.
+     * @param args a pálya vagy mentés és a kapcsolók
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: footprint <map|save> [-n rows]");
+            return;
+        }
+        int rows = 20;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-n" -> rows = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Game game;
+        try {
+            game = Simulator.loadGame(args[0]);
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Could not open file: " + args[0]);
+            return;
+        }
+        // Az azonosító szerinti indexek lustán épülnek fel, a futó játékban már megvannak
+        Map<String, Integer> observers = game.observerCounts();
+
+        HeapFootprint footprint = new HeapFootprint();
+        footprint.measure(game);
+        footprint.print(args[0], observers, rows);
+    }
+
+    /**
+     * Bejárja a játék objektumgráfját, és tulajdonosonként összegzi a méreteket.
+     * @param game a játék
+     */
+    private void measure(Game game) {
+        // Először a tulajdonosok összegyűjtése, a Game a végére kerül
+        List<Object> owners = new ArrayList<>();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> stack = new ArrayDeque<>();
+        stack.push(game);
+        while (!stack.isEmpty()) {
+            Object obj = stack.pop();
+            if (!seen.add(obj))
+                continue;
+            if (isOwner(obj) && obj != game)
+                owners.add(obj);
+            children(obj, child -> {
+                if (!seen.contains(child))
+                    stack.push(child);
+            });
+        }
+        owners.add(game);
+
+        for (Object owner : owners) {
+            ClassStats stats = classes.computeIfAbsent(owner.getClass(), c -> new ClassStats());
+            claimed.add(owner);
+            long shallow = size(owner);
+            stats.count++;
+            stats.shallow += shallow;
+            stats.retained += shallow;
+            for (Field field : fields(owner.getClass())) {
+                if (field.getType().isPrimitive())
+                    continue;
+                Object value = get(field, owner);
+                if (value == null || isOwner(value))
+                    continue;
+                fieldWasted = 0;
+                long bytes = claim(value);
+                stats.retained += bytes;
+                int elements = elements(value);
+                if (elements >= 0) {
+                    FieldStats fieldStats = fields.computeIfAbsent(
+                            owner.getClass().getSimpleName() + "." + field.getName(), n -> new FieldStats());
+                    fieldStats.count++;
+                    fieldStats.elements += elements;
+                    fieldStats.bytes += bytes;
+                    fieldStats.wasted += fieldWasted;
+                }
+            }
+        }
+    }
+
+    /**
+     * Egy tulajdonos számára lefoglalja a megadott objektumból elérhető, még senkihez nem tartozó objektumokat.
+     * A többi tulajdonoson nem halad át.
+     * @param root a tulajdonos egy mezőjének értéke
+     * @return a lefoglalt objektumok összes mérete
+     */
+    private long claim(Object root) {
+        long bytes = 0;
+        ArrayDeque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Object obj = stack.pop();
+            if (isOwner(obj) || isShared(obj) || !claimed.add(obj))
+                continue;
+            bytes += size(obj);
+            if (obj instanceof ObserverList list) {
+                observerLists++;
+                if (OBSERVER_REFS != null && get(OBSERVER_REFS, list) == null)
+                    unallocatedObserverLists++;
+            }
+            children(obj, stack::push);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param obj egy objektum
+     * @return Igaz, ha az objektum a modell egy tulajdonosa.
+     */
+    private static boolean isOwner(Object obj) {
+        return obj instanceof Game || obj instanceof Room || obj instanceof Door
+                || obj instanceof Entity || obj instanceof Item;
+    }
+
+    /**
+     * @param obj egy objektum
+     * @return Igaz, ha az objektum az egész programban közös, így egyik tulajdonoshoz sem tartozik.
+     */
+    private static boolean isShared(Object obj) {
+        return obj instanceof Enum<?> || obj instanceof Class<?>;
+    }
+
+    /**
+     * @param obj egy objektum
+     * @return Az objektum becsült mérete bájtban, a belső tömbjével együtt, ha az kívülről nem érhető el.
+     */
+    private long size(Object obj) {
+        Class<?> type = obj.getClass();
+        if (type.isArray())
+            return arraySize(type.getComponentType(), Array.getLength(obj));
+        if (obj instanceof String s) {
+            boolean latin1 = s.chars().allMatch(c -> c < 256);
+            return align(HEADER + REF + 4 + 1 + 1) + arraySize(byte.class, latin1 ? s.length() : 2 * s.length());
+        }
+        if (obj instanceof ArrayList<?> list) {
+            int capacity = capacity(list);
+            long unused = (long) (capacity - list.size()) * REF;
+            arrayLists++;
+            wasted += unused;
+            fieldWasted += unused;
+            return align(HEADER + REF + 8) + (capacity == 0 ? 0 : arraySize(Object.class, capacity));
+        }
+        if (obj instanceof HashMap<?, ?> map) {
+            boolean linked = obj instanceof LinkedHashMap;
+            int table = tableLength(map);
+            long node = align(HEADER + 4 + 3 * REF + (linked ? 2 * REF : 0));
+            return align(HEADER + (linked ? 6 : 4) * REF + 16 + (linked ? 1 : 0))
+                    + (table == 0 ? 0 : arraySize(Object.class, table)) + map.size() * node;
+        }
+        if (obj instanceof Reference<?>)
+            return align(HEADER + 4 * REF);
+        if (obj instanceof SplittableRandom)
+            return align(HEADER + 16);
+        if (type.getName().startsWith("java.util.Collections$Unmodifiable"))
+            return align(HEADER + 2 * REF);
+
+        List<Field> instanceFields = fields(type);
+        if (instanceFields == null) {
+            opaque.add(type.getName());
+            return align(HEADER);
+        }
+        long bytes = HEADER;
+        for (Field field : instanceFields)
+            bytes += fieldSize(field.getType());
+        return align(bytes);
+    }
+
+    /**
+     * Átadja az objektum által megtartott objektumokat. A gyenge hivatkozásokat nem követi.
+     * @param obj egy objektum
+     * @param action a hivatkozott objektumok feldolgozója
+     */
+    private void children(Object obj, Consumer<Object> action) {
+        if (obj instanceof Object[] array) {
+            for (Object element : array)
+                if (element != null) action.accept(element);
+        } else if (obj instanceof ArrayList<?> list) {
+            for (Object element : list)
+                if (element != null) action.accept(element);
+        } else if (obj instanceof HashMap<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getKey() != null) action.accept(entry.getKey());
+                if (entry.getValue() != null) action.accept(entry.getValue());
+            }
+        } else if (!(obj instanceof String || obj instanceof Reference<?> || obj.getClass().isArray())) {
+            List<Field> instanceFields = fields(obj.getClass());
+            if (instanceFields == null)
+                return;
+            for (Field field : instanceFields) {
+                if (field.getType().isPrimitive())
+                    continue;
+                Object value = get(field, obj);
+                if (value != null)
+                    action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * @param value egy tulajdonos mezőjének értéke
+     * @return A gyűjtemény elemeinek száma, vagy -1, ha az érték nem gyűjtemény.
+     */
+    private static int elements(Object value) {
+        if (value instanceof Collection<?> collection)
+            return collection.size();
+        if (value instanceof Map<?, ?> map)
+            return map.size();
+        if (value instanceof ObserverList list)
+            return list.size();
+        if (value.getClass().isArray())
+            return Array.getLength(value);
+        return -1;
+    }
+
+    /**
+     * @param type egy osztály
+     * @return Az osztály és az ősei olvashatóvá tett példánymezői, vagy null, ha valamelyik nem olvasható.
+     */
+    private List<Field> fields(Class<?> type) {
+        if (fieldCache.containsKey(type))
+            return fieldCache.get(type);
+        List<Field> result = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                if (!field.trySetAccessible()) {
+                    result = null;
+                    break;
+                }
+                result.add(field);
+            }
+            if (result == null)
+                break;
+        }
+        fieldCache.put(type, result);
+        return result;
+    }
+
+    /**
+     * @param list egy lista
+     * @return A lista belső tömbjének hossza, vagy ha az nem olvasható, a növekedési szabályból becsült hossz.
+     */
+    private static int capacity(ArrayList<?> list) {
+        if (ARRAY_LIST_DATA != null)
+            return Array.getLength(get(ARRAY_LIST_DATA, list));
+        if (list.isEmpty())
+            return 0;
+        int capacity = 10;
+        while (capacity < list.size())
+            capacity += capacity >> 1;
+        return capacity;
+    }
+
+    /**
+     * @param map egy hasítótábla
+     * @return A tábla tömbjének hossza, vagy ha az nem olvasható, a növekedési szabályból becsült hossz.
+     */
+    private static int tableLength(HashMap<?, ?> map) {
+        if (HASH_MAP_TABLE != null) {
+            Object table = get(HASH_MAP_TABLE, map);
+            return table == null ? 0 : Array.getLength(table);
+        }
+        if (map.isEmpty())
+            return 0;
+        int length = 16;
+        while (map.size() > length * 3 / 4)
+            length <<= 1;
+        return length;
+    }
+
+    /**
+     * @param type egy mező típusa
+     * @return A mező mérete bájtban.
+     */
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        if (type == byte.class || type == boolean.class)
+            return 1;
+        return REF;
+    }
+
+    /**
+     * @param component az elemek típusa
+     * @param length a tömb hossza
+     * @return A tömb mérete bájtban.
+     */
+    private static long arraySize(Class<?> component, int length) {
+        return align(ARRAY_HEADER + (long) fieldSize(component) * length);
+    }
+
+    /**
+     * @return A méret 8 bájtra kerekítve.
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @return A mező értéke a megadott objektumban.
+     */
+    private static Object get(Field field, Object obj) {
+        try {
+            return field.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return A megadott osztály olvashatóvá tett mezője, vagy null, ha nem olvasható, például egy meg nem nyitott
+     * JDK modulban.
+     */
+    private static Field internal(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            return field.trySetAccessible() ? field : null;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Kiírja a jelentést.
+     * @param name a betöltött fájl neve
+     * @param observers a megfigyelők száma objektumonként
+     * @param rows a részletes táblázatok legnagyobb sorszáma
+     */
+    private void print(String name, Map<String, Integer> observers, int rows) {
+        long total = 0;
+        for (ClassStats stats : classes.values())
+            total += stats.retained;
+
+        Map<String, ClassStats> kinds = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, ClassStats> entry : classes.entrySet()) {
+            Class<?> type = entry.getKey();
+            String kind = Room.class.isAssignableFrom(type) ? "Rooms" : Door.class.isAssignableFrom(type) ? "Doors"
+                    : Entity.class.isAssignableFrom(type) ? "Entities" : Item.class.isAssignableFrom(type) ? "Items" : "Game";
+            kinds.computeIfAbsent(kind, k -> new ClassStats()).add(entry.getValue());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Footprint of %s: %d bytes (%.2f MB)%n", name, total, total / 1048576.0));
+        sb.append(String.format("Layout: %d-byte headers, %d-byte references, java.util capacities %s%n", HEADER, REF,
+                ARRAY_LIST_DATA != null && HASH_MAP_TABLE != null ? "exact"
+                        : "estimated (run with --add-opens java.base/java.util=ALL-UNNAMED for exact values)"));
+
+        sb.append(String.format("%n%-24s %10s %14s %14s %12s%n", "Kind", "Count", "Shallow", "Retained", "Per object"));
+        for (String kind : List.of("Rooms", "Doors", "Entities", "Items", "Game")) {
+            ClassStats stats = kinds.get(kind);
+            if (stats != null)
+                sb.append(stats.format(kind));
+        }
+
+        sb.append(String.format("%n%-24s %10s %14s %14s %12s%n", "Class", "Count", "Shallow", "Retained", "Per object"));
+        classes.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().retained, a.getValue().retained))
+                .limit(rows)
+                .forEach(e -> sb.append(e.getValue().format(e.getKey().getSimpleName())));
+
+        sb.append(String.format("%n%-24s %10s %10s %14s %12s %12s%n", "Field", "Count", "Elements", "Bytes", "Per owner", "Wasted"));
+        fields.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().bytes, a.getValue().bytes))
+                .limit(rows)
+                .forEach(e -> {
+                    FieldStats f = e.getValue();
+                    sb.append(String.format("%-24s %10d %10d %14d %12.1f %12d%n", e.getKey(), f.count, f.elements,
+                            f.bytes, (double) f.bytes / f.count, f.wasted));
+                });
+
+        sb.append(String.format("%nArrayList unused capacity: %d bytes in %d lists (%.1f%% of the total)%n",
+                wasted, arrayLists, total == 0 ? 0 : 100.0 * wasted / total));
+        int registered = 0;
+        for (int count : observers.values())
+            registered += count;
+        sb.append(String.format("Observers: %d on %d objects, %d ObserverLists (%d without a list)%n",
+                registered, observers.size(), observerLists, unallocatedObserverLists));
+        if (!opaque.isEmpty())
+            sb.append("Counted as bare headers: ").append(String.join(", ", opaque)).append('\n');
+        System.out.print(sb);
+    }
+
+    /**
+     * Egy osztály vagy fajta példányainak összesített adatai.
+     */
+    private static final class ClassStats {
+        int count;
+        long shallow;
+        long retained;
+
+        void add(ClassStats other) {
+            count += other.count;
+            shallow += other.shallow;
+            retained += other.retained;
+        }
+
+        String format(String label) {
+            return String.format("%-24s %10d %14d %14d %12.1f%n", label, count, shallow, retained, (double) retained / count);
+        }
+    }
+
+    /**
+     * Egy gyűjtemény mező összesített adatai a tulajdonosok összes példányán.
+     */
+    private static final class FieldStats {
+        int count;
+        long elements;
+        long bytes;
+        long wasted;
+    }
+}
@@ -0,0 +1,183 @@
+package graphic.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nemnegatív értékek, jellemzően nanoszekundumos időtartamok eloszlása, HdrHistogram-szerű log-lineáris
+ * vödrökkel. Minden kettőhatvány-tartomány 8 egyenlő vödörre oszlik, így a kvantilisek relatív hibája legfeljebb
+ * 12,5%, a tárhely pedig az értékek számától függetlenül 496 számláló. Több szálról is írható.
+ */
+public final class Histogram {
+
+    /**
+     * Ennyi biten tárolódik egy kettőhatvány-tartományon belüli vödör sorszáma.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * A vödrök száma egy kettőhatvány-tartományon belül.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Az összes vödör száma, a teljes long tartományt lefedi.
+     */
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * A hisztogram neve a registryben.
+     */
+    private final String name;
+
+    /**
+     * Igaz, ha az értékek nanoszekundumban mért időtartamok.
+     */
+    private final boolean nanos;
+
+    /**
+     * Az egyes vödrökbe esett értékek száma.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Az értékek összege és maximuma.
+     */
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram(String name, boolean nanos) {
+        this.name = name;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Feljegyez egy értéket, ha a mérés be van kapcsolva.
+     * @param value az érték, a negatív értékek 0-nak számítanak
+     */
+    public void record(long value) {
+        if (!Metrics.ENABLED)
+            return;
+        if (value < 0)
+            value = 0;
+        buckets.incrementAndGet(index(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Feljegyzi a megadott időpont óta eltelt időt. Egymást követő szakaszok így láncolhatók:
+     * {@code t = A.since(t); ... t = B.since(t);}
+     * @param start a szakasz kezdete, a Metrics.now vagy egy korábbi since eredménye
+     * @return a jelenlegi időpont, kikapcsolt mérésnél 0
+     */
+    public long since(long start) {
+        if (!Metrics.ENABLED)
+            return 0;
+        long now = System.nanoTime();
+        record(now - start);
+        return now;
+    }
+
+    /**
+     * @return A hisztogram neve.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Igaz, ha az értékek nanoszekundumban mért időtartamok.
+     */
+    public boolean isNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return A hisztogram jelenlegi állapotának pillanatképe.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long maximum = max.get();
+        return new Snapshot(name, nanos, total, sum.sum(), maximum,
+                percentile(counts, total, 0.5, maximum), percentile(counts, total, 0.9, maximum),
+                percentile(counts, total, 0.99, maximum));
+    }
+
+    /**
+     * Lenullázza a hisztogramot.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * @return A p-edik kvantilist tartalmazó vödör legnagyobb értéke, legfeljebb a maximum.
+     */
+    private static long percentile(long[] counts, long total, double p, long maximum) {
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(maximum, i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE);
+        }
+        return maximum;
+    }
+
+    /**
+     * @param value egy nemnegatív érték
+     * @return Az értéket tartalmazó vödör sorszáma.
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param index egy vödör sorszáma
+     * @return A vödör legkisebb értéke.
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (1L << exponent) | (sub << (exponent - SUB_BITS));
+    }
+
+    /**
+     * Egy hisztogram pillanatképe.
+     * @param name a hisztogram neve
+     * @param nanos igaz, ha az értékek nanoszekundumban mért időtartamok
+     * @param count az értékek száma
+     * @param sum az értékek összege
+     * @param max a legnagyobb érték
+     * @param p50 a medián
+     * @param p90 a 90. percentilis
+     * @param p99 a 99. percentilis
+     */
+    public record Snapshot(String name, boolean nanos, long count, long sum, long max, long p50, long p90, long p99) {
+
+        /**
+         * @return Az értékek átlaga, értékek nélkül 0.
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package graphic.metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A játékmotor számlálóinak és időméréseinek folyamatszintű registryje.
+ * <p>
+ * A mérés csak a -Dlogarlec.metrics=true kapcsolóval működik. Kikapcsolva az ENABLED konstans miatt a JIT
+ * a mérőhívásokat teljesen kiejti, így a forró ágakon sem marad mérhető költség. A mérőpontok a számlálókat és
+ * hisztogramokat egyszer, statikus mezőben kérik el, a mérés maga már nem keres a registryben.
+ * <p>
+ * A -Dlogarlec.metrics.interval=&lt;másodperc&gt; kapcsolóval a registry a megadott időközönként kiírja az
+ * összes mérést a standard kimenetre.
+ */
+public final class Metrics {
+
+    /**
+     * Igaz, ha a mérés be van kapcsolva.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("logarlec.metrics");
+
+    /**
+     * A számlálók és hisztogramok név szerint.
+     */
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * A periodikus kiírást végző szál, vagy null, ha nincs ilyen.
+     */
+    private static ScheduledExecutorService dumper;
+
+    static {
+        long interval = Long.getLong("logarlec.metrics.interval", 0);
+        if (ENABLED && interval > 0)
+            startDump(interval * 1000, System.out);
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * @param name a számláló neve
+     * @return A megadott nevű számláló, az első kéréskor létrehozza.
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * @param name az időmérés neve
+     * @return A megadott nevű, nanoszekundumos időtartamokat gyűjtő hisztogram.
+     */
+    public static Histogram timer(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(n, true));
+    }
+
+    /**
+     * @param name a hisztogram neve
+     * @return A megadott nevű, mértékegység nélküli értékeket gyűjtő hisztogram.
+     */
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(n, false));
+    }
+
+    /**
+     * Egy időmérés kezdete, a Histogram.since párja.
+     * @return a jelenlegi időpont, kikapcsolt mérésnél 0
+     */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return Az összes mérés pillanatképe név szerint rendezve.
+     */
+    public static Snapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        for (Counter counter : counters.values())
+            counterValues.put(counter.getName(), counter.sum());
+        Map<String, Histogram.Snapshot> histogramValues = new TreeMap<>();
+        for (Histogram histogram : histograms.values())
+            histogramValues.put(histogram.getName(), histogram.snapshot());
+        return new Snapshot(counterValues, new ArrayList<>(histogramValues.values()));
+    }
+
+    /**
+     * Lenullázza az összes mérést, például egy bemelegítő szakasz után.
+     */
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Kiírja az összes mérést. A nulla értékű méréseket kihagyja.
+     * @param out a kimenet
+     */
+    public static void dump(PrintStream out) {
+        Snapshot snapshot = snapshot();
+        StringBuilder sb = new StringBuilder("== Metrics ==\n");
+        snapshot.counters().forEach((name, value) -> {
+            if (value != 0)
+                sb.append(String.format("%-40s %12d%n", name, value));
+        });
+        for (Histogram.Snapshot h : snapshot.histograms()) {
+            if (h.count() == 0)
+                continue;
+            if (h.nanos())
+                sb.append(String.format("%-40s %12d  mean %9.3f  p50 %9.3f  p90 %9.3f  p99 %9.3f  max %9.3f us%n",
+                        h.name(), h.count(), h.mean() / 1e3, h.p50() / 1e3, h.p90() / 1e3, h.p99() / 1e3, h.max() / 1e3));
+            else
+                sb.append(String.format("%-40s %12d  mean %9.2f  p50 %9d  p90 %9d  p99 %9d  max %9d%n",
+                        h.name(), h.count(), h.mean(), h.p50(), h.p90(), h.p99(), h.max()));
+        }
+        out.print(sb);
+    }
+
+    /**
+     * Elindítja a mérések periodikus kiírását egy háttérszálon. Csak bekapcsolt mérésnél és egyszer indul el.
+     * @param periodMillis a kiírások közötti idő ezredmásodpercben
+     * @param out a kimenet
+     */
+    public static synchronized void startDump(long periodMillis, PrintStream out) {
+        if (!ENABLED || dumper != null)
+            return;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "logarlec-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(out), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Az összes mérés pillanatképe.
+     * @param counters a számlálók értéke név szerint
+     * @param histograms a hisztogramok pillanatképei név szerint rendezve
+     */
+    public record Snapshot(Map<String, Long> counters, List<Histogram.Snapshot> histograms) {
+    }
+}
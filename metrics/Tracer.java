@@ -0,0 +1,245 @@
+package graphic.metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Egymásba ágyazott időszakaszokat (span) rögzítő nyomkövető, amely a kiválasztott körök idővonalát a Chrome
+ * trace-event JSON formátumában írja ki (chrome://tracing, Perfetto).
+ * <p>
+ * A -Dlogarlec.trace=&lt;első&gt;[-&lt;utolsó&gt;] kapcsolóval kapcsolható be, üres értékkel minden kört rögzít.
+ * Minden szál a saját gyűrűpufferébe ír (-Dlogarlec.trace.buffer, alapértelmezetten 262144 szakasz), betelt
+ * pufferben a legrégebbi szakaszok íródnak felül. A program végén a szakaszok a -Dlogarlec.trace.file fájlba
+ * kerülnek (alapértelmezetten trace.json). Kikapcsolva az ENABLED konstans miatt a hívások költsége nulla.
+ * <p>
+ * A mérőpontok begin és end hívásokkal jelölik a szakaszokat, a nevek sztringliterálok. A kör sorszámát a
+ * Controller és a Game.tick állítja be a szálon, a más szálon kézbesített értesítések a küldő szál körét kapják.
+ */
+public final class Tracer {
+
+    /**
+     * Igaz, ha a nyomkövetés be van kapcsolva.
+     */
+    public static final boolean ENABLED = System.getProperty("logarlec.trace") != null;
+
+    /**
+     * A rögzítendő körök tartománya, mindkét vég benne van.
+     */
+    private static final int FIRST_TURN;
+    private static final int LAST_TURN;
+
+    /**
+     * Egy szál gyűrűpufferének mérete szakaszokban.
+     */
+    private static final int CAPACITY = Math.max(16, Integer.getInteger("logarlec.trace.buffer", 1 << 18));
+
+    /**
+     * Az egymásba ágyazás legnagyobb rögzített mélysége, a mélyebb szakaszok elvesznek.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Az idővonal kezdete.
+     */
+    private static final long EPOCH = System.nanoTime();
+
+    /**
+     * Az összes szál puffere, a kiíráshoz.
+     */
+    private static final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+
+    /**
+     * A szál saját puffere.
+     */
+    private static final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(() -> {
+        Buffer created = new Buffer(Thread.currentThread());
+        buffers.add(created);
+        return created;
+    });
+
+    static {
+        String range = System.getProperty("logarlec.trace", "").trim();
+        int first = Integer.MIN_VALUE, last = Integer.MAX_VALUE;
+        if (!range.isEmpty()) {
+            int dash = range.indexOf('-', 1);
+            first = Integer.parseInt(range.substring(0, dash < 0 ? range.length() : dash).trim());
+            last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1).trim());
+        }
+        FIRST_TURN = first;
+        LAST_TURN = last;
+        if (ENABLED) {
+            File file = new File(System.getProperty("logarlec.trace.file", "trace.json"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    int spans = write(file);
+                    System.out.println("Trace written: " + file + " (" + spans + " spans)");
+                } catch (IOException e) {
+                    System.out.println("Could not write trace: " + e.getMessage());
+                }
+            }, "logarlec-trace"));
+        }
+    }
+
+    private Tracer() {
+    }
+
+    /**
+     * Beállítja a szálon futó játék körét. A rögzítendő tartományon kívüli körök szakaszai nem kerülnek a pufferbe.
+     * @param turn a kör sorszáma
+     */
+    public static void setTurn(int turn) {
+        if (ENABLED)
+            buffer.get().turn = turn;
+    }
+
+    /**
+     * @return A szálon futó játék köre, kikapcsolt nyomkövetésnél 0.
+     */
+    public static int getTurn() {
+        return ENABLED ? buffer.get().turn : 0;
+    }
+
+    /**
+     * Megnyit egy szakaszt a szálon. Minden begin hívást pontosan egy end hívásnak kell követnie, egy finally
+     * blokkban, különben egy kivétel után a szál minden további szakasza rossz szintre kerül.
+     * @param name a szakasz neve, jellemzően Osztály.metódus
+     */
+    public static void begin(String name) {
+        if (ENABLED)
+            buffer.get().begin(name);
+    }
+
+    /**
+     * Lezárja a szálon legutóbb megnyitott szakaszt.
+     */
+    public static void end() {
+        if (ENABLED)
+            buffer.get().end();
+    }
+
+    /**
+     * Kiírja az összes szál pufferét a Chrome trace-event JSON formátumában. A számok a helyi beállítástól
+     * függetlenül tizedesponttal íródnak, különben például magyar nyelvű környezetben érvénytelen lenne a JSON.
+     * A kiírás közben rögzített szakaszok hiányozhatnak a kimenetből.
+     * @param file a kimeneti fájl
+     * @return a kiírt szakaszok száma
+     */
+    public static int write(File file) throws IOException {
+        int spans = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+            boolean first = true;
+            for (Buffer b : buffers) {
+                if (!first)
+                    out.write(',');
+                first = false;
+                out.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + b.tid
+                        + ",\"args\":{\"name\":\"" + escape(b.threadName) + "\"}}");
+                long count = b.count;
+                for (long i = Math.max(0, count - CAPACITY); i < count; i++) {
+                    int slot = (int) (i % CAPACITY);
+                    out.write(String.format(Locale.ROOT, ",\n{\"name\":\"%s\",\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"dur\":%.3f,\"args\":{\"turn\":%d}}",
+                            escape(b.names[slot]), b.tid, (b.starts[slot] - EPOCH) / 1e3, b.durations[slot] / 1e3, b.turns[slot]));
+                    spans++;
+                }
+            }
+            out.write("\n]}\n");
+        }
+        return spans;
+    }
+
+    /**
+     * @param s egy sztring
+     * @return A sztring JSON sztringliterálba illeszthető alakja.
+     */
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Egy szál gyűrűpuffere és a nyitott szakaszainak verme.
+     */
+    private static final class Buffer {
+
+        /**
+         * A szál azonosítója és neve a kimenetben.
+         */
+        final long tid;
+        final String threadName;
+
+        /**
+         * A lezárt szakaszok neve, kezdete, hossza és köre, a count-adik a count % CAPACITY helyre kerül.
+         */
+        final String[] names = new String[CAPACITY];
+        final long[] starts = new long[CAPACITY];
+        final long[] durations = new long[CAPACITY];
+        final int[] turns = new int[CAPACITY];
+
+        /**
+         * Az eddig lezárt szakaszok száma.
+         */
+        volatile long count;
+
+        /**
+         * A nyitott szakaszok neve (null, ha nem rögzítendő), kezdete és köre.
+         */
+        final String[] openNames = new String[MAX_DEPTH];
+        final long[] openStarts = new long[MAX_DEPTH];
+        final int[] openTurns = new int[MAX_DEPTH];
+
+        /**
+         * A nyitott szakaszok száma, a MAX_DEPTH feletti szintekkel együtt.
+         */
+        int depth;
+
+        /**
+         * A szálon futó játék köre.
+         */
+        int turn;
+
+        Buffer(Thread thread) {
+            tid = thread.getId();
+            threadName = thread.getName();
+        }
+
+        void begin(String name) {
+            int d = depth++;
+            if (d >= MAX_DEPTH)
+                return;
+            if (turn < FIRST_TURN || turn > LAST_TURN) {
+                openNames[d] = null;
+                return;
+            }
+            openNames[d] = name;
+            openTurns[d] = turn;
+            openStarts[d] = System.nanoTime();
+        }
+
+        void end() {
+            if (depth == 0)
+                return;
+            int d = --depth;
+            if (d >= MAX_DEPTH || openNames[d] == null)
+                return;
+            long c = count;
+            int slot = (int) (c % CAPACITY);
+            names[slot] = openNames[d];
+            starts[slot] = openStarts[d];
+            durations[slot] = System.nanoTime() - openStarts[d];
+            turns[slot] = openTurns[d];
+            count = c + 1;
+        }
+    }
+}
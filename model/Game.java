@@ -1,20 +1,44 @@
 package graphic.model;
 
+import graphic.metrics.Counter;
+import graphic.metrics.GameEvents;
+import graphic.metrics.Histogram;
+import graphic.metrics.Metrics;
+import graphic.metrics.Tracer;
 import graphic.model.characters.Entity;
 import graphic.model.characters.Student;
+import graphic.model.common.Notifications;
 import graphic.model.items.*;
 import graphic.model.places.Door;
 import graphic.model.places.Room;
+import graphic.model.util.GameRandom;
+import graphic.model.util.GameSerializer;
+import graphic.model.util.IdAllocator;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
 
 /**
  * Az játékot reprezentáló osztály.
  */
 public class Game implements Serializable {
 
+    private static final long serialVersionUID = -4996713977007884359L;
+
+    /**
+     * A játék ciklusának mérései, a szakaszai és a szobák egyesítésének és osztódásának kimenetele.
+     */
+    private static final Histogram TICK = Metrics.timer("game.tick");
+    private static final Histogram TICK_ENTITIES = Metrics.timer("game.tick.entities");
+    private static final Histogram TICK_ROOMS = Metrics.timer("game.tick.rooms");
+    private static final Histogram TICK_MERGE_SPLIT = Metrics.timer("game.tick.mergeSplit");
+    private static final Counter MERGES = Metrics.counter("game.tick.merged");
+    private static final Counter SPLITS = Metrics.counter("game.tick.split");
+
     /**
      * A játék állapotát tárolja, igaz, ha meg lett nyerve
      */
@@ -35,6 +59,35 @@ public class Game implements Serializable {
      */
     private final ArrayList<Entity> entities = new ArrayList<>();
 
+    /**
+     * A játék seedje, amely az összes véletlenszerű döntést meghatározza.
+     */
+    private long seed = new SplittableRandom().nextLong();
+
+    /**
+     * A gyökér véletlenszám generátor, amelyből a felhasználók saját generátort kapnak.
+     */
+    private transient GameRandom random;
+
+    /**
+     * A szobák egyesítéséhez és osztódásához használt véletlenszám generátor.
+     */
+    private transient GameRandom tickRandom;
+
+    /**
+     * A játék szobái, entitásai, tárgyai és ajtói azonosító szerint.
+     * Nem kerül mentésre, első használatkor a reindex építi fel a szobákból és entitásokból.
+     */
+    private transient Map<String, Room> roomIndex;
+    private transient Map<String, Entity> entityIndex;
+    private transient Map<String, Item> itemIndex;
+    private transient Map<String, Door> doorIndex;
+
+    /**
+     * A játék objektumainak azonosítóit kiosztó számlálók, vagy null, ha még nem volt rájuk szükség.
+     */
+    private IdAllocator ids;
+
     /**
      * @return A játékban lévő entitások listája.
      */
@@ -61,12 +114,71 @@ public class Game implements Serializable {
     }
 
     /**
-     * Hozzáad egy entitást a játékhoz.
+     * @return Az aktuális kör sorszáma.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Beállítja az aktuális kör sorszámát, például egy mentés betöltésekor.
+     * @param turn a kör sorszáma
+     */
+    public void setTurn(int turn) {
+        this.turn = turn;
+    }
+
+    /**
+     * Beállítja a játék seedjét és újraindítja belőle a véletlenszám generátorokat.
+     * A korábban leválasztott generátorokat nem érinti.
+     * @param seed az új seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        setRandom(new GameRandom(seed));
+    }
+
+    /**
+     * Lecseréli a gyökér véletlenszám generátort, például egy felvételt készítő vagy visszajátszó generátorra.
+     * A seed nem változik, a korábban leválasztott generátorokat nem érinti.
+     * @param random az új gyökér generátor
+     */
+    public void setRandom(GameRandom random) {
+        this.random = random;
+        tickRandom = random.split();
+    }
+
+    /**
+     * @return A játék seedje.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Leválaszt egy új véletlenszám generátort a játék gyökér generátorából.
+     * @return a felhasználó saját generátora
+     */
+    public GameRandom splitRandom() {
+        if(random == null)
+            setSeed(seed);
+        return random.split();
+    }
+
+    /**
+     * Hozzáad egy entitást a játékhoz, és felveszi az indexbe a nála lévő tárgyakkal együtt.
      * @param e A hozzáadandó entitás.
      */
     public void addEntity(Entity e) {
         entities.add(e);
         e.setGame(this);
+        if(entityIndex == null) {
+            reindex();
+            return;
+        }
+        entityIndex.put(e.getID(), e);
+        for(Item item : e.getItems())
+            registerItem(item);
     }
 
     /**
@@ -75,50 +187,223 @@ public class Game implements Serializable {
      */
     public void entityDied(Entity e) {
         entities.remove(e);
+        if(entityIndex != null)
+            entityIndex.remove(e.getID());
     }
 
     /**
-     * Hozzáad egy szobát a játékhoz.
+     * Hozzáad egy szobát a játékhoz, és felveszi az indexbe az ajtóival és tárgyaival együtt.
      * @param r A hozzáadandó szoba.
      */
     public void addRoom(Room r) {
         rooms.add(r);
+        r.setGame(this);
+        if(roomIndex == null) {
+            reindex();
+            return;
+        }
+        roomIndex.put(r.getID(), r);
+        for(Door door : r.getDoors())
+            registerDoor(door);
+        for(Item item : r.getItems())
+            registerItem(item);
     }
 
     /**
-     * Eltávolít egy szobát a játékból.
+     * Eltávolít egy szobát a játékból és az indexből.
      * @param r Az eltávolítandó szoba.
      */
     public void removeRoom(Room r) {
         rooms.remove(r);
+        if(roomIndex != null)
+            roomIndex.remove(r.getID());
+    }
+
+    /**
+     * Felvesz egy tárgyat az indexbe. Többször is hívható ugyanarra a tárgyra,
+     * a szobák és entitások minden tárgy hozzáadásakor meghívják.
+     * @param item a tárgy
+     */
+    public void registerItem(Item item) {
+        if(itemIndex == null)
+            reindex();
+        itemIndex.put(item.getID(), item);
+    }
+
+    /**
+     * Felvesz egy ajtót az indexbe. Többször is hívható ugyanarra az ajtóra.
+     * @param door az ajtó
+     */
+    public void registerDoor(Door door) {
+        if(doorIndex == null)
+            reindex();
+        doorIndex.put(door.getID(), door);
+    }
+
+    /**
+     * Kiveszi az ajtót az indexből, amikor az ajtó megszűnik.
+     * @param door az ajtó
+     */
+    public void unregisterDoor(Door door) {
+        if(doorIndex != null)
+            doorIndex.remove(door.getID());
+    }
+
+    /**
+     * Összeszámolja a szobák, entitások és tárgyak élő megfigyelőit. Diagnosztikai célra szolgál:
+     * hosszú játék alatt sem nőhet nagyobbra, mint amennyi nézet éppen létezik.
+     * @return A megfigyelt objektumok azonosítója és megfigyelőik száma, azonosító szerint rendezve.
+     */
+    public Map<String, Integer> observerCounts() {
+        if(itemIndex == null)
+            reindex();
+        Map<String, Integer> counts = new TreeMap<>();
+        for(Room room : rooms) {
+            if(room.getObserverCount() > 0)
+                counts.put(room.getID(), room.getObserverCount());
+        }
+        for(Entity entity : entities) {
+            if(entity.getObserverCount() > 0)
+                counts.put(entity.getID(), entity.getObserverCount());
+        }
+        for(Item item : itemIndex.values()) {
+            if(item.getObserverCount() > 0)
+                counts.put(item.getID(), item.getObserverCount());
+        }
+        return counts;
+    }
+
+    /**
+     * @param id a szoba azonosítója
+     * @return Az adott azonosítójú szoba, vagy null.
+     */
+    public Room getRoom(String id) {
+        if(roomIndex == null)
+            reindex();
+        return roomIndex.get(id);
+    }
+
+    /**
+     * @param id az entitás azonosítója
+     * @return Az adott azonosítójú entitás, vagy null.
+     */
+    public Entity getEntity(String id) {
+        if(entityIndex == null)
+            reindex();
+        return entityIndex.get(id);
+    }
+
+    /**
+     * @param id a tárgy azonosítója
+     * @return Az adott azonosítójú tárgy, vagy null.
+     */
+    public Item getItem(String id) {
+        if(itemIndex == null)
+            reindex();
+        return itemIndex.get(id);
+    }
+
+    /**
+     * @param id az ajtó azonosítója
+     * @return Az adott azonosítójú ajtó, vagy null.
+     */
+    public Door getDoor(String id) {
+        if(doorIndex == null)
+            reindex();
+        return doorIndex.get(id);
+    }
+
+    /**
+     * Újraépíti az indexet a szobákból és entitásokból, és beállítja a szobák játékát.
+     * Betöltés után, vagy ha a listákat közvetlenül módosították, kell meghívni.
+     */
+    public void reindex() {
+        roomIndex = new HashMap<>();
+        entityIndex = new HashMap<>();
+        itemIndex = new HashMap<>();
+        doorIndex = new HashMap<>();
+        for(Room room : rooms) {
+            room.setGame(this);
+            roomIndex.put(room.getID(), room);
+            for(Door door : room.getDoors())
+                doorIndex.put(door.getID(), door);
+            for(Item item : room.getItems())
+                itemIndex.put(item.getID(), item);
+        }
+        for(Entity entity : entities) {
+            entityIndex.put(entity.getID(), entity);
+            for(Item item : entity.getItems())
+                itemIndex.put(item.getID(), item);
+        }
     }
 
     /**
      * Végrehajt egy játék ciklust, frissítve az entitások és szobák állapotát.
+     * A ciklus alatti értesítések összevonva, a ciklus végén kerülnek kézbesítésre.
      */
     public void tick() {
+        long start = Metrics.now();
+        GameEvents.Tick event = new GameEvents.Tick();
+        event.begin();
+        Tracer.setTurn(turn);
+        Tracer.begin("Game.tick");
+        try {
+            Notifications.batch(() -> runTick(event));
+        } finally {
+            Tracer.end();
+        }
+        Tracer.setTurn(turn);
+        TICK.since(start);
+        event.end();
+        if(event.shouldCommit()) {
+            event.turn = turn;
+            event.rooms = rooms.size();
+            event.entities = entities.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * A ciklus törzse. A szobák egyesítésének és osztódásának kimenetelét a JFR eseménybe jegyzi.
+     * @param event a ciklus JFR eseménye
+     */
+    private void runTick(GameEvents.Tick event) {
+        long t = Metrics.now();
         for (Entity e : entities) {
             e.tick();
         }
+        t = TICK_ENTITIES.since(t);
 
         for (Room r : rooms) {
             r.tick();
         }
+        t = TICK_ROOMS.since(t);
 
-        Random random = new Random();
-        if(random.nextBoolean()) {
+        if(tickRandom == null)
+            setSeed(seed);
+        if(tickRandom.nextBoolean()) {
             int roomsCount = rooms.size();
-            int first = random.nextInt(roomsCount/2);
-            int second = random.nextInt(roomsCount/2, roomsCount);
+            int first = tickRandom.nextInt(roomsCount/2);
+            int second = tickRandom.nextInt(roomsCount/2, roomsCount);
             Room firstRoom = rooms.get(first);
             Room secondRoom = rooms.get(second);
-            firstRoom.merge(secondRoom);
+            if(firstRoom.merge(secondRoom)) {
+                removeRoom(secondRoom);
+                MERGES.increment();
+                event.merged = firstRoom.getID();
+            }
 
             roomsCount = rooms.size();
-            int index = random.nextInt(roomsCount);
+            int index = tickRandom.nextInt(roomsCount);
             Room roomToSplit = rooms.get(index);
-            roomToSplit.split();
+            Room newRoom = roomToSplit.split();
+            if(newRoom != null) {
+                addRoom(newRoom);
+                SPLITS.increment();
+                event.split = roomToSplit.getID();
+            }
         }
+        TICK_MERGE_SPLIT.since(t);
 
         turn++;
     }
@@ -192,32 +477,81 @@ public class Game implements Serializable {
     }
 
     /**
-     * Az objektumok aktuális számlálóinak listája.
-     * Ez a lista tárolja az aktuális számlálókat, amelyeket későbbi állapotok visszaállítására használnak fel.
+     * Visszaadja a játék azonosító kiosztóját. Ha a játéknak még nincs ilyenje (például egy régi mentésnél),
+     * létrehozza, és lefoglalja benne a játékban már szereplő azonosítókat.
+     * @return az azonosító kiosztó
      */
-    private final ArrayList<Integer> objectNums=new ArrayList<>();
+    public IdAllocator getIds() {
+        if(ids == null) {
+            ids = new IdAllocator();
+            for(Room room : rooms) {
+                ids.reserve(IdAllocator.Kind.ROOM, room.getID());
+                for(Door door : room.getDoors())
+                    ids.reserve(IdAllocator.Kind.DOOR, door.getID());
+                for(Item item : room.getItems())
+                    ids.reserve(IdAllocator.Kind.ITEM, item.getID());
+            }
+            for(Entity entity : entities) {
+                ids.reserve(IdAllocator.Kind.ENTITY, entity.getID());
+                for(Item item : entity.getItems())
+                    ids.reserve(IdAllocator.Kind.ITEM, item.getID());
+            }
+        }
+        return ids;
+    }
 
     /**
-     * Mentésre kerülnek az objektumok aktuális számlálói.
-     * Az aktuális számlálók hozzáadódnak az objectNums listához,
-     * amelyet a későbbi állapotok visszaállítására használnak fel.
+     * Beállítja a játék azonosító kiosztóját, például egy mentés betöltésekor.
+     * @param ids az azonosító kiosztó
      */
-    public void saveObjectNum(){
-        objectNums.add(Door.getObjectNum());
-        objectNums.add(Entity.getObjectNum());
-        objectNums.add(Item.getObjectNum());
-        objectNums.add(Room.getObjectNum());
+    public void setIds(IdAllocator ids) {
+        this.ids = ids;
     }
 
     /**
-     * Az objektumok aktuális számlálóit frissíti a korábban elmentett értékekkel.
-     * Az objectNums lista tartalmát használja fel a számlálók frissítésére.
+     * A Java szerializáció a játék helyett annak bináris mentését írja ki.
+     * Így az ObjectOutputStream nem járja be rekurzívan a szobák és ajtók láncát,
+     * ami nagy pályákon StackOverflowError-hoz vezetne.
+     * @return a játék szerializálható bináris alakja
      */
-    public void updateObjectNums() {
-        Door.updateObjectNum(objectNums.get(0));
-        Entity.updateObjectNum(objectNums.get(1));
-        Item.updateObjectNum(objectNums.get(2));
-        Room.updateObjectNum(objectNums.get(3));
+    private Object writeReplace() {
+        return new SerializedGame(this);
+    }
+
+    /**
+     * A játék bináris mentését tartalmazó, Java szerializációval írható alak.
+     */
+    private static final class SerializedGame implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * A játék bináris mentése.
+         */
+        private final byte[] data;
+
+        SerializedGame(Game game) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                GameSerializer.write(game, bytes);
+                data = bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return A mentésből visszaállított játék.
+         */
+        private Object readResolve() throws ObjectStreamException {
+            try {
+                return GameSerializer.read(new ByteArrayInputStream(data));
+            } catch (IOException e) {
+                InvalidObjectException invalid = new InvalidObjectException("Corrupt game data");
+                invalid.initCause(e);
+                throw invalid;
+            }
+        }
     }
 
     public void initObservers() {
@@ -3,19 +3,21 @@ package graphic.model.characters;
 import graphic.model.places.Door;
 import graphic.model.places.Room;
 
+import java.util.List;
+
 /**
  * A takarító nő reprezentáló osztály.
  */
 public class CleaningLady extends Entity {
 
+    private static final long serialVersionUID = -5229558467674574180L;
+
     /**
-     * A CleaningLady osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy CleaningLady példányt a megadott azonosítóval.
+     * @param id az azonosító
      */
-    public CleaningLady(){
-        objectNum++;
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public CleaningLady(String id){
+        this.id=id;
     }
 
     /**
@@ -26,6 +28,16 @@ public class CleaningLady extends Entity {
         e.meet(this);
     }
 
+    /**
+     * A takarító senkivel sem találkozik, a takarítás a move során történik.
+     * @param room a szoba, ahova a takarító belép
+     * @return üres lista
+     */
+    @Override
+    public List<? extends Entity> partnersIn(Room room) {
+        return List.of();
+    }
+
     /**
      * Meghívja az ősosztály move(door) függvényét, ha ez igaz, akkor
      * kitaraítja a szobáját.
@@ -1,22 +1,24 @@
 package graphic.model.characters;
 
+import graphic.metrics.Tracer;
 import graphic.model.Game;
+import graphic.model.common.ModelEvent;
 import graphic.model.common.Observer;
+import graphic.model.common.ObserverList;
 import graphic.model.items.Item;
 import graphic.model.places.Door;
 import graphic.model.places.Room;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Az entitást reprezentáló absztrakt osztály.
  */
 public abstract class Entity implements Serializable {
-    /**
-     * Ezen statikus tagváltozó azt számolja hány példány jött már létre ezn osztálybból.
-     */
-    protected static int objectNum=0;
+
+    private static final long serialVersionUID = -3120279024656281740L;
 
     /**
      * Ezen tagváltozó egy adott példány egyedi azonósítására szolgáló String értéket tárol.
@@ -24,9 +26,9 @@ public abstract class Entity implements Serializable {
     protected String id;
 
     /***
-     * Az osztály observereit tartalmazó lista gyűjtemény.
+     * Az osztály observereit tartalmazó lista gyűjtemény, gyenge referenciákkal, vagy null, amíg nincs observer.
      */
-    protected ArrayList<Observer> observers;
+    protected transient ObserverList observers;
 
     /**
      * A játékot vezérlő osztály reprezentációja
@@ -59,10 +61,6 @@ public abstract class Entity implements Serializable {
      */
     private boolean killed=false;
 
-    public Entity() {
-        observers = new ArrayList<>();
-    }
-
     /**
      * @return igaz, ha halott, hamis, ha él.
      */
@@ -85,15 +83,21 @@ public abstract class Entity implements Serializable {
             return false;
         }
 
-        boolean ret = door.letEntityThrough(this, room);
+        Tracer.begin("Entity.move");
+        boolean ret;
+        try {
+            ret = door.letEntityThrough(this, room);
 
-        if (ret) {
-            room.removeEntity(this);
-            room = door.getNeighbour(room);
-            room.addEntity(this);
+            if (ret) {
+                room.removeEntity(this);
+                room = door.getNeighbour(room);
+                room.addEntity(this);
+                notifyObservers(new ModelEvent.EntityChanged(this, ModelEvent.EntityProperty.ROOM));
+            }
+        } finally {
+            Tracer.end();
         }
 
-        notifyObservers();
         return ret;
     }
 
@@ -186,9 +190,7 @@ public abstract class Entity implements Serializable {
 
         setStunnedFor(3);
         destRoom.addItems(items);
-
-        items.clear();
-        notifyObservers();
+        clearItems();
 
         return true;
     }
@@ -204,6 +206,17 @@ public abstract class Entity implements Serializable {
         return true;
     }
 
+    /**
+     * Visszaadja a szoba azon entitásait, amelyekkel ez az entitás belépéskor találkozik.
+     * Alapértelmezetten a szoba összes entitása, a leszármazottak szűkíthetik azokra,
+     * akikkel a találkozásnak hatása van.
+     * @param room a szoba, ahova az entitás belép
+     * @return a találkozásban részt vevő entitások
+     */
+    public List<? extends Entity> partnersIn(Room room) {
+        return room.getEntities();
+    }
+
     /**
      * Ezen metódus a paraméterben kapott tárgyat az adott karakter birtokolt tárgyaihoz adja.
      *
@@ -213,7 +226,9 @@ public abstract class Entity implements Serializable {
 
         if(items.size() < itemCapacity) {
             items.add(item);
-            notifyObservers();
+            if(game != null)
+                game.registerItem(item);
+            notifyObservers(new ModelEvent.ItemAdded(this, item));
         }
     }
 
@@ -225,9 +240,19 @@ public abstract class Entity implements Serializable {
      */
     public void removeItem(Item item) {
 
-        items.remove(item);
-        notifyObservers();
+        if (items.remove(item))
+            notifyObservers(new ModelEvent.ItemRemoved(this, item));
+
+    }
 
+    /**
+     * Kiüríti a birtokolt tárgyak listáját, minden tárgyról külön értesítést küldve.
+     * A tárgyak máshová helyezése a hívó feladata.
+     */
+    protected void clearItems() {
+        for (Item item : items)
+            notifyObservers(new ModelEvent.ItemRemoved(this, item));
+        items.clear();
     }
 
     /**
@@ -239,7 +264,7 @@ public abstract class Entity implements Serializable {
 
         if(stunnedFor>0) {
             stunnedFor--;
-            notifyObservers();
+            notifyStateChanged(ModelEvent.EntityProperty.STUNNED);
         }
 
     }
@@ -258,7 +283,15 @@ public abstract class Entity implements Serializable {
      */
     public void setStunnedFor(int value){
         stunnedFor=value;
-        notifyObservers();
+        notifyStateChanged(ModelEvent.EntityProperty.STUNNED);
+    }
+
+    /**
+     * Visszaadja azt az időtartamot, ameddig a karakter elkábult állapotban van.
+     * @return az elkábulás időtartama
+     */
+    public int getStunnedFor() {
+        return stunnedFor;
     }
 
     /**
@@ -276,7 +309,7 @@ public abstract class Entity implements Serializable {
     public void setRoom(Room room) {
 
         this.room = room;
-        notifyObservers();
+        notifyObservers(new ModelEvent.EntityChanged(this, ModelEvent.EntityProperty.ROOM));
     }
 
     /**
@@ -285,7 +318,7 @@ public abstract class Entity implements Serializable {
      */
     public void setGame(Game game) {
         this.game = game;
-        notifyObservers();
+        notifyObservers(new ModelEvent.EntityChanged(this, ModelEvent.EntityProperty.GAME));
     }
 
     /**
@@ -310,7 +343,7 @@ public abstract class Entity implements Serializable {
 
     public void setKilled() {
         killed = true;
-        notifyObservers();
+        notifyStateChanged(ModelEvent.EntityProperty.KILLED);
     }
 
     /**
@@ -344,22 +377,6 @@ public abstract class Entity implements Serializable {
     }
 
 
-    /**
-     * @return Az osztályból létrehozott példányok számát adja vissza.
-     */
-    public static int getObjectNum(){
-        return objectNum;
-    }
-
-    /**
-     * Frissíti az objectNum statikus tagváltozót, ha nagyobb értéket kap.
-     * @param value az új érték amire módosulni próbál
-     */
-    public static void updateObjectNum(int value){
-        if(objectNum<value)
-            objectNum=value;
-    }
-
     public ArrayList<Item> getItems() {
         return items;
     }
@@ -369,6 +386,8 @@ public abstract class Entity implements Serializable {
      * @param obs A gyűjteménybe helyezendő elem.
      */
     public void addObserver(Observer obs){
+        if (observers == null)
+            observers = new ObserverList();
         observers.add(obs);
     }
 
@@ -377,22 +396,48 @@ public abstract class Entity implements Serializable {
      * @param obs A gyűjteményből kivevendő elem.
      */
     public void removeObserver(Observer obs){
-        observers.remove(obs);
+        if (observers != null)
+            observers.remove(obs);
+    }
+
+    /**
+     * @return Az élő observer-ek száma, diagnosztikai célra.
+     */
+    public int getObserverCount(){
+        return observers == null ? 0 : observers.size();
     }
 
     /**
      * Értesíti az összes observer-t, és frissíti, amely ezen osztályt figyeli
      */
     public void notifyObservers(){
-        for (Observer obs:observers) {
-            obs.update();
-        }
+        notifyObservers(new ModelEvent.Changed(this));
+    }
+
+    /**
+     * Értesíti az összes observer-t a megadott változásról.
+     * @param event a változás
+     */
+    public void notifyObservers(ModelEvent event){
+        ObserverList.fire(observers, event);
+    }
+
+    /**
+     * Értesít az entitás egy állapotának változásáról. Az állapot a szoba nézetén is látszik,
+     * ezért a szoba observer-jei is megkapják az eseményt.
+     * @param property a megváltozott állapot
+     */
+    protected void notifyStateChanged(ModelEvent.EntityProperty property){
+        ModelEvent event = new ModelEvent.EntityChanged(this, property);
+        notifyObservers(event);
+        if (room != null)
+            room.notifyObservers(event);
     }
 
     /**
-     * Observer lista beállítása.
+     * Elfelejti az observereket, a lista az első új observerrel jön létre újra.
      */
     public void initObserversList() {
-        observers = new ArrayList<>();
+        observers = null;
     }
 }
@@ -1,19 +1,22 @@
 package graphic.model.characters;
 
+import graphic.model.places.Room;
+
+import java.util.List;
 
 /**
  * A professzort reprezentáló osztály.
  */
 public class Prof extends Entity {
 
+    private static final long serialVersionUID = -389927875346816379L;
+
     /**
-     * Az Prof osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy Prof példányt a megadott azonosítóval.
+     * @param id az azonosító
      */
-    public Prof(){
-        objectNum++;
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public Prof(String id){
+        this.id=id;
     }
 
     /**
@@ -24,6 +27,16 @@ public class Prof extends Entity {
         entity.meet(this);
     }
 
+    /**
+     * Az oktató csak a hallgatókkal találkozik, a többi entitással való találkozásnak nincs hatása.
+     * @param room a szoba, ahova az oktató belép
+     * @return a szoba hallgatói
+     */
+    @Override
+    public List<? extends Entity> partnersIn(Room room) {
+        return room.getStudents();
+    }
+
     /**
      * A paraméterben kapott bemutatkozó hallgatóra, meghívja a megöléséhez
      * szükséges függvényt ezen függvény.
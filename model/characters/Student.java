@@ -1,14 +1,20 @@
 package graphic.model.characters;
 
+import graphic.metrics.GameEvents;
+import graphic.model.common.ModelEvent;
 import graphic.model.items.Beer;
 import graphic.model.items.Item;
 import graphic.model.places.Room;
 
+import java.util.List;
+
 /**
  * A hallgatót reprezentáló osztály.
  */
 public class Student extends Entity {
 
+    private static final long serialVersionUID = -3948005435633886998L;
+
     /**
      * Ez a tagváltozó a részegség állapotát mutatja.
      */
@@ -18,6 +24,11 @@ public class Student extends Entity {
      */
     private boolean moved = false;
 
+    /**
+     * Annak az entitásnak az osztálya, amely megölte a hallgatót, vagy null, ha még él.
+     */
+    private String killedBy;
+
     /**
      * A tanuló konstruktura.
      * @param name az id attribútumot átállítja erre
@@ -30,22 +41,50 @@ public class Student extends Entity {
      * A hívott karaktert megpróbálja megölni ezen metódus. Ez sikeres amennyiben nem tud védekezni.
      */
     public void kill(Entity murderer) {
-        if (drunkFor > 0) {
-            return;
+        GameEvents.StudentKill event = new GameEvents.StudentKill();
+        event.begin();
+        boolean protectedFromKill = drunkFor > 0;
+        if (!protectedFromKill) {
+            for (Item i : items) {
+                if (i.protectAgainstProf()) {
+                    protectedFromKill = true;
+                    break;
+                }
+            }
         }
 
-        for (Item i : items) {
-            if (i.protectAgainstProf()) {
-                return;
-            }
+        if (!protectedFromKill) {
+            murderer.getRoom().addItems(items);
+            clearItems();
+
+            killedBy = murderer.getClass().getSimpleName();
+            setKilled();
         }
 
-        murderer.getRoom().addItems(items);
+        event.end();
+        if (event.shouldCommit()) {
+            event.student = id;
+            event.murderer = murderer.getID();
+            event.room = murderer.getRoom().getID();
+            event.killed = !protectedFromKill;
+            event.roomEntities = murderer.getRoom().getEntities().size();
+            event.commit();
+        }
+    }
 
-        items.clear();
-        notifyObservers();
+    /**
+     * @return Annak az entitásnak az osztálya, amely megölte a hallgatót, vagy null, ha még él.
+     */
+    public String getKilledBy() {
+        return killedBy;
+    }
 
-        setKilled();
+    /**
+     * Beállítja, hogy milyen osztályú entitás ölte meg a hallgatót, például egy mentés betöltésekor.
+     * @param killedBy a gyilkos osztályának neve
+     */
+    public void setKilledBy(String killedBy) {
+        this.killedBy = killedBy;
     }
 
     /**
@@ -79,6 +118,16 @@ public class Student extends Entity {
         entity.meet(this);
     }
 
+    /**
+     * A hallgató csak az oktatókkal találkozik, a többi entitással való találkozásnak nincs hatása.
+     * @param room a szoba, ahova a hallgató belép
+     * @return a szoba oktatói
+     */
+    @Override
+    public List<? extends Entity> partnersIn(Room room) {
+        return room.getProfs();
+    }
+
     /**
      * Ezen függvény bemutatja a paraméterben kapott oktatónak önmagát.
      * @param prof oktató amelynek bemutatkozik az adott hallgató
@@ -101,9 +150,7 @@ public class Student extends Entity {
 
         setStunnedFor(3);
         room.addItems(items);
-
-        items.clear();
-        notifyObservers();
+        clearItems();
 
         return true;
     }
@@ -137,7 +184,7 @@ public class Student extends Entity {
      */
     public void makeStudentDrunk() {
         drunkFor = 3;
-        notifyObservers();
+        notifyStateChanged(ModelEvent.EntityProperty.DRUNK);
     }
 
     /**
@@ -150,7 +197,7 @@ public class Student extends Entity {
         if (drunkFor > 0) {
             drunkFor--;
 
-            notifyObservers();
+            notifyStateChanged(ModelEvent.EntityProperty.DRUNK);
         }
     }
 
@@ -161,7 +208,7 @@ public class Student extends Entity {
     public void setDrunkFor(int value){
         drunkFor = value;
 
-        notifyObservers();
+        notifyStateChanged(ModelEvent.EntityProperty.DRUNK);
     }
 
     /**
@@ -184,14 +231,6 @@ public class Student extends Entity {
         return builder.toString();
     }
 
-    /**
-     * Visszaadja azt az időtartamot, ameddig a karakter elkábult állapotban van.
-     * @return az elkábulás időtartama
-     */
-    public int getStunnedFor() {
-        return stunnedFor;
-    }
-
     /**
      * Visszaadja azt az időtartamot, ameddig a karakter ittas állapotban van.
      * @return az ittasság időtartama
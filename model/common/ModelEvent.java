@@ -0,0 +1,130 @@
+package graphic.model.common;
+
+import graphic.model.characters.Entity;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+
+/**
+ * A modell egy változását leíró esemény. A megfigyelők az update(List) metóduson keresztül kapják meg,
+ * így csak a ténylegesen megváltozott részt kell frissíteniük.
+ */
+public sealed interface ModelEvent {
+
+    /**
+     * @return Az objektum, amelynek a megfigyelői az eseményt megkapják.
+     */
+    Object source();
+
+    /**
+     * Közelebbről meg nem határozott változás, a megfigyelőnek mindent újra kell olvasnia.
+     * @param source a megváltozott objektum
+     */
+    record Changed(Object source) implements ModelEvent {
+    }
+
+    /**
+     * A szoba egy tulajdonsága megváltozott.
+     * @param source a szoba
+     * @param flag a tulajdonság
+     * @param value az új érték
+     */
+    record RoomFlagChanged(Room source, Flag flag, boolean value) implements ModelEvent {
+    }
+
+    /**
+     * A szoba tulajdonságai.
+     */
+    enum Flag { TOXIC, WET, CURSED, STICKY }
+
+    /**
+     * A szoba befogadóképessége megváltozott.
+     * @param source a szoba
+     * @param capacity az új befogadóképesség
+     */
+    record CapacityChanged(Room source, int capacity) implements ModelEvent {
+    }
+
+    /**
+     * Egy entitás belépett a szobába.
+     * @param source a szoba
+     * @param entity az entitás
+     */
+    record EntityEntered(Room source, Entity entity) implements ModelEvent {
+    }
+
+    /**
+     * Egy entitás elhagyta a szobát.
+     * @param source a szoba
+     * @param entity az entitás
+     */
+    record EntityLeft(Room source, Entity entity) implements ModelEvent {
+    }
+
+    /**
+     * Egy tárgy a szobába vagy egy entitáshoz került.
+     * @param source a szoba vagy az entitás
+     * @param item a tárgy
+     */
+    record ItemAdded(Object source, Item item) implements ModelEvent {
+    }
+
+    /**
+     * Egy tárgy kikerült a szobából vagy egy entitástól.
+     * @param source a szoba vagy az entitás
+     * @param item a tárgy
+     */
+    record ItemRemoved(Object source, Item item) implements ModelEvent {
+    }
+
+    /**
+     * Egy ajtó a szobához került.
+     * @param source a szoba
+     * @param door az ajtó
+     */
+    record DoorAdded(Room source, Door door) implements ModelEvent {
+    }
+
+    /**
+     * Egy ajtó kikerült a szobából.
+     * @param source a szoba
+     * @param door az ajtó
+     */
+    record DoorRemoved(Room source, Door door) implements ModelEvent {
+    }
+
+    /**
+     * Egy ajtó eltűnt vagy megjelent, az új állapot a door.isClosed() értéke.
+     * Az ajtó mindkét szobájának megfigyelői megkapják.
+     * @param source a szoba
+     * @param door az ajtó
+     */
+    record DoorToggled(Room source, Door door) implements ModelEvent {
+    }
+
+    /**
+     * Egy entitás valamely állapota megváltozott.
+     * @param source az entitás
+     * @param property a megváltozott állapot
+     */
+    record EntityChanged(Entity source, EntityProperty property) implements ModelEvent {
+    }
+
+    /**
+     * Az entitások megfigyelhető állapotai.
+     */
+    enum EntityProperty { STUNNED, DRUNK, KILLED, ROOM, GAME }
+
+    /**
+     * Egy tárgy valamely állapota megváltozott.
+     * @param source a tárgy
+     * @param property a megváltozott állapot
+     */
+    record ItemChanged(Item source, ItemProperty property) implements ModelEvent {
+    }
+
+    /**
+     * A tárgyak megfigyelhető állapotai.
+     */
+    enum ItemProperty { HEALTH, PAIR, ACTIVE, ROOM }
+}
@@ -0,0 +1,175 @@
+package graphic.model.common;
+
+import graphic.metrics.Tracer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A modell értesítéseit összegyűjtő és összevonó segédosztály.
+ * <p>
+ * Egy batch hatókörön belül a notifyObservers hívások nem futtatják azonnal a megfigyelőket,
+ * csak megjelölik őket és összegyűjtik nekik az eseményeket. A legkülső hatókör végén minden megjelölt
+ * megfigyelő pontosan egyszer kap értesítést az összes neki szóló eseménnyel, az első megjelölés sorrendjében.
+ * A hatókör szálanként külön van nyilvántartva.
+ * <p>
+ * Hatókörön kívül az értesítés azonnal, a hívó szálon történik, ahogy korábban.
+ * Az összegyűjtött értesítések kézbesítését a Dispatcher végzi, a grafikus felület például az EDT-re teheti.
+ */
+public final class Notifications {
+
+    /**
+     * Az összegyűjtött értesítések kézbesítője.
+     */
+    public interface Dispatcher {
+
+        /**
+         * Kézbesíti az összegyűjtött értesítéseket.
+         * @param flush a megfigyelőket frissítő művelet
+         */
+        void dispatch(Runnable flush);
+    }
+
+    /**
+     * Az éppen nyitott hatókör a szálon.
+     */
+    private static final ThreadLocal<Batch> current = new ThreadLocal<>();
+
+    /**
+     * A kézbesítő, alapértelmezetten a hívó szálon azonnal futtat.
+     */
+    private static volatile Dispatcher dispatcher = Runnable::run;
+
+    /**
+     * A megfigyelőknek eddig kézbesített értesítések (update hívások) száma.
+     */
+    private static final LongAdder delivered = new LongAdder();
+
+    /**
+     * A megfigyelők update metódusának szakaszneve a nyomkövetéshez, osztályonként.
+     */
+    private static final ClassValue<String> UPDATE_SPANS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName() + ".update";
+        }
+    };
+
+    private Notifications() {
+    }
+
+    /**
+     * Beállítja, hogy az összegyűjtött értesítések hogyan kerüljenek kézbesítésre.
+     * @param dispatcher az új kézbesítő
+     */
+    public static void setDispatcher(Dispatcher dispatcher) {
+        Notifications.dispatcher = dispatcher;
+    }
+
+    /**
+     * @return A megfigyelőknek a program indulása óta kézbesített értesítések (update hívások) száma.
+     */
+    public static long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * Értesíti a megfigyelőket az eseményről, vagy ha a szálon nyitott hatókör van, megjelöli őket.
+     * @param observers a megfigyelők
+     * @param event az esemény
+     */
+    public static void notifyAll(List<Observer> observers, ModelEvent event) {
+        if (observers == null || observers.isEmpty())
+            return;
+        Batch batch = current.get();
+        if (batch != null) {
+            if (batch.dirty == null)
+                batch.dirty = new LinkedHashMap<>();
+            for (Observer obs : observers)
+                batch.dirty.computeIfAbsent(obs, o -> new ArrayList<>(2)).add(event);
+            return;
+        }
+        List<ModelEvent> events = List.of(event);
+        for (Observer obs : observers) {
+            update(obs, events);
+        }
+    }
+
+    /**
+     * Lefuttatja a műveletet egy hatókörön belül, majd kézbesíti az összevont értesítéseket.
+     * A hatókörök egymásba ágyazhatók, ilyenkor csak a legkülső végén történik kézbesítés.
+     * @param action a művelet
+     */
+    public static void batch(Runnable action) {
+        batch(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Lefuttatja a műveletet egy hatókörön belül, majd kézbesíti az összevont értesítéseket.
+     * @param action a művelet
+     * @return a művelet eredménye
+     */
+    public static <T> T batch(Supplier<T> action) {
+        if (current.get() != null)
+            return action.get();
+
+        Batch batch = new Batch();
+        current.set(batch);
+        try {
+            return action.get();
+        } finally {
+            current.remove();
+            if (batch.dirty != null) {
+                Map<Observer, List<ModelEvent>> dirty = batch.dirty;
+                int turn = Tracer.getTurn();
+                dispatcher.dispatch(() -> {
+                    Tracer.setTurn(turn);
+                    Tracer.begin("Notifications.flush");
+                    try {
+                        dirty.forEach(Notifications::update);
+                    } finally {
+                        Tracer.end();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Értesít egy megfigyelőt, bekapcsolt nyomkövetésnél a megfigyelő osztályáról elnevezett szakaszban.
+     * @param obs a megfigyelő
+     * @param events a neki szóló események
+     */
+    private static void update(Observer obs, List<ModelEvent> events) {
+        delivered.increment();
+        if (!Tracer.ENABLED) {
+            obs.update(events);
+            return;
+        }
+        Tracer.begin(UPDATE_SPANS.get(obs.getClass()));
+        try {
+            obs.update(events);
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    /**
+     * Egy nyitott hatókör állapota.
+     */
+    private static final class Batch {
+
+        /**
+         * A megjelölt megfigyelők az első megjelölés sorrendjében, a nekik szóló eseményekkel,
+         * vagy null, ha még nincs ilyen.
+         */
+        LinkedHashMap<Observer, List<ModelEvent>> dirty;
+    }
+}
@@ -1,5 +1,7 @@
 package graphic.model.common;
 
+import java.util.List;
+
 /**
  * Az Observer interfész meghatározza a megfigyelők (observerek) számára a frissítési metódust.
  * A megfigyelési mintában a megfigyelők értesítést kapnak, amikor az általuk figyelt objektum állapota megváltozik.
@@ -11,4 +13,14 @@ public interface Observer {
      * Az implementációknak meg kell határozniuk, hogy milyen lépéseket tegyenek a frissítéskor.
      */
     void update();
+
+    /**
+     * A megfigyelt objektum változásait leíró eseményekkel hívódik meg, egy összevont értesítésben
+     * az összes esemény egyszerre érkezik, keletkezési sorrendben.
+     * Alapértelmezetten a teljes frissítést végző update() metódust hívja.
+     * @param events a változások
+     */
+    default void update(List<ModelEvent> events) {
+        update();
+    }
 }
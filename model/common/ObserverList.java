@@ -0,0 +1,116 @@
+package graphic.model.common;
+
+import graphic.metrics.Histogram;
+import graphic.metrics.Metrics;
+import graphic.metrics.Tracer;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Egy modellobjektum megfigyelőinek listája, gyenge referenciákkal.
+ * <p>
+ * A lista nem tartja életben a megfigyelőket: ha egy nézetre már csak a modell hivatkozik, a szemétgyűjtő
+ * felszabadíthatja, és a lista a következő bejáráskor kitakarítja a bejegyzését. A nézetet a létrehozójának
+ * kell életben tartania, amíg használja. A lista csak az első megfigyelő felvételekor foglal memóriát.
+ */
+public final class ObserverList {
+
+    /**
+     * Az értesítések megfigyelőszáma a forrásuk osztálya szerint, például notify.fanout.Room.
+     */
+    private static final ClassValue<Histogram> FANOUT = new ClassValue<>() {
+        @Override
+        protected Histogram computeValue(Class<?> type) {
+            return Metrics.histogram("notify.fanout." + type.getSimpleName());
+        }
+    };
+
+    /**
+     * A megfigyelők gyenge referenciái, vagy null, ha még nem volt megfigyelő.
+     */
+    private ArrayList<WeakReference<Observer>> refs;
+
+    /**
+     * Felveszi a megfigyelőt, ha még nincs a listában.
+     * @param obs a megfigyelő
+     */
+    public void add(Observer obs) {
+        if (refs == null)
+            refs = new ArrayList<>(2);
+        refs.removeIf(ref -> ref.get() == null);
+        for (WeakReference<Observer> ref : refs) {
+            if (ref.get() == obs)
+                return;
+        }
+        refs.add(new WeakReference<>(obs));
+    }
+
+    /**
+     * Kiveszi a megfigyelőt a listából.
+     * @param obs a megfigyelő
+     */
+    public void remove(Observer obs) {
+        if (refs != null)
+            refs.removeIf(ref -> ref.get() == null || ref.get() == obs);
+    }
+
+    /**
+     * @return Az élő megfigyelők a felvétel sorrendjében, a felszabadítottak bejegyzését közben törli.
+     */
+    public List<Observer> live() {
+        if (refs == null || refs.isEmpty())
+            return List.of();
+        List<Observer> live = new ArrayList<>(refs.size());
+        refs.removeIf(ref -> {
+            Observer obs = ref.get();
+            if (obs == null)
+                return true;
+            live.add(obs);
+            return false;
+        });
+        return live;
+    }
+
+    /**
+     * @return Az élő megfigyelők száma.
+     */
+    public int size() {
+        return live().size();
+    }
+
+    /**
+     * Értesíti egy modellobjektum megfigyelőit a változásról. A modellobjektumok csak az első megfigyelőjük
+     * felvételekor hozzák létre a listájukat, addig null.
+     * @param observers a megfigyelők listája, vagy null
+     * @param event a változás
+     */
+    public static void fire(ObserverList observers, ModelEvent event) {
+        if (observers != null)
+            observers.fire(event);
+        else if (Metrics.ENABLED)
+            FANOUT.get(event.source().getClass()).record(0);
+    }
+
+    /**
+     * Értesíti az élő megfigyelőket a változásról. Megfigyelők nélkül nem foglal memóriát.
+     * @param event a változás
+     */
+    public void fire(ModelEvent event) {
+        if (refs == null || refs.isEmpty()) {
+            if (Metrics.ENABLED)
+                FANOUT.get(event.source().getClass()).record(0);
+            return;
+        }
+        List<Observer> live = live();
+        if (Metrics.ENABLED)
+            FANOUT.get(event.source().getClass()).record(live.size());
+        Tracer.begin("ObserverList.fire");
+        try {
+            Notifications.notifyAll(live, event);
+        } finally {
+            Tracer.end();
+        }
+    }
+}
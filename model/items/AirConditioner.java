@@ -1,21 +1,22 @@
 package graphic.model.items;
 
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 
 /**
  * A légfrissítő egy aktiválással hasznosítható tárgy.
  */
 public class AirConditioner extends Item {
 
+    private static final long serialVersionUID = -8314654462193395750L;
+
     /**
-     * Az AirConditioner osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy AirConditioner példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public AirConditioner(){
+    public AirConditioner(String id){
+        super(id);
         health=1;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -30,6 +31,6 @@ public class AirConditioner extends Item {
             return;
         student.getRoom().detoxicate(); //Detoxicate the user's room.
         health--;
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
     }
 }
@@ -1,6 +1,7 @@
 package graphic.model.items;
 
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 
 /**
  * A sör egy aktiválással hasznosítható tárgy.
@@ -8,11 +9,15 @@ import graphic.model.characters.Student;
  */
 public class Beer extends Item {
 
-    public Beer(){
-        health = 1;
+    private static final long serialVersionUID = -7235404572639419234L;
 
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    /**
+     * Létrehoz egy Beer példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
+     */
+    public Beer(String id){
+        super(id);
+        health = 1;
     }
 
     /**
@@ -33,6 +38,6 @@ public class Beer extends Item {
             student.drop(_item);
             break;
         }
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
     }
 }
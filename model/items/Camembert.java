@@ -2,21 +2,22 @@ package graphic.model.items;
 
 import graphic.model.places.Room;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 
 /**
  * Ez a tárgy az őt felhasználó hallgató szobáját mérgezővé teszi, aktiválás hatására.
  */
 public class Camembert extends Item {
 
+    private static final long serialVersionUID = -3773570722014547818L;
+
     /**
-     * A Camembert osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy Camembert példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public Camembert(){
+    public Camembert(String id){
+        super(id);
         health=1;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -34,6 +35,6 @@ public class Camembert extends Item {
         Room studentRoom = student.getRoom();
         studentRoom.makeRoomToxic();
         health--;
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
     }
 }
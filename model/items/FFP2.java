@@ -1,19 +1,21 @@
 package graphic.model.items;
 
+import graphic.model.common.ModelEvent;
+
 /**
  * Azon tárgy, amely a hallgatókat képes megvédeni mérges gázzal teli szoba hatásától.
  */
 public class FFP2 extends Item {
 
+    private static final long serialVersionUID = -7571224705413266187L;
+
     /**
-     * Az FFP2 osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy FFP2 példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public FFP2(){
+    public FFP2(String id){
+        super(id);
         health = 3;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -29,7 +31,7 @@ public class FFP2 extends Item {
             return false;
         health--;
 
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
         return true;
     }
 
@@ -5,13 +5,14 @@ package graphic.model.items;
  */
 public class FakeFFP2 extends FFP2 {
 
+    private static final long serialVersionUID = -6197583359120832715L;
+
     /**
-     * A FakeFFP2 osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy FakeFFP2 példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public FakeFFP2(){
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public FakeFFP2(String id){
+        super(id);
     }
 
     /**
@@ -7,13 +7,14 @@ import graphic.model.characters.Entity;
  */
 public class FakeLogarlec extends Logarlec {
 
+    private static final long serialVersionUID = 7430946845673977329L;
+
     /**
-     * A FakeLogarlec osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy FakeLogarlec példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public FakeLogarlec(){
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public FakeLogarlec(String id){
+        super(id);
     }
 
     /**
@@ -5,13 +5,14 @@ package graphic.model.items;
  */
 public class FakeTVSZ extends TVSZ {
 
+    private static final long serialVersionUID = -4903293817895657355L;
+
     /**
-     * A FakeTVSZ osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy FakeTVSZ példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public FakeTVSZ() {
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public FakeTVSZ(String id){
+        super(id);
     }
 
     /**
@@ -1,7 +1,9 @@
 package graphic.model.items;
 
 import graphic.model.characters.Entity;
+import graphic.model.common.ModelEvent;
 import graphic.model.common.Observer;
+import graphic.model.common.ObserverList;
 import graphic.model.places.Room;
 import graphic.model.characters.Student;
 
@@ -14,10 +16,8 @@ import java.util.ArrayList;
  */
 public abstract class Item implements Serializable {
 
-    /**
-     * Ezen statikus tagváltozó azt számolja hány példány jött már létre ezn osztálybból.
-     */
-    protected static int objectNum=0;
+    private static final long serialVersionUID = 5614087516300795654L;
+
 
     /**
      * Ezen tagváltozó egy adott példány egyedi azonósítására szolgáló String értéket tárol.
@@ -25,9 +25,9 @@ public abstract class Item implements Serializable {
     protected String id;
 
     /***
-     * Az osztály observereit tartalmazó lista gyűjtemény.
+     * Az osztály observereit tartalmazó lista gyűjtemény, gyenge referenciákkal, vagy null, amíg nincs observer.
      */
-    protected ArrayList<Observer> observers=new ArrayList<>();
+    protected transient ObserverList observers;
 
     /**
      * Ezen tagváltozó egy adott példány életét reprezentálja.
@@ -40,12 +40,12 @@ public abstract class Item implements Serializable {
     protected Item pair;
 
     /**
-     * Az Item osztály konstruktora.
-     * Beállítja a párt null-ra
+     * Létrehoz egy tárgyat a megadott azonosítóval, a párját null-ra állítja.
+     * Új tárgy azonosítóját a játék IdAllocator-a adja, mentés betöltésekor a mentett azonosító.
+     * @param id a tárgy azonosítója
      */
-    public Item(){
-        observers = new ArrayList<>();
-        objectNum++;
+    protected Item(String id){
+        this.id = id;
 
         pair = null;
     }
@@ -115,7 +115,7 @@ public abstract class Item implements Serializable {
     public void setPair(Item pair) {
         this.pair = pair;
 
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.PAIR);
     }
 
     /**
@@ -149,27 +149,13 @@ public abstract class Item implements Serializable {
         return builder.toString();
     }
 
-    /**
-     * @return Az osztályból létrehozott példányok számát adja vissza.
-     */
-    public static int getObjectNum(){
-        return objectNum;
-    }
-
-    /**
-     * Frissíti az objectNum statikus tagváltozót, ha nagyobb értéket kap.
-     * @param value az új érték amire módosulni próbál
-     */
-    public static void updateObjectNum(int value){
-        if(objectNum<value)
-            objectNum=value;
-    }
-
     /**
      * Az observers gyűjtemény elemei közé rakja a paraméterben kapott elemet.
      * @param obs A gyűjteménybe helyezendő elem.
      */
     public void addObserver(Observer obs){
+        if (observers == null)
+            observers = new ObserverList();
         observers.add(obs);
     }
 
@@ -178,16 +164,61 @@ public abstract class Item implements Serializable {
      * @param obs A gyűjteményből kivevendő elem.
      */
     public void removeObserver(Observer obs){
-        observers.remove(obs);
+        if (observers != null)
+            observers.remove(obs);
+    }
+
+    /**
+     * @return Az élő observer-ek száma, diagnosztikai célra.
+     */
+    public int getObserverCount(){
+        return observers == null ? 0 : observers.size();
     }
 
     /**
      * Értesíti az összes observer-t, és frissíti, amely ezen osztályt figyeli
      */
     public void notifyObservers(){
-        for (Observer obs:observers) {
-            obs.update();
-        }
+        notifyObservers(new ModelEvent.Changed(this));
+    }
+
+    /**
+     * Értesíti az összes observer-t a megadott változásról.
+     * @param event a változás
+     */
+    public void notifyObservers(ModelEvent event){
+        ObserverList.fire(observers, event);
+    }
+
+    /**
+     * Értesíti az összes observer-t a tárgy egy állapotának változásáról.
+     * @param property a megváltozott állapot
+     */
+    protected void notifyChanged(ModelEvent.ItemProperty property){
+        notifyObservers(new ModelEvent.ItemChanged(this, property));
+    }
+
+    /**
+     * @return A tárgy élete.
+     */
+    public int getHealth() {
+        return health;
+    }
+
+    /**
+     * Beállítja a tárgy életét, például egy mentés betöltésekor.
+     * @param health az új érték
+     */
+    public void setHealth(int health) {
+        this.health = health;
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
+    }
+
+    /**
+     * @return A tárgy párja, vagy null.
+     */
+    public Item getPair() {
+        return pair;
     }
 
     /**
@@ -205,6 +236,6 @@ public abstract class Item implements Serializable {
     public boolean hasPair() { return pair != null; }
 
     public void initObserversList() {
-        observers = new ArrayList<>();
+        observers = null;
     }
 }
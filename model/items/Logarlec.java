@@ -8,15 +8,15 @@ import graphic.model.characters.Entity;
  */
 public class Logarlec extends Item {
 
+    private static final long serialVersionUID = -5424961383573564729L;
+
     /**
-     * Az Logarlec osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy Logarlec példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public Logarlec(){
+    public Logarlec(String id){
+        super(id);
         health = -1;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -1,18 +1,21 @@
 package graphic.model.items;
 
+import graphic.model.common.ModelEvent;
+
 /**
  * A játékban szereplő TVSZ objektumok reprezentálásért felel.
  * A felhasználóját megvédi az oktatók támadásaitól.
  */
 public class TVSZ extends Item {
 
+    private static final long serialVersionUID = 1106711274900567034L;
+
     /**
-     * Az TVSZ osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy TVSZ példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public TVSZ(){
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public TVSZ(String id){
+        super(id);
         health = 1;
     }
 
@@ -27,7 +30,7 @@ public class TVSZ extends Item {
             return false;
         }
         health--;
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
 
         return true;
     }
@@ -1,8 +1,10 @@
 package graphic.model.items;
 
+import graphic.metrics.GameEvents;
 import graphic.model.characters.Entity;
 import graphic.model.places.Room;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 
 /**
  * A játékban megtalálható tranzisztorokat reprezentáló osztály.
@@ -10,20 +12,20 @@ import graphic.model.characters.Student;
  */
 public class Transistor extends Item {
 
+    private static final long serialVersionUID = 6623086481969176666L;
+
     /**
      * Az aktív állapotot reprezentálja.
      */
     private boolean active;
 
     /**
-     * Az Transistor osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy Transistor példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public Transistor(){
+    public Transistor(String id){
+        super(id);
         health = -1;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -57,7 +59,6 @@ public class Transistor extends Item {
             setActive(true);
             student.drop(this);
         }
-        notifyObservers();
     }
 
     /**
@@ -81,8 +82,6 @@ public class Transistor extends Item {
     public void link(Item item) {
         if(item.link(this)) {
             setPair(item);
-
-            notifyObservers();
         }
     }
 
@@ -94,7 +93,6 @@ public class Transistor extends Item {
      */
     public boolean link(Transistor transistor) {
         setPair(transistor);
-        notifyObservers();
         return true;
     }
 
@@ -107,6 +105,9 @@ public class Transistor extends Item {
      * @return Sikerült-e a teleport.
      */
     boolean teleport(Student student) {
+        GameEvents.Teleport event = new GameEvents.Teleport();
+        event.begin();
+        Room from = student.getRoom();
         boolean accepted = room.acceptEntity(student);
         if(accepted) {
             // Move student
@@ -119,7 +120,15 @@ public class Transistor extends Item {
             setPair(null);
         }
 
-        notifyObservers();
+        event.end();
+        if(event.shouldCommit()) {
+            event.student = student.getID();
+            event.fromRoom = from.getID();
+            event.room = room.getID();
+            event.accepted = accepted;
+            event.roomEntities = room.getEntities().size();
+            event.commit();
+        }
         return accepted;
     }
 
@@ -129,7 +138,7 @@ public class Transistor extends Item {
     public void setRoom(Room room) {
         this.room = room;
 
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.ROOM);
     }
 
     /**
@@ -138,7 +147,21 @@ public class Transistor extends Item {
     public void setActive(boolean active) {
         this.active = active;
 
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.ACTIVE);
+    }
+
+    /**
+     * @return A tranzisztorban regisztrált szoba, vagy null.
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * @return Igaz, ha a tranzisztor aktív.
+     */
+    public boolean isActive() {
+        return active;
     }
 
     /**
@@ -2,21 +2,22 @@ package graphic.model.items;
 
 import graphic.model.places.Room;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 
 /**
  * A szobát, amelyben a hallgató aktiválja ezt a tárgyat nedvessé teszi (letörlődik a tábla).
  */
 public class WetSponge extends Item {
 
+    private static final long serialVersionUID = 282767985229169507L;
+
     /**
-     * Az WetSponge osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy WetSponge példányt a megadott azonosítóval.
+     * @param id a tárgy azonosítója
      */
-    public WetSponge(){
+    public WetSponge(String id){
+        super(id);
         health = 1;
-
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
     }
 
     /**
@@ -34,7 +35,7 @@ public class WetSponge extends Item {
         studentRoom.makeRoomWet();
         health--;
 
-        notifyObservers();
+        notifyChanged(ModelEvent.ItemProperty.HEALTH);
     }
 
 }
@@ -1,5 +1,6 @@
 package graphic.model.places;
 
+import graphic.metrics.Tracer;
 import graphic.model.characters.Entity;
 
 import java.io.Serializable;
@@ -9,12 +10,7 @@ import java.io.Serializable;
  */
 public class Door implements Serializable {
 
-
-
-    /**
-     * Ezen statikus tagváltozó azt számolja hány példány jött már létre ezn osztálybból.
-     */
-    protected static int objectNum=0;
+    private static final long serialVersionUID = -6964150986496592713L;
 
     /**
      * Ezen tagváltozó egy adott példány egyedi azonósítására szolgáló String értéket tárol.
@@ -62,13 +58,12 @@ public class Door implements Serializable {
     }
 
     /**
-     * A Door osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót.
+     * Létrehoz egy ajtót a megadott azonosítóval.
+     * Új ajtó azonosítóját a játék IdAllocator-a adja, mentés betöltésekor a mentett azonosító.
+     * @param id az ajtó azonosítója
      */
-    public Door(){
-        objectNum++;
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    public Door(String id){
+        this.id=id;
     }
 
     /**
@@ -86,22 +81,26 @@ public class Door implements Serializable {
      * @return Igaz, ha az entitás áthaladhatott az ajtón, egyébként hamis.
      */
     public boolean letEntityThrough(Entity e, Room src) {
+        Tracer.begin("Door.letEntityThrough");
+        try {
+            Room dest = getNeighbour(src);
 
-        Room dest = getNeighbour(src);
-
-        if(closed){
-            return  false;
-        }
+            if(closed){
+                return  false;
+            }
 
-        if (firstRoom.equals(dest) || secondRoom.equals(dest) ) {
-            if(oneway){
-                if(!secondRoom.equals(dest)){
-                    return false;
+            if (firstRoom.equals(dest) || secondRoom.equals(dest) ) {
+                if(oneway){
+                    if(!secondRoom.equals(dest)){
+                        return false;
+                    }
                 }
+                return dest.acceptEntity(e);
             }
-            return dest.acceptEntity(e);
+            return false;
+        } finally {
+            Tracer.end();
         }
-        return false;
     }
 
     /**
@@ -170,22 +169,6 @@ public class Door implements Serializable {
     }
 
 
-    /**
-     * @return Az osztályból létrehozott példányok számát adja vissza.
-     */
-    public static int getObjectNum(){
-        return objectNum;
-    }
-
-    /**
-     * Frissíti az objectNum statikus tagváltozót, ha nagyobb értéket kap.
-     * @param value az új érték amire módosulni próbál
-     */
-    public static void updateObjectNum(int value){
-        if(objectNum<value)
-            objectNum=value;
-    }
-
     public boolean isClosed() {
         return closed;
     }
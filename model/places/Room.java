@@ -1,12 +1,25 @@
 package graphic.model.places;
 
+import graphic.metrics.Counter;
+import graphic.metrics.GameEvents;
+import graphic.metrics.Metrics;
+import graphic.metrics.Tracer;
+import graphic.model.Game;
+import graphic.model.characters.CleaningLady;
 import graphic.model.characters.Entity;
+import graphic.model.characters.Prof;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 import graphic.model.common.Observer;
+import graphic.model.common.ObserverList;
 import graphic.model.items.Item;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -14,10 +27,16 @@ import java.util.Random;
  */
 public class Room implements Serializable {
 
+    private static final long serialVersionUID = -4630165683105231383L;
+
     /**
-     * Ezen statikus tagváltozó azt számolja hány példány jött már létre ezn osztálybból.
+     * Az acceptEntity kimenetelei: befogadta, tele volt, a gáz vagy a nedves szivacs miatt nem fogadta be.
      */
-    private static int objectNum=0;
+    private static final Counter ACCEPTED = Metrics.counter("room.accept.accepted");
+    private static final Counter REJECTED_FULL = Metrics.counter("room.accept.full");
+    private static final Counter REJECTED_TOXIC = Metrics.counter("room.accept.toxic");
+    private static final Counter REJECTED_WET = Metrics.counter("room.accept.wet");
+
 
     /**
      * Ezen tagváltozó egy adott példány egyedi azonósítására szolgáló String értéket tárol.
@@ -25,9 +44,9 @@ public class Room implements Serializable {
     private final String id;
 
     /***
-     * Az osztály observereit tartalmazó lista gyűjtemény.
+     * Az osztály observereit tartalmazó lista gyűjtemény, gyenge referenciákkal, vagy null, amíg nincs observer.
      */
-    protected transient ArrayList<Observer> observers=new ArrayList<>();
+    protected transient ObserverList observers;
 
     /**
      * A szoba ajtóinak listája.
@@ -44,6 +63,24 @@ public class Room implements Serializable {
      */
     private final ArrayList<Entity> entities = new ArrayList<>();
 
+    /**
+     * A szoba entitásai típus szerint szétválogatva, az entities sorrendjében.
+     * Az others a nem hallgató entitásokat tartalmazza. Nem kerülnek mentésre, az entities listából épülnek fel.
+     */
+    private transient ArrayList<Student> students;
+    private transient ArrayList<Prof> profs;
+    private transient ArrayList<CleaningLady> cleaningLadies;
+    private transient ArrayList<Entity> others;
+
+    /**
+     * A listák csak olvasható nézetei, amelyeket a getterek másolás nélkül adnak vissza.
+     */
+    private transient List<Entity> entitiesView;
+    private transient List<Student> studentsView;
+    private transient List<Prof> profsView;
+    private transient List<CleaningLady> cleaningLadiesView;
+    private transient List<Entity> othersView;
+
     /**
      * A szoba kapacitása.
      */
@@ -75,16 +112,68 @@ public class Room implements Serializable {
     private short stickyCounter;
 
     /**
-     * Az Room osztály konstruktora.
-     * Növeli az objectNum értékét és beállítja az azonosítót, ezután a stickyCounter-t -1-re állítja.
+     * A játék, amelyhez a szoba tartozik, vagy null, ha még nincs játékhoz adva.
      */
-    public Room(){
-        observers = new ArrayList<>();
+    private Game game;
 
-        objectNum++;
-        String[] objectName=getClass().getName().split("\\.");
-        id=objectName[objectName.length-1]+"#"+objectNum;
+    /**
+     * Létrehoz egy szobát a megadott azonosítóval, ezután a stickyCounter-t -1-re állítja.
+     * Új szoba azonosítóját a játék IdAllocator-a adja, mentés betöltésekor a mentett azonosító.
+     * @param id a szoba azonosítója
+     */
+    public Room(String id){
+        this.id=id;
         stickyCounter=-1;
+        initBuckets();
+    }
+
+    /**
+     * Létrehozza a típus szerinti listákat és nézeteiket, majd szétválogatja bele a szoba entitásait.
+     */
+    private void initBuckets() {
+        students = new ArrayList<>();
+        profs = new ArrayList<>();
+        cleaningLadies = new ArrayList<>();
+        others = new ArrayList<>();
+        entitiesView = Collections.unmodifiableList(entities);
+        studentsView = Collections.unmodifiableList(students);
+        profsView = Collections.unmodifiableList(profs);
+        cleaningLadiesView = Collections.unmodifiableList(cleaningLadies);
+        othersView = Collections.unmodifiableList(others);
+        for (Entity e : entities)
+            addToBucket(e);
+    }
+
+    /**
+     * Beolvasáskor újraépíti a típus szerinti listákat.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initBuckets();
+    }
+
+    private void addToBucket(Entity e) {
+        if (e instanceof Student student) {
+            students.add(student);
+            return;
+        }
+        others.add(e);
+        if (e instanceof Prof prof)
+            profs.add(prof);
+        else if (e instanceof CleaningLady cleaningLady)
+            cleaningLadies.add(cleaningLady);
+    }
+
+    private void removeFromBucket(Entity e) {
+        if (e instanceof Student) {
+            students.remove(e);
+            return;
+        }
+        others.remove(e);
+        if (e instanceof Prof)
+            profs.remove(e);
+        else if (e instanceof CleaningLady)
+            cleaningLadies.remove(e);
     }
 
     /**
@@ -100,32 +189,46 @@ public class Room implements Serializable {
      * @return true, ha sikeresen be tud jutni, false, ha nem.
      */
     public boolean acceptEntity(Entity e) {
-        boolean ret = true;
-
-        if (entities.size() >= capacity) {
-            return false;
-        }
+        Tracer.begin("Room.acceptEntity");
+        try {
+            boolean ret = true;
 
-        if(isToxic) {
-            ret = !e.toxicate(this);
-            if (!ret)
-                return ret;
-        }
+            if (entities.size() >= capacity) {
+                REJECTED_FULL.increment();
+                return false;
+            }
 
-        if(isWet) {
-            ret = !e.immobilize();
-            if (!ret)
-                return ret;
-        }
+            if(isToxic) {
+                ret = !e.toxicate(this);
+                if (!ret) {
+                    REJECTED_TOXIC.increment();
+                    return ret;
+                }
+            }
 
+            if(isWet) {
+                ret = !e.immobilize();
+                if (!ret) {
+                    REJECTED_WET.increment();
+                    return ret;
+                }
+            }
 
-        for (Entity ent : entities) {
-            ent.meet(e);
-        }
 
-        notifyObservers();
+            for (Entity ent : e.partnersIn(this)) {
+                Tracer.begin("Entity.meet");
+                try {
+                    ent.meet(e);
+                } finally {
+                    Tracer.end();
+                }
+            }
 
-        return ret;
+            ACCEPTED.increment();
+            return ret;
+        } finally {
+            Tracer.end();
+        }
     }
 
     /**
@@ -134,12 +237,12 @@ public class Room implements Serializable {
      */
     public void addEntity(Entity e) {
         entities.add(e);
+        addToBucket(e);
         if (stickyCounter > 0)
             stickyCounter--;
-        if (stickyCounter == 0)
+        notifyObservers(new ModelEvent.EntityEntered(this, e));
+        if (stickyCounter == 0 && !isSticky)
             makeRoomSticky();
-
-        notifyObservers();
     }
 
     /**
@@ -147,8 +250,10 @@ public class Room implements Serializable {
      * @param e a törlendő entitás
      */
     public void removeEntity(Entity e) {
-        entities.remove(e);
-        notifyObservers();
+        if (entities.remove(e)) {
+            removeFromBucket(e);
+            notifyObservers(new ModelEvent.EntityLeft(this, e));
+        }
     }
     
     /**
@@ -174,7 +279,9 @@ public class Room implements Serializable {
      */
     public void addDoor(Door door){
         doors.add(door);
-        notifyObservers();
+        if (game != null)
+            game.registerDoor(door);
+        notifyObservers(new ModelEvent.DoorAdded(this, door));
     }
 
     /**
@@ -183,8 +290,8 @@ public class Room implements Serializable {
      * @param door a törlendő ajtó
      */
     public void removeDoor(Door door) {
-        doors.remove(door);
-        notifyObservers();
+        if (doors.remove(door))
+            notifyObservers(new ModelEvent.DoorRemoved(this, door));
     }
 
     /**
@@ -193,7 +300,9 @@ public class Room implements Serializable {
      */
     public void addItem(Item i) {
         items.add(i);
-        notifyObservers();
+        if (game != null)
+            game.registerItem(i);
+        notifyObservers(new ModelEvent.ItemAdded(this, i));
     }
 
     /**
@@ -202,7 +311,11 @@ public class Room implements Serializable {
      */
     public void addItems(ArrayList<Item> items) {
         this.items.addAll(items);
-        notifyObservers();
+        for (Item i : items) {
+            if (game != null)
+                game.registerItem(i);
+            notifyObservers(new ModelEvent.ItemAdded(this, i));
+        }
     }
 
     /**
@@ -210,8 +323,8 @@ public class Room implements Serializable {
      * @param i a törlendő tárgy
      */
     public void removeItem(Item i) {
-        items.remove(i);
-        notifyObservers();
+        if (items.remove(i))
+            notifyObservers(new ModelEvent.ItemRemoved(this, i));
     }
 
     /**
@@ -240,6 +353,8 @@ public class Room implements Serializable {
         for (Item i : r.items) {
             items.add(i);
             i.updateRoom(this);
+            r.notifyObservers(new ModelEvent.ItemRemoved(r, i));
+            notifyObservers(new ModelEvent.ItemAdded(this, i));
         }
         r.items.clear();
 
@@ -249,19 +364,26 @@ public class Room implements Serializable {
                 addDoor(door);
             }
         }
-        doors.removeIf(door -> r.equals(door.getNeighbour(this)));
+        doors.removeIf(door -> { //A két szoba közötti ajtók hurokká váltak
+            if (!this.equals(door.getNeighbour(this)))
+                return false;
+            if (game != null)
+                game.unregisterDoor(door);
+            notifyObservers(new ModelEvent.DoorRemoved(this, door));
+            return true;
+        });
         r.doors.clear();
 
         if (r.capacity > capacity)
-            capacity = r.capacity;
+            setCapacity(r.capacity);
 
-        notifyObservers();
+        notifyObservers(new ModelEvent.Changed(this));
         return true;
     }
 
     /**
      * Randomicitás hiányában
-     * A hívott szobát bontja, osztja, ezáltal létrehoz egy új szobát. A szobák
+     * A hívott szobát bontja, osztja, ezáltal létrehoz egy új szobát, amelynek azonosítóját a szoba játéka adja. A szobák
      * osztoznak a hívott szoba tulajdonságain, ajtajain, valamint tárgyain.
      * @return Nem megy végbe az osztódás, ha tartózkodnak a szobában, ilyenkor érvénytelen
      * értéket ad, egyébként a szobát kapjuk vissza.
@@ -270,7 +392,7 @@ public class Room implements Serializable {
         if (!entities.isEmpty())
             return null;
 
-        Room newRoom = new Room();
+        Room newRoom = new Room(game.getIds().nextRoom());
         if (isCursed)
             newRoom.isToxic = true;
         if (isWet)
@@ -288,7 +410,7 @@ public class Room implements Serializable {
             }
         }
         for (Item i : newRoom.getItems()){
-            items.remove(i);
+            removeItem(i);
         }
 
         for (int i = 0; i < doors.size() / 2; i++) {
@@ -298,10 +420,9 @@ public class Room implements Serializable {
             }
         }
         for (Door d : newRoom.getDoors()){
-            doors.remove(d);
+            removeDoor(d);
         }
 
-        notifyObservers();
         return newRoom;
     }
 
@@ -310,40 +431,47 @@ public class Room implements Serializable {
      * valamint eltűntetheti/megjelenítheti a szoba ajtajait.
      */
     public void tick() {
-        if (isToxic) {
-            for (Entity e : entities) {
-                if (e.toxicate(this)) {
-                    for (Door door : doors) { //Ha valamelyik szomszédba mehet, akkor oda is megy
-                        if (e.move(door))
-                            break;
+        Tracer.begin("Room.tick");
+        try {
+            if (isToxic) {
+                for (Entity e : entities) {
+                    if (e.toxicate(this)) {
+                        for (Door door : doors) { //Ha valamelyik szomszédba mehet, akkor oda is megy
+                            if (e.move(door))
+                                break;
+                        }
                     }
                 }
             }
-        }
 
-        if (isWet) {
-            for (Entity e : entities) {
-                if (e.immobilize()) {
-                    for (Door door : doors) { //Ha valamelyik szomszédba mehet, akkor oda is megy
-                        if (e.move(door))
-                            break;
+            if (isWet) {
+                for (Entity e : entities) {
+                    if (e.immobilize()) {
+                        for (Door door : doors) { //Ha valamelyik szomszédba mehet, akkor oda is megy
+                            if (e.move(door))
+                                break;
+                        }
                     }
                 }
             }
-        }
 
-        if (isCursed)
-            magicDoors();
-
-        notifyObservers();
+            if (isCursed)
+                magicDoors();
+        } finally {
+            Tracer.end();
+        }
     }
 
     /**
-     * Eltűnteti, megjeleníti a szoba ajtajait.
+     * Eltűnteti, megjeleníti a szoba ajtajait. Az ajtó mindkét szobája értesítést kap.
      */
     public void magicDoors() {
         for (Door door : doors) {
             door.changeClosed();
+            notifyObservers(new ModelEvent.DoorToggled(this, door));
+            Room neighbour = door.getNeighbour(this);
+            if (neighbour != this)
+                neighbour.notifyObservers(new ModelEvent.DoorToggled(neighbour, door));
         }
     }
 
@@ -352,19 +480,23 @@ public class Room implements Serializable {
      */
     public void detoxicate() {
         isToxic = false;
-        notifyObservers();
+        notifyObservers(new ModelEvent.RoomFlagChanged(this, ModelEvent.Flag.TOXIC, false));
     }
 
     /**
      * Kitessékeli a szobából az entitásokat, ami nem egyezik a paraméterként kapottal
-     * a stickyCounter-t 3-ra állítja.
+     * a stickyCounter-t 3-ra állítja. A többi takarítónőt nem küldi ki, különben két szomszédos
+     * szobában lévő takarítónő a végtelenségig egymást takarítaná ki.
      * @param e Az entitás, aki meghívja a takarítást
      */
     public void clean(Entity e) {
+        GameEvents.RoomClean event = new GameEvents.RoomClean();
+        event.begin();
+        int before = entities.size();
         if(isToxic)
-            isToxic = false;
+            detoxicate();
         for (int i = 0; i < entities.size(); i++) {
-            if (!entities.get(i).equals(e))
+            if (!entities.get(i).equals(e) && !(entities.get(i) instanceof CleaningLady))
                 for (Door door : doors)
                     if (entities.get(i).move(door)){
                         i--;
@@ -372,7 +504,14 @@ public class Room implements Serializable {
                     }
         }
         stickyCounter = 3;
-        notifyObservers();
+        event.end();
+        if(event.shouldCommit()) {
+            event.room = id;
+            event.cleaner = e.getID();
+            event.evicted = before - entities.size();
+            event.remaining = entities.size();
+            event.commit();
+        }
     }
 
     /**
@@ -382,7 +521,7 @@ public class Room implements Serializable {
      */
     public void setCapacity(int capacity) {
         this.capacity = capacity;
-        notifyObservers();
+        notifyObservers(new ModelEvent.CapacityChanged(this, capacity));
     }
 
     /**
@@ -399,7 +538,7 @@ public class Room implements Serializable {
      */
     public void makeRoomToxic() {
         isToxic = true;
-        notifyObservers();
+        notifyObservers(new ModelEvent.RoomFlagChanged(this, ModelEvent.Flag.TOXIC, true));
     }
 
     /**
@@ -407,7 +546,7 @@ public class Room implements Serializable {
      */
     public void makeRoomWet() {
         isWet = true;
-        notifyObservers();
+        notifyObservers(new ModelEvent.RoomFlagChanged(this, ModelEvent.Flag.WET, true));
     }
 
     /**
@@ -415,7 +554,7 @@ public class Room implements Serializable {
      */
     public void makeRoomCursed() {
         isCursed = true;
-        notifyObservers();
+        notifyObservers(new ModelEvent.RoomFlagChanged(this, ModelEvent.Flag.CURSED, true));
     }
 
     /**
@@ -423,7 +562,7 @@ public class Room implements Serializable {
      */
     public void makeRoomSticky() {
         isSticky = true;
-        notifyObservers();
+        notifyObservers(new ModelEvent.RoomFlagChanged(this, ModelEvent.Flag.STICKY, true));
     }
 
     /**
@@ -494,27 +633,13 @@ public class Room implements Serializable {
         return builder.toString();
     }
 
-    /**
-     * @return Az osztályból létrehozott példányok számát adja vissza.
-     */
-    public static int getObjectNum(){
-        return objectNum;
-    }
-
-    /**
-     * Frissíti az objectNum statikus tagváltozót, ha nagyobb értéket kap.
-     * @param value az új érték amire módosulni próbál
-     */
-    public static void updateObjectNum(int value){
-        if(objectNum<value)
-            objectNum=value;
-    }
-
     /**
      * Az observers gyűjtemény elemei közé rakja a paraméterben kapott elemet.
      * @param obs A gyűjteménybe helyezendő elem.
      */
     public void addObserver(Observer obs){
+        if (observers == null)
+            observers = new ObserverList();
         observers.add(obs);
     }
 
@@ -523,16 +648,30 @@ public class Room implements Serializable {
      * @param obs A gyűjteményből kivevendő elem.
      */
     public void removeObserver(Observer obs){
-        observers.remove(obs);
+        if (observers != null)
+            observers.remove(obs);
+    }
+
+    /**
+     * @return Az élő observer-ek száma, diagnosztikai célra.
+     */
+    public int getObserverCount(){
+        return observers == null ? 0 : observers.size();
     }
 
     /**
      * Értesíti az összes observer-t, és frissíti, amely ezen osztályt figyeli
      */
     public void notifyObservers(){
-        for (Observer obs:observers) {
-            obs.update();
-        }
+        notifyObservers(new ModelEvent.Changed(this));
+    }
+
+    /**
+     * Értesíti az összes observer-t a megadott változásról.
+     * @param event a változás
+     */
+    public void notifyObservers(ModelEvent event){
+        ObserverList.fire(observers, event);
     }
 
     public boolean getToxic() {
@@ -551,23 +690,88 @@ public class Room implements Serializable {
         return isCursed;
     }
 
-    public ArrayList<Student> getStudents() {
-        ArrayList<Student> students = new ArrayList<>();
-        for (Entity e : entities)
-            if (e instanceof Student)
-                students.add((Student) e);
-        return students;
+    /**
+     * @return A szobában lévő hallgatók csak olvasható listája.
+     */
+    public List<Student> getStudents() {
+        return studentsView;
     }
 
-    public ArrayList<Entity> getOthers() {
-        ArrayList<Entity> others = new ArrayList<>();
-        for (Entity e : entities)
-            if (!(e instanceof Student))
-                others.add(e);
-        return others;
+    /**
+     * @return A szobában lévő oktatók csak olvasható listája.
+     */
+    public List<Prof> getProfs() {
+        return profsView;
+    }
+
+    /**
+     * @return A szobában lévő takarítók csak olvasható listája.
+     */
+    public List<CleaningLady> getCleaningLadies() {
+        return cleaningLadiesView;
+    }
+
+    /**
+     * @return A szobában lévő entitások csak olvasható listája, érkezési sorrendben.
+     */
+    public List<Entity> getEntities() {
+        return entitiesView;
+    }
+
+    public int getStudentCount() {
+        return students.size();
+    }
+
+    public int getProfCount() {
+        return profs.size();
+    }
+
+    public int getCleaningLadyCount() {
+        return cleaningLadies.size();
+    }
+
+    public int getEntityCount() {
+        return entities.size();
+    }
+
+    /**
+     * @return A ragacsosság számlálója, -1, ha nem fut.
+     */
+    public short getStickyCounter() {
+        return stickyCounter;
+    }
+
+    /**
+     * Beállítja a ragacsosság számlálóját.
+     * @param stickyCounter az új érték
+     */
+    public void setStickyCounter(short stickyCounter) {
+        this.stickyCounter = stickyCounter;
+    }
+
+    /**
+     * @return A játék, amelyhez a szoba tartozik, vagy null.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Beállítja a szoba játékát. A Game.addRoom hívja.
+     * @param game a szoba új játéka
+     */
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * @return A szobában lévő nem hallgató entitások csak olvasható listája, érkezési sorrendben.
+     */
+    public List<Entity> getOthers() {
+        return othersView;
     }
 
     public void initObserversList() {
-        observers = new ArrayList<>();
+        observers = null;
     }
 }
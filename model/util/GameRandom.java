@@ -0,0 +1,82 @@
+package graphic.model.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Egy játék véletlenszerű döntéseinek forrása. Egy gyökér példányból minden felhasználó
+ * (Game.tick, Controller, a hallgatók stratégiái) saját, független példányt kap a split metódussal,
+ * így a játékot egyetlen 64 bites seed teljesen meghatározza.
+ */
+public class GameRandom {
+
+    /**
+     * A számokat előállító generátor.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Létrehoz egy generátort a megadott seeddel.
+     * @param seed a generátor seedje
+     */
+    public GameRandom(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Létrehoz egy generátort a megadott SplittableRandom köré.
+     * @param random a számokat előállító generátor
+     */
+    protected GameRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Leválaszt egy új, ettől független generátort. Ugyanabban a sorrendben hívva mindig ugyanazokat
+     * a generátorokat adja.
+     * @return az új generátor
+     */
+    public GameRandom split() {
+        return child(random.split());
+    }
+
+    /**
+     * Létrehozza a split által leválasztott generátort. A leszármazottak felülírhatják, hogy a leválasztott
+     * generátorok is a saját típusukat kapják.
+     * @param random a leválasztott számforrás
+     * @return az új generátor
+     */
+    protected GameRandom child(SplittableRandom random) {
+        return new GameRandom(random);
+    }
+
+    /**
+     * @param bound a felső korlát (kizárólagos)
+     * @return Egy véletlen egész szám 0 és bound között.
+     */
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * @param origin az alsó korlát (beleértve)
+     * @param bound a felső korlát (kizárólagos)
+     * @return Egy véletlen egész szám origin és bound között.
+     */
+    public int nextInt(int origin, int bound) {
+        return random.nextInt(origin, bound);
+    }
+
+    /**
+     * @return Egy véletlen logikai érték.
+     */
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    /**
+     * @return Egy véletlen 64 bites szám, például további seedek előállításához.
+     */
+    public long nextLong() {
+        return random.nextLong();
+    }
+}
@@ -0,0 +1,363 @@
+package graphic.model.util;
+
+import graphic.model.Game;
+import graphic.model.characters.*;
+import graphic.model.items.*;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A játék állapotát egy tömör, verziózott bináris formátumba menti és onnan tölti vissza.
+ * A szobák, ajtók, tárgyak és entitások táblázatokba kerülnek, egymásra a táblázatbeli indexükkel hivatkoznak,
+ * így a formátum nem függ az osztályok belső felépítésétől, és a megfigyelők sem kerülnek bele.
+ * A régi, Java szerializációval készült mentéseket a load továbbra is be tudja olvasni.
+ */
+public final class GameSerializer {
+
+    /**
+     * A mentések első négy bájtja ("LGRC").
+     */
+    public static final int MAGIC = 0x4C475243;
+
+    /**
+     * A formátum jelenlegi verziója.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * A szoba tulajdonságainak bitjei.
+     */
+    private static final int TOXIC = 1, WET = 2, CURSED = 4, STICKY = 8;
+
+    private GameSerializer() {
+    }
+
+    /**
+     * Elmenti a játékot egy fájlba.
+     * @param game a mentendő játék
+     * @param file a célfájl
+     */
+    public static void save(Game game, File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(game, out);
+        }
+    }
+
+    /**
+     * Betölt egy játékot egy fájlból. Ha a fájl nem bináris mentés, Java szerializációval olvassa be.
+     * Mindkét esetben visszaállítja a megfigyelők listáit és az azonosító kiosztót.
+     * @param file a mentés
+     * @return a betöltött játék
+     */
+    public static Game load(File file) throws IOException, ClassNotFoundException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            in.mark(4);
+            int magic = new DataInputStream(in).readInt();
+            in.reset();
+            if (magic == MAGIC)
+                return read(in);
+
+            Game game = (Game) new ObjectInputStream(in).readObject();
+            game.initObservers();
+            game.reindex();
+            return game;
+        }
+    }
+
+    /**
+     * Kiírja a játék állapotát.
+     * @param game a mentendő játék
+     * @param stream a cél adatfolyam
+     */
+    public static void write(Game game, OutputStream stream) throws IOException {
+        Tables tables = new Tables(game);
+        DataOutputStream out = new DataOutputStream(stream);
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        out.writeBoolean(game.isGameWon());
+        out.writeInt(game.getTurn());
+        out.writeLong(game.getSeed());
+        IdAllocator ids = game.getIds();
+        out.writeInt(ids.get(IdAllocator.Kind.DOOR));
+        out.writeInt(ids.get(IdAllocator.Kind.ENTITY));
+        out.writeInt(ids.get(IdAllocator.Kind.ITEM));
+        out.writeInt(ids.get(IdAllocator.Kind.ROOM));
+
+        // Objektumok
+        out.writeInt(tables.rooms.size());
+        for (Room room : tables.rooms) {
+            out.writeUTF(room.getID());
+            out.writeInt(room.getCapacity());
+            int flags = 0;
+            if (room.getToxic()) flags |= TOXIC;
+            if (room.getWet()) flags |= WET;
+            if (room.getCursed()) flags |= CURSED;
+            if (room.getSticky()) flags |= STICKY;
+            out.writeByte(flags);
+            out.writeShort(room.getStickyCounter());
+        }
+        out.writeInt(tables.doors.size());
+        for (Door door : tables.doors) {
+            out.writeUTF(door.getID());
+            out.writeBoolean(door.isClosed());
+            out.writeBoolean(door.isOneway());
+        }
+        out.writeInt(tables.items.size());
+        for (Item item : tables.items) {
+            out.writeUTF(item.getClass().getSimpleName());
+            out.writeUTF(item.getID());
+            out.writeInt(item.getHealth());
+            if (item instanceof Transistor transistor)
+                out.writeBoolean(transistor.isActive());
+        }
+        out.writeInt(tables.entities.size());
+        for (Entity entity : tables.entities) {
+            out.writeUTF(entity.getClass().getSimpleName());
+            out.writeUTF(entity.getID());
+            out.writeInt(entity.getStunnedFor());
+            out.writeBoolean(entity.isKilled());
+            if (entity instanceof Student student) {
+                out.writeInt(student.getDrunkFor());
+                out.writeBoolean(student.getStudentMoved());
+                out.writeBoolean(student.getKilledBy() != null);
+                if (student.getKilledBy() != null)
+                    out.writeUTF(student.getKilledBy());
+            }
+        }
+
+        // Hivatkozások
+        for (Room room : tables.rooms) {
+            writeRefs(out, room.getDoors(), tables.doorIndex);
+            writeRefs(out, room.getItems(), tables.itemIndex);
+            writeRefs(out, room.getEntities(), tables.entityIndex);
+        }
+        for (Door door : tables.doors) {
+            out.writeInt(tables.ref(door.getFirstRoom()));
+            out.writeInt(tables.ref(door.getSecondRoom()));
+        }
+        for (Item item : tables.items) {
+            out.writeInt(tables.ref(item.getPair()));
+            if (item instanceof Transistor transistor)
+                out.writeInt(tables.ref(transistor.getRoom()));
+        }
+        for (Entity entity : tables.entities) {
+            out.writeInt(tables.ref(entity.getRoom()));
+            writeRefs(out, entity.getItems(), tables.itemIndex);
+        }
+        writeRefs(out, game.getRooms(), tables.roomIndex);
+        writeRefs(out, game.getEntities(), tables.entityIndex);
+        out.flush();
+    }
+
+    /**
+     * Beolvas egy bináris mentést.
+     * @param stream a forrás adatfolyam
+     * @return a betöltött játék
+     */
+    public static Game read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a save file");
+        int version = in.readShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported save version: " + version);
+
+        Game game = new Game();
+        if (in.readBoolean())
+            game.gameWon();
+        game.setTurn(in.readInt());
+        game.setSeed(in.readLong());
+        IdAllocator ids = new IdAllocator();
+        ids.set(IdAllocator.Kind.DOOR, in.readInt());
+        ids.set(IdAllocator.Kind.ENTITY, in.readInt());
+        ids.set(IdAllocator.Kind.ITEM, in.readInt());
+        ids.set(IdAllocator.Kind.ROOM, in.readInt());
+        game.setIds(ids);
+
+        // Objektumok
+        Room[] rooms = new Room[in.readInt()];
+        short[] stickyCounters = new short[rooms.length];
+        for (int i = 0; i < rooms.length; i++) {
+            Room room = new Room(in.readUTF());
+            room.setCapacity(in.readInt());
+            int flags = in.readByte();
+            if ((flags & TOXIC) != 0) room.makeRoomToxic();
+            if ((flags & WET) != 0) room.makeRoomWet();
+            if ((flags & CURSED) != 0) room.makeRoomCursed();
+            if ((flags & STICKY) != 0) room.makeRoomSticky();
+            stickyCounters[i] = in.readShort();
+            rooms[i] = room;
+        }
+        Door[] doors = new Door[in.readInt()];
+        for (int i = 0; i < doors.length; i++) {
+            Door door = new Door(in.readUTF());
+            if (in.readBoolean()) door.changeClosed();
+            door.setOneway(in.readBoolean());
+            doors[i] = door;
+        }
+        Item[] items = new Item[in.readInt()];
+        for (int i = 0; i < items.length; i++) {
+            String type = in.readUTF();
+            Function<String, Item> factory = ModelTypes.ITEMS.get(type);
+            if (factory == null)
+                throw new IOException("Unknown item type: " + type);
+            Item item = factory.apply(in.readUTF());
+            item.setHealth(in.readInt());
+            if (item instanceof Transistor transistor)
+                transistor.setActive(in.readBoolean());
+            items[i] = item;
+        }
+        Entity[] entities = new Entity[in.readInt()];
+        for (int i = 0; i < entities.length; i++) {
+            String type = in.readUTF();
+            Function<String, Entity> factory = ModelTypes.ENTITIES.get(type);
+            if (factory == null)
+                throw new IOException("Unknown entity type: " + type);
+            Entity entity = factory.apply(in.readUTF());
+            entity.setStunnedFor(in.readInt());
+            if (in.readBoolean()) entity.setKilled();
+            if (entity instanceof Student student) {
+                student.setDrunkFor(in.readInt());
+                student.setStudentMoved(in.readBoolean());
+                if (in.readBoolean())
+                    student.setKilledBy(in.readUTF());
+            }
+            entity.setGame(game);
+            entities[i] = entity;
+        }
+
+        // Hivatkozások
+        for (int i = 0; i < rooms.length; i++) {
+            readRefs(in, rooms[i].getDoors(), doors);
+            readRefs(in, rooms[i].getItems(), items);
+            for (int count = in.readInt(); count > 0; count--)
+                rooms[i].addEntity(deref(entities, in.readInt()));
+            rooms[i].setStickyCounter(stickyCounters[i]);
+        }
+        for (Door door : doors)
+            door.setNeighbours(deref(rooms, in.readInt()), deref(rooms, in.readInt()));
+        for (Item item : items) {
+            item.setPair(deref(items, in.readInt()));
+            if (item instanceof Transistor transistor)
+                transistor.setRoom(deref(rooms, in.readInt()));
+        }
+        for (Entity entity : entities) {
+            entity.setRoom(deref(rooms, in.readInt()));
+            readRefs(in, entity.getItems(), items);
+        }
+        readRefs(in, game.getRooms(), rooms);
+        readRefs(in, game.getEntities(), entities);
+        game.reindex();
+        return game;
+    }
+
+    /**
+     * Kiír egy listát a táblázatbeli indexeivel.
+     */
+    private static <T> void writeRefs(DataOutputStream out, List<? extends T> list, Map<T, Integer> index) throws IOException {
+        out.writeInt(list.size());
+        for (T element : list)
+            out.writeInt(index.get(element));
+    }
+
+    /**
+     * Beolvas egy indexekkel megadott listát, és a táblázat elemeit a célhoz fűzi.
+     */
+    private static <T> void readRefs(DataInputStream in, List<? super T> target, T[] table) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+            target.add(deref(table, in.readInt()));
+    }
+
+    /**
+     * @return A táblázat adott indexű eleme, vagy null, ha az index -1.
+     */
+    private static <T> T deref(T[] table, int index) throws IOException {
+        if (index == -1)
+            return null;
+        if (index < 0 || index >= table.length)
+            throw new IOException("Invalid reference: " + index);
+        return table[index];
+    }
+
+    /**
+     * A játékból elérhető összes objektum táblázata.
+     * Az objektumokat egy munkalistával, rekurzió nélkül járja be, így a mélyen láncolt pályák sem okoznak gondot.
+     */
+    private static final class Tables {
+        final List<Room> rooms = new ArrayList<>();
+        final List<Door> doors = new ArrayList<>();
+        final List<Item> items = new ArrayList<>();
+        final List<Entity> entities = new ArrayList<>();
+        final Map<Room, Integer> roomIndex = new IdentityHashMap<>();
+        final Map<Door, Integer> doorIndex = new IdentityHashMap<>();
+        final Map<Item, Integer> itemIndex = new IdentityHashMap<>();
+        final Map<Entity, Integer> entityIndex = new IdentityHashMap<>();
+        private final ArrayDeque<Object> pending = new ArrayDeque<>();
+
+        Tables(Game game) {
+            game.getRooms().forEach(this::visit);
+            game.getEntities().forEach(this::visit);
+            while (!pending.isEmpty()) {
+                Object next = pending.poll();
+                if (next instanceof Room room) {
+                    room.getDoors().forEach(this::visit);
+                    room.getItems().forEach(this::visit);
+                    room.getEntities().forEach(this::visit);
+                } else if (next instanceof Door door) {
+                    visit(door.getFirstRoom());
+                    visit(door.getSecondRoom());
+                } else if (next instanceof Item item) {
+                    visit(item.getPair());
+                    if (item instanceof Transistor transistor)
+                        visit(transistor.getRoom());
+                } else if (next instanceof Entity entity) {
+                    visit(entity.getRoom());
+                    entity.getItems().forEach(this::visit);
+                }
+            }
+        }
+
+        /**
+         * Felveszi az objektumot a megfelelő táblázatba, ha még nem szerepel benne.
+         */
+        private void visit(Object o) {
+            boolean added = false;
+            if (o instanceof Room room)
+                added = add(room, rooms, roomIndex);
+            else if (o instanceof Door door)
+                added = add(door, doors, doorIndex);
+            else if (o instanceof Item item)
+                added = add(item, items, itemIndex);
+            else if (o instanceof Entity entity)
+                added = add(entity, entities, entityIndex);
+            if (added)
+                pending.add(o);
+        }
+
+        private static <T> boolean add(T o, List<T> list, Map<T, Integer> index) {
+            if (index.containsKey(o))
+                return false;
+            index.put(o, list.size());
+            list.add(o);
+            return true;
+        }
+
+        /**
+         * @return Az objektum táblázatbeli indexe, vagy -1, ha null.
+         */
+        int ref(Object o) {
+            if (o == null) return -1;
+            if (o instanceof Room room) return roomIndex.get(room);
+            if (o instanceof Door door) return doorIndex.get(door);
+            if (o instanceof Item item) return itemIndex.get(item);
+            return entityIndex.get((Entity) o);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package graphic.model.util;
+
+import java.io.Serializable;
+
+/**
+ * Egy játék objektumainak azonosítóit osztja ki.
+ * Az azonosító a típus nevéből és az objektum fajtájához (ajtó, entitás, tárgy, szoba) tartozó számlálóból áll,
+ * például Room#12 vagy Beer#3. A számlálók a játékkal együtt mentődnek, így egy betöltött játék új objektumai
+ * sem ütköznek a régiekkel. Minden játéknak saját példánya van, így egy JVM-ben több játék is futhat egymás mellett.
+ * <p>
+ * Nem szálbiztos, egy játékot egyszerre egy szál módosít.
+ */
+public class IdAllocator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Az objektumok fajtái, mindegyik saját számlálót kap.
+     */
+    public enum Kind { DOOR, ENTITY, ITEM, ROOM }
+
+    /**
+     * Az egyes fajták utoljára kiosztott sorszáma.
+     */
+    private final int[] counters = new int[Kind.values().length];
+
+    /**
+     * Kiosztja a fajta következő azonosítóját.
+     * @param kind az objektum fajtája
+     * @param type a típus neve, az azonosító eleje
+     * @return az új azonosító
+     */
+    public String next(Kind kind, String type) {
+        return type + "#" + ++counters[kind.ordinal()];
+    }
+
+    /**
+     * @return Egy új szoba azonosítója.
+     */
+    public String nextRoom() {
+        return next(Kind.ROOM, "Room");
+    }
+
+    /**
+     * @return Egy új ajtó azonosítója.
+     */
+    public String nextDoor() {
+        return next(Kind.DOOR, "Door");
+    }
+
+    /**
+     * @param kind az objektum fajtája
+     * @return A fajta utoljára kiosztott sorszáma.
+     */
+    public int get(Kind kind) {
+        return counters[kind.ordinal()];
+    }
+
+    /**
+     * Beállítja a fajta számlálóját, például egy mentés betöltésekor.
+     * @param kind az objektum fajtája
+     * @param value az utoljára kiosztott sorszám
+     */
+    public void set(Kind kind, int value) {
+        counters[kind.ordinal()] = value;
+    }
+
+    /**
+     * Lefoglalja egy már létező azonosító sorszámát, hogy a számláló ne adja ki újra.
+     * A sorszám nélküli azonosítókat, például a hallgatók neveit, figyelmen kívül hagyja.
+     * @param kind az objektum fajtája
+     * @param id a létező azonosító
+     */
+    public void reserve(Kind kind, String id) {
+        int hash = id.lastIndexOf('#');
+        if (hash < 0)
+            return;
+        try {
+            int number = Integer.parseInt(id, hash + 1, id.length(), 10);
+            if (number > counters[kind.ordinal()])
+                counters[kind.ordinal()] = number;
+        } catch (NumberFormatException e) {
+            // Nem sorszámozott azonosító
+        }
+    }
+}
@@ -6,13 +6,20 @@ import graphic.model.characters.*;
 import graphic.model.items.*;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.function.Function;
 
 public class MapBuilder {
     private Game game;
 
-    private Scanner sharedScanner;
+    /**
+     * Az éppen végrehajtott sor sorszáma, a hibaüzenetekhez.
+     */
+    private int lineNumber;
+
+    /**
+     * Igaz, ha a save parancsok ténylegesen fájlba írnak.
+     */
+    private boolean saveEnabled = true;
 
     public MapBuilder() {
         game = new Game();
@@ -22,49 +29,148 @@ public class MapBuilder {
         String filepath = null;
         try {
             if (args.length < 2) {
-                sharedScanner = new Scanner(System.in);
+                execute(new BufferedReader(new InputStreamReader(System.in)));
             } else {
                 filepath = "maps" + File.separator + args[1];
-                sharedScanner = new Scanner(new File(filepath));
-            }
-
-            while (sharedScanner.hasNextLine()) {
-                String line = sharedScanner.nextLine();
-                String[] cmd = line.split(" ");
-                switch (cmd[0]) {
-                    case "load" -> load(cmd);
-                    case "save" -> save(cmd);
-                    case "addPlayer" -> addPlayer(cmd);
-                    case "addNPC" -> addNPC(cmd);
-                    case "addRoom" -> addRoom(cmd);
-                    case "addDoor" -> addDoor(cmd);
-                    case "addItem" -> addItem(cmd);
-                    default -> System.out.println("Invalid command: " + line);
+                try (BufferedReader reader = new BufferedReader(new FileReader(filepath))) {
+                    execute(reader);
                 }
             }
-        } catch (Exception ex) {
+        } catch (IOException ex) {
             System.out.println("Did not find " + filepath);
-        } finally {
-            sharedScanner.close();
         }
     }
 
+    /**
+     * Felépíti a játékot a megadott fájlban található parancsok alapján.
+     * @param file a parancsokat tartalmazó fájl
+     * @return a felépített játék
+     * @throws IOException ha a fájl nem olvasható
+     */
+    public Game build(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            execute(reader);
+        }
+        return game;
+    }
+
+    /**
+     * Soronként beolvassa és végrehajtja a parancsokat.
+     * A hibás sorokat a sorszámukkal együtt jelzi, majd folytatja a feldolgozást.
+     * @param reader a parancsok forrása
+     */
+    public void execute(BufferedReader reader) throws IOException {
+        int number = 0;
+        String line;
+        while ((line = reader.readLine()) != null)
+            execute(++number, line);
+    }
+
+    /**
+     * Végrehajt egy parancssort. Az üres és a #-tel kezdődő sorokat kihagyja.
+     * @param number a sor sorszáma, a hibaüzenetekhez
+     * @param line a parancssor
+     */
+    public void execute(int number, String line) {
+        lineNumber = number;
+        if (line.isBlank() || line.startsWith("#")) return;
+        String[] cmd = line.trim().split(" ");
+        try {
+            if (!command(cmd))
+                error("Invalid command: " + line);
+        } catch (NumberFormatException ex) {
+            error("Invalid number: " + line);
+        }
+    }
+
+    /**
+     * Végrehajt egy pályaépítő parancsot. A leszármazottak további parancsokkal bővíthetik.
+     * @param cmd a parancs és az argumentumai
+     * @return hamis, ha a parancs ismeretlen
+     */
+    protected boolean command(String[] cmd) {
+        switch (cmd[0]) {
+            case "load" -> load(cmd);
+            case "save" -> save(cmd);
+            case "addPlayer" -> addPlayer(cmd);
+            case "addNPC" -> addNPC(cmd);
+            case "addRoom" -> addRoom(cmd);
+            case "addDoor" -> addDoor(cmd);
+            case "addItem" -> addItem(cmd);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Kiír egy hibaüzenetet az éppen végrehajtott sor sorszámával.
+     * @param message a hibaüzenet
+     */
+    protected void error(String message) {
+        System.out.println("Line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Ellenőrzi, hogy a parancsnak van-e elég argumentuma.
+     * @param cmd a parancs argumentumai
+     * @param count a szükséges argumentumok száma a parancs nevével együtt
+     * @return igaz, ha elég argumentum van
+     */
+    protected boolean checkArgs(String[] cmd, int count) {
+        if (cmd.length >= count) return true;
+        error(cmd[0] + " needs " + (count - 1) + " arguments");
+        return false;
+    }
+
+    /**
+     * Megkeresi a szobát az azonosítója alapján.
+     * @param id a szoba azonosítója
+     * @return a szoba, vagy null, ha nincs ilyen
+     */
+    protected Room findRoom(String id) {
+        Room room = game.getRoom(id);
+        if (room == null)
+            error("Unknown room: " + id);
+        return room;
+    }
+
+    /**
+     * Be- vagy kikapcsolja a save parancsok végrehajtását, így egy pálya mellékhatás nélkül is felépíthető.
+     * @param saveEnabled igaz, ha a save parancsok fájlba írnak
+     */
+    public void setSaveEnabled(boolean saveEnabled) {
+        this.saveEnabled = saveEnabled;
+    }
+
+    /**
+     * @return Az éppen épített játék.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Lecseréli az épített játékot, a további parancsok már ezen futnak.
+     * @param game az új játék
+     */
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
     /**
      * Betölti a játék állapotát egy megadott fájlból.
      * @param cmd A parancs argumentumai, amelyek között a második a fájl elérési útja.
      */
     public void load(String[] cmd) {
+        if(!checkArgs(cmd, 2)) return;
+
         try {
-            FileInputStream fileIn = new FileInputStream(cmd[1]);
-            ObjectInputStream in = new ObjectInputStream(fileIn);
-            game = (Game) in.readObject();
-            in.close();
-            fileIn.close();
+            game = GameSerializer.load(new File(cmd[1]));
         } catch (IOException | ClassNotFoundException e) {
-            // Nothing happens
+            error("Could not load " + cmd[1]);
         }
-
-        game.updateObjectNums();
     }
 
     /**
@@ -72,16 +178,13 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai, amelyek között a második a fájl elérési útja.
      */
     public void save(String[] cmd) {
+        if(!checkArgs(cmd, 2)) return;
+        if(!saveEnabled) return;
 
         try {
-            FileOutputStream fileOut = new FileOutputStream(cmd[1]);
-            ObjectOutputStream out = new ObjectOutputStream(fileOut);
-            game.saveObjectNum();
-            out.writeObject(game);
-            out.close();
-            fileOut.close();
+            GameSerializer.save(game, new File(cmd[1]));
         } catch (IOException e) {
-            // Nothing happens
+            error("Could not save " + cmd[1]);
         }
 
     }
@@ -91,26 +194,20 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai
      */
     public void addPlayer(String[] cmd) {
-        if(cmd.length < 3) return;
+        if(!checkArgs(cmd, 3)) return;
 
-        Entity student;
-        ArrayList<Entity> entities = game.getEntities();
-        for(Entity entity : entities) {
-            if(entity.getID().equals(cmd[1])) {
-                return;
-            }
+        if(game.getEntity(cmd[1]) != null) {
+            error("Duplicate entity: " + cmd[1]);
+            return;
         }
 
-        ArrayList<Room> rooms = game.getRooms();
-        for(Room room : rooms) {
-            if(room.getID().equals(cmd[2])) {
-                student = new Student(cmd[1]);
-                student.setRoom(room);
-                room.addEntity(student);
-                game.addEntity(student);
-                return;
-            }
-        }
+        Room room = findRoom(cmd[2]);
+        if(room == null) return;
+
+        Entity student = new Student(cmd[1]);
+        student.setRoom(room);
+        room.addEntity(student);
+        game.addEntity(student);
     }
 
     /**
@@ -118,26 +215,21 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai
      */
     public void addNPC(String[] cmd) {
-        if(cmd.length < 3) return;
+        if(!checkArgs(cmd, 3)) return;
 
-        Entity entity = null;
-        try {
-            Class<?> npcClass = Class.forName("graphic.model.characters." + cmd[1]);
-            entity = (Entity) npcClass.getDeclaredConstructor().newInstance();
-        } catch (Exception ex) {
-            // Nothing happens
-        }
-        if(entity == null) return;
-
-        ArrayList<Room> rooms = game.getRooms();
-        for(Room room : rooms) {
-            if(room.getID().equals(cmd[2])) {
-                entity.setRoom(room);
-                room.addEntity(entity);
-                game.addEntity(entity);
-                return;
-            }
+        Function<String, Entity> factory = ModelTypes.NPCS.get(cmd[1]);
+        if(factory == null) {
+            error("Unknown NPC type: " + cmd[1]);
+            return;
         }
+
+        Room room = findRoom(cmd[2]);
+        if(room == null) return;
+
+        Entity entity = factory.apply(game.getIds().next(IdAllocator.Kind.ENTITY, cmd[1]));
+        entity.setRoom(room);
+        room.addEntity(entity);
+        game.addEntity(entity);
     }
 
     /**
@@ -145,10 +237,10 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai
      */
     public void addRoom(String[] cmd) {
-        if(cmd.length < 2) return;
+        if(!checkArgs(cmd, 2)) return;
 
-        Room room = new Room();
         int capacity = Integer.parseInt(cmd[1]);
+        Room room = new Room(game.getIds().nextRoom());
         room.setCapacity(capacity);
 
         for(int i = 2; i < cmd.length; i++) {
@@ -157,6 +249,7 @@ public class MapBuilder {
                 case "wet" -> room.makeRoomWet();
                 case "cursed" -> room.makeRoomCursed();
                 case "sticky" -> room.makeRoomSticky();
+                default -> error("Unknown room flag: " + cmd[i]);
             }
         }
 
@@ -168,27 +261,19 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai
      */
     public void addDoor(String[] cmd) {
-        if(cmd.length < 3) return;
-
-        Room room1 = null;
-        Room room2 = null;
-        boolean oneway = false;
-
-        ArrayList<Room> rooms = game.getRooms();
-        for(Room room : rooms) {
-            if(room.getID().equals(cmd[1])) {
-                room1 = room;
-            }
-            if(room.getID().equals(cmd[2])) {
-                room2 = room;
-            }
+        if(!checkArgs(cmd, 3)) return;
+
+        Room room1 = findRoom(cmd[1]);
+        Room room2 = findRoom(cmd[2]);
+        if(room1 == null || room2 == null) return;
+        if(room1 == room2) {
+            error("Door must connect two different rooms");
+            return;
         }
 
-        if(room1 == null || room2 == null || room1 == room2) return;
-
-        if(cmd.length > 3 && cmd[3].equals("oneway")) oneway = true;
+        boolean oneway = cmd.length > 3 && cmd[3].equals("oneway");
 
-        Door door = new Door();
+        Door door = new Door(game.getIds().nextDoor());
         door.setNeighbours(room1, room2);
         door.setOneway(oneway);
         room1.addDoor(door);
@@ -200,31 +285,26 @@ public class MapBuilder {
      * @param cmd A parancs argumentumai
      */
     public void addItem(String[] cmd) {
-        if(cmd.length < 3) return;
+        if(!checkArgs(cmd, 3)) return;
 
-        Item item = null;
-        try {
-            Class<?> npcClass = Class.forName("graphic.model.items." + cmd[1]);
-            item = (Item) npcClass.getDeclaredConstructor().newInstance();
-        } catch (Exception ex) {
-            // Nothing happens
+        Function<String, Item> factory = ModelTypes.ITEMS.get(cmd[1]);
+        if(factory == null) {
+            error("Unknown item type: " + cmd[1]);
+            return;
         }
-        if(item == null) return;
 
-        ArrayList<Room> rooms = game.getRooms();
-        for(Room room : rooms) {
-            if(room.getID().equals(cmd[2])) {
-                room.addItem(item);
-                return;
-            }
+        Room room = game.getRoom(cmd[2]);
+        if(room != null) {
+            room.addItem(factory.apply(game.getIds().next(IdAllocator.Kind.ITEM, cmd[1])));
+            return;
         }
 
-        ArrayList<Entity> entities = game.getEntities();
-        for(Entity entity : entities) {
-            if(entity.getID().equals(cmd[2])) {
-                entity.addItem(item);
-                return;
-            }
+        Entity entity = game.getEntity(cmd[2]);
+        if(entity != null) {
+            entity.addItem(factory.apply(game.getIds().next(IdAllocator.Kind.ITEM, cmd[1])));
+            return;
         }
+
+        error("Unknown room or entity: " + cmd[2]);
     }
 }
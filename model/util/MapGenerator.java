@@ -0,0 +1,283 @@
+package graphic.model.util;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Véletlenszerű, tetszőlegesen nagy pályákat generál a MapBuilder által értett parancsformátumban.
+ * A szobák egy folyosóként, kétirányú ajtókkal össze vannak fűzve, így a pálya mindig összefüggő,
+ * erre kerülnek a további véletlen ajtók, tárgyak és NPC-k.
+ * <p>
+ * A szobák egyforma méretű darabokban, párhuzamosan készülnek. Minden darab a seedből és a sorszámából
+ * származtatott saját véletlenszám generátort kap, ezért a kimenet nem függ a szálak számától.
+ * <p>
+ * Használat: {@code generate <kimenet> [-r szobák] [-s seed] [-c min:max befogadóképesség] [-d ajtók szobánként]
+ * [-o egyirányú arány] [-f toxic:wet:cursed:sticky arányok] [-i tárgyak szobánként] [-m tárgy:súly,...]
+ * [-n NPC-k szobánként] [-p játékosok] [-t szálak]}
+ */
+public class MapGenerator {
+
+    /**
+     * Az egy darabban generált szobák száma.
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * A generálás fázisai, mindegyik külön véletlenszám generátorokat kap.
+     */
+    private static final int ROOMS = 0, DOORS = 1, CONTENTS = 2, PLAYERS = 3;
+
+    private long seed = 42;
+
+    private int rooms = 1000;
+
+    private int minCapacity = 3;
+
+    private int maxCapacity = 15;
+
+    /**
+     * A folyosón felüli véletlen ajtók átlagos száma szobánként.
+     */
+    private double doors = 1.0;
+
+    /**
+     * A véletlen ajtók közül az egyirányúak aránya.
+     */
+    private double oneway = 0.1;
+
+    /**
+     * A mérgező, nedves, elátkozott és ragacsos szobák aránya.
+     */
+    private double[] flags = {0.05, 0.05, 0.05, 0.05};
+
+    private static final String[] FLAG_NAMES = {"toxic", "wet", "cursed", "sticky"};
+
+    /**
+     * A tárgyak átlagos száma szobánként.
+     */
+    private double items = 0.5;
+
+    /**
+     * A tárgytípusok és relatív gyakoriságuk.
+     */
+    private String itemMix = "Beer:2,TVSZ:2,FFP2:2,Camembert:1,WetSponge:1,AirConditioner:1,Transistor:2,"
+            + "FakeFFP2:1,FakeTVSZ:1,FakeLogarlec:1";
+
+    /**
+     * Az NPC-k átlagos száma szobánként, minden negyedik takarító, a többi oktató.
+     */
+    private double npcs = 0.1;
+
+    private int players = 2;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private String[] itemTypes;
+
+    private double[] itemWeights;
+
+    /**
+     * A generátor belépési pontja.
+     * @param args a kimeneti fájl és a kapcsolók
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: generate <output> [-r rooms] [-s seed] [-c min:max] [-d doors] [-o oneway]"
+                    + " [-f toxic:wet:cursed:sticky] [-i items] [-m type:weight,...] [-n npcs] [-p players] [-t threads]");
+            return;
+        }
+        MapGenerator generator = new MapGenerator();
+        generator.parse(args, 1);
+        long start = System.nanoTime();
+        try (Writer out = new BufferedWriter(new FileWriter(args[0]), 1 << 16)) {
+            generator.generate(out);
+        } catch (IOException e) {
+            System.out.println("Could not write " + args[0]);
+            return;
+        }
+        System.out.println(String.format("Generated %d rooms into %s in %.3f s",
+                generator.rooms, args[0], (System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * Feldolgozza a parancssori kapcsolókat.
+     * @param args a parancssori argumentumok
+     * @param from az első feldolgozandó argumentum indexe
+     */
+    public void parse(String[] args, int from) {
+        for (int i = from; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-r" -> rooms = Integer.parseInt(value);
+                case "-s" -> seed = Long.parseLong(value);
+                case "-c" -> {
+                    String[] range = value.split(":");
+                    minCapacity = Integer.parseInt(range[0]);
+                    maxCapacity = Integer.parseInt(range[range.length - 1]);
+                }
+                case "-d" -> doors = Double.parseDouble(value);
+                case "-o" -> oneway = Double.parseDouble(value);
+                case "-f" -> {
+                    String[] ratios = value.split(":");
+                    for (int f = 0; f < flags.length && f < ratios.length; f++)
+                        flags[f] = Double.parseDouble(ratios[f]);
+                }
+                case "-i" -> items = Double.parseDouble(value);
+                case "-m" -> itemMix = value;
+                case "-n" -> npcs = Double.parseDouble(value);
+                case "-p" -> players = Integer.parseInt(value);
+                case "-t" -> threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (rooms < 2)
+            throw new IllegalArgumentException("At least 2 rooms are needed");
+        if (minCapacity < 1 || maxCapacity < minCapacity)
+            throw new IllegalArgumentException("Invalid capacity range: " + minCapacity + ":" + maxCapacity);
+    }
+
+    /**
+     * Kiírja a teljes pályát.
+     * Először az összes szoba, majd az ajtók, a tárgyak és NPC-k, végül a játékosok és a logarléc kerül a kimenetre,
+     * hogy minden parancs csak már létező szobára hivatkozzon.
+     * @param out a kimenet
+     */
+    public void generate(Writer out) throws IOException {
+        parseItemMix();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            emit(out, pool, ROOMS);
+            emit(out, pool, DOORS);
+            emit(out, pool, CONTENTS);
+        } finally {
+            pool.shutdown();
+        }
+
+        SplittableRandom random = random(PLAYERS, 0);
+        out.write("addItem Logarlec " + room(random.nextInt(rooms)) + "\n");
+        for (int p = 1; p <= players; p++)
+            out.write("addPlayer Player" + p + " " + room(random.nextInt(rooms)) + "\n");
+        out.flush();
+    }
+
+    /**
+     * Párhuzamosan legenerálja egy fázis darabjait, és sorrendben kiírja őket.
+     * Egyszerre csak néhány darab van a memóriában, így a pálya mérete nincs a memóriához kötve.
+     * @param out a kimenet
+     * @param pool a generáló szálak
+     * @param phase a fázis
+     */
+    private void emit(Writer out, ForkJoinPool pool, int phase) throws IOException {
+        int chunks = (rooms + CHUNK - 1) / CHUNK;
+        int window = pool.getParallelism() * 4;
+        for (int first = 0; first < chunks; first += window) {
+            List<ForkJoinTask<String>> tasks = new ArrayList<>();
+            for (int chunk = first; chunk < Math.min(chunks, first + window); chunk++) {
+                int index = chunk;
+                tasks.add(pool.submit(() -> chunk(phase, index)));
+            }
+            for (ForkJoinTask<String> task : tasks)
+                out.write(task.join());
+        }
+    }
+
+    /**
+     * Legenerálja egy fázis egy darabjának parancsait.
+     * @param phase a fázis
+     * @param chunk a darab sorszáma
+     * @return a darab parancsai
+     */
+    private String chunk(int phase, int chunk) {
+        SplittableRandom random = random(phase, chunk);
+        int from = chunk * CHUNK;
+        int to = Math.min(rooms, from + CHUNK);
+        StringBuilder builder = new StringBuilder((to - from) * 48);
+        for (int r = from; r < to; r++) {
+            switch (phase) {
+                case ROOMS -> {
+                    builder.append("addRoom ").append(random.nextInt(minCapacity, maxCapacity + 1));
+                    for (int f = 0; f < flags.length; f++)
+                        if (random.nextDouble() < flags[f])
+                            builder.append(' ').append(FLAG_NAMES[f]);
+                    builder.append('\n');
+                }
+                case DOORS -> {
+                    if (r + 1 < rooms)
+                        door(builder, r, r + 1, false);
+                    for (int d = count(random, doors); d > 0; d--) {
+                        int other = random.nextInt(rooms - 1);
+                        if (other >= r) other++;
+                        door(builder, r, other, random.nextDouble() < oneway);
+                    }
+                }
+                case CONTENTS -> {
+                    for (int i = count(random, items); i > 0; i--)
+                        builder.append("addItem ").append(itemType(random)).append(' ').append(room(r)).append('\n');
+                    for (int n = count(random, npcs); n > 0; n--)
+                        builder.append("addNPC ").append(random.nextInt(4) == 3 ? "CleaningLady" : "Prof")
+                                .append(' ').append(room(r)).append('\n');
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void door(StringBuilder builder, int from, int to, boolean oneway) {
+        builder.append("addDoor ").append(room(from)).append(' ').append(room(to));
+        if (oneway) builder.append(" oneway");
+        builder.append('\n');
+    }
+
+    /**
+     * @return A szoba azonosítója, ahogy a MapBuilder egy friss játékban kiosztja.
+     */
+    private static String room(int index) {
+        return "Room#" + (index + 1);
+    }
+
+    /**
+     * Egy átlagos darabszámból véletlen egész darabszámot készít: az egész részt mindig, a törtet valószínűséggel adja hozzá.
+     */
+    private static int count(SplittableRandom random, double mean) {
+        int whole = (int) mean;
+        return whole + (random.nextDouble() < mean - whole ? 1 : 0);
+    }
+
+    /**
+     * @return Egy véletlen tárgytípus a súlyok szerint.
+     */
+    private String itemType(SplittableRandom random) {
+        double pick = random.nextDouble() * itemWeights[itemWeights.length - 1];
+        for (int i = 0; i < itemWeights.length; i++)
+            if (pick < itemWeights[i])
+                return itemTypes[i];
+        return itemTypes[itemTypes.length - 1];
+    }
+
+    /**
+     * Feldolgozza a tárgytípusok gyakoriságát összegzett súlyokká.
+     */
+    private void parseItemMix() {
+        String[] entries = itemMix.split(",");
+        itemTypes = new String[entries.length];
+        itemWeights = new double[entries.length];
+        double sum = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] entry = entries[i].split(":");
+            itemTypes[i] = entry[0];
+            sum += entry.length > 1 ? Double.parseDouble(entry[1]) : 1;
+            itemWeights[i] = sum;
+        }
+    }
+
+    /**
+     * @return Egy fázis egy darabjának saját, a seedből származtatott véletlenszám generátora.
+     */
+    private SplittableRandom random(int phase, int chunk) {
+        return new SplittableRandom(new SplittableRandom(seed + ((long) phase << 32 | chunk) * 0x9E3779B97F4A7C15L).nextLong());
+    }
+}
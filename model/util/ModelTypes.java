@@ -0,0 +1,52 @@
+package graphic.model.util;
+
+import graphic.model.characters.*;
+import graphic.model.items.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A tárgyak és entitások típusnév szerinti létrehozói, a pályaleíró parancsok és a bináris mentések közösen
+ * használják. Új tárgy- vagy NPC-típust elég itt felvenni, mindkét formátum ismerni fogja.
+ */
+final class ModelTypes {
+
+    /**
+     * A tárgyak típusnév szerinti létrehozói, a paraméter az azonosító.
+     */
+    static final Map<String, Function<String, Item>> ITEMS = Map.ofEntries(
+            Map.entry("AirConditioner", AirConditioner::new),
+            Map.entry("Beer", Beer::new),
+            Map.entry("Camembert", Camembert::new),
+            Map.entry("FFP2", FFP2::new),
+            Map.entry("FakeFFP2", FakeFFP2::new),
+            Map.entry("Logarlec", Logarlec::new),
+            Map.entry("FakeLogarlec", FakeLogarlec::new),
+            Map.entry("TVSZ", TVSZ::new),
+            Map.entry("FakeTVSZ", FakeTVSZ::new),
+            Map.entry("Transistor", Transistor::new),
+            Map.entry("WetSponge", WetSponge::new));
+
+    /**
+     * Az NPC-k típusnév szerinti létrehozói, a paraméter az azonosító.
+     */
+    static final Map<String, Function<String, Entity>> NPCS = Map.of(
+            "Prof", Prof::new,
+            "CleaningLady", CleaningLady::new);
+
+    /**
+     * Az összes entitás típusnév szerinti létrehozói: a hallgató és az NPC-k.
+     */
+    static final Map<String, Function<String, Entity>> ENTITIES = entities();
+
+    private ModelTypes() {
+    }
+
+    private static Map<String, Function<String, Entity>> entities() {
+        Map<String, Function<String, Entity>> entities = new HashMap<>(NPCS);
+        entities.put("Student", Student::new);
+        return Map.copyOf(entities);
+    }
+}
@@ -0,0 +1,320 @@
+package graphic.replay;
+
+import graphic.model.Game;
+import graphic.model.util.GameSerializer;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Egy felvett játék a memóriában: a kiinduló állapot, a hallgatók ActionHandler hívásai, minden kör végén
+ * a játék állapotának hashe, valamint a véletlenszám generátorokból kért összes szám.
+ * <p>
+ * A fájlformátum: fejléc (MAGIC, VERSION, seed, a kiinduló állapot GameSerializer mentése), majd a fájl végéig
+ * bejegyzések egy műveletkóddal kezdve. Az azonosítók egy sztringtáblára hivatkoznak, amely az első
+ * előfordulásukkor bővül, a számok változó hosszúságú kódolással kerülnek kiírásra.
+ * A véletlen számok a generátorok leválasztási sorrendje szerinti folyamokba rendeződnek.
+ */
+public class ActionLog {
+
+    /**
+     * A felvételek azonosítója a fájl elején ("LGRL").
+     */
+    public static final int MAGIC = 0x4C47524C;
+
+    /**
+     * A fájlformátum verziója.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Az ActionHandler műveleteinek kódjai.
+     */
+    static final byte MOVE = 1, PEEK = 2, PICKUP = 3, DROP = 4, ACTIVATE = 5, LINK = 6, END_TURN = 7;
+
+    /**
+     * A véletlen számok fajtáinak kódjai: nextInt(bound), nextInt(origin, bound), nextBoolean, nextLong.
+     */
+    static final byte INT = 16, RANGE = 17, BOOLEAN = 18, LONG = 19;
+
+    /**
+     * A játék seedje a felvételkor.
+     */
+    private final long seed;
+
+    /**
+     * A kiinduló állapot mentése.
+     */
+    private final byte[] state;
+
+    /**
+     * A műveletek kódjai és paraméterei, a paraméter nélküli helyeken null.
+     */
+    private byte[] ops = new byte[256];
+    private String[] first = new String[256];
+    private String[] second = new String[256];
+    private int actions;
+
+    /**
+     * A körök végén rögzített hashek, az END_TURN műveletek sorrendjében.
+     */
+    private long[] hashes = new long[64];
+    private int turns;
+
+    /**
+     * A véletlen számok folyamonként.
+     */
+    private final List<Draws> streams = new ArrayList<>();
+
+    private ActionLog(long seed, byte[] state) {
+        this.seed = seed;
+        this.state = state;
+    }
+
+    /**
+     * Beolvas egy felvételt. A félbeszakadt utolsó bejegyzést figyelmen kívül hagyja.
+     * @param file a felvétel fájlja
+     * @return a beolvasott felvétel
+     */
+    public static ActionLog read(File file) throws IOException {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            return read(stream);
+        }
+    }
+
+    /**
+     * Beolvas egy felvételt egy adatfolyamból.
+     * @param stream az adatfolyam
+     * @return a beolvasott felvétel
+     */
+    public static ActionLog read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a recording");
+        int version = in.readShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported recording version: " + version);
+        long seed = in.readLong();
+        byte[] state = new byte[in.readInt()];
+        in.readFully(state);
+
+        ActionLog log = new ActionLog(seed, state);
+        List<String> strings = new ArrayList<>();
+        try {
+            int op;
+            while ((op = in.read()) >= 0) {
+                switch (op) {
+                    case MOVE, PEEK, PICKUP, DROP, ACTIVATE -> log.addAction((byte) op, readRef(in, strings), null);
+                    case LINK -> log.addAction(LINK, readRef(in, strings), readRef(in, strings));
+                    case END_TURN -> {
+                        long hash = in.readLong();
+                        log.addAction(END_TURN, null, null);
+                        log.addHash(hash);
+                    }
+                    case INT -> log.draws(readVarint(in)).add(INT, 0, readVarint(in), readVarint(in));
+                    case RANGE -> log.draws(readVarint(in)).add(RANGE, unzigzag(readVarint(in)), unzigzag(readVarint(in)), unzigzag(readVarint(in)));
+                    case BOOLEAN -> log.draws(readVarint(in)).add(BOOLEAN, 0, 0, in.readBoolean() ? 1 : 0);
+                    case LONG -> log.draws(readVarint(in)).add(LONG, 0, 0, in.readLong());
+                    default -> throw new IOException("Unknown record: " + op);
+                }
+            }
+        } catch (EOFException e) {
+            // A felvétel egy bejegyzés közben szakadt meg
+        }
+        return log;
+    }
+
+    /**
+     * @return A kiinduló állapotból létrehozott új játék, a felvétel seedjével.
+     */
+    public Game newGame() throws IOException {
+        Game game = GameSerializer.read(new ByteArrayInputStream(state));
+        game.setSeed(seed);
+        return game;
+    }
+
+    /**
+     * @return A játék seedje a felvételkor.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return A felvett műveletek száma.
+     */
+    public int getActionCount() {
+        return actions;
+    }
+
+    /**
+     * @return A felvett körök száma.
+     */
+    public int getTurnCount() {
+        return turns;
+    }
+
+    /**
+     * @return A felvett véletlen számok száma.
+     */
+    public int getDrawCount() {
+        int count = 0;
+        for (Draws draws : streams)
+            count += draws.size;
+        return count;
+    }
+
+    byte op(int action) {
+        return ops[action];
+    }
+
+    String first(int action) {
+        return first[action];
+    }
+
+    String second(int action) {
+        return second[action];
+    }
+
+    long hash(int turn) {
+        return hashes[turn];
+    }
+
+    /**
+     * @param stream a folyam sorszáma
+     * @return A folyam véletlen számai, vagy null, ha a folyamból nem kértek számot.
+     */
+    Draws stream(int stream) {
+        return stream < streams.size() ? streams.get(stream) : null;
+    }
+
+    private void addAction(byte op, String a, String b) {
+        if (actions == ops.length) {
+            ops = Arrays.copyOf(ops, actions * 2);
+            first = Arrays.copyOf(first, actions * 2);
+            second = Arrays.copyOf(second, actions * 2);
+        }
+        ops[actions] = op;
+        first[actions] = a;
+        second[actions] = b;
+        actions++;
+    }
+
+    private void addHash(long hash) {
+        if (turns == hashes.length)
+            hashes = Arrays.copyOf(hashes, turns * 2);
+        hashes[turns++] = hash;
+    }
+
+    private Draws draws(int stream) {
+        while (streams.size() <= stream)
+            streams.add(new Draws());
+        return streams.get(stream);
+    }
+
+    /**
+     * Egy folyam véletlen számai a kérés fajtájával és korlátaival együtt.
+     */
+    static final class Draws {
+
+        private byte[] kinds = new byte[64];
+        private int[] origins = new int[64];
+        private int[] bounds = new int[64];
+        private long[] values = new long[64];
+        private int size;
+
+        private void add(byte kind, int origin, int bound, long value) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                origins = Arrays.copyOf(origins, size * 2);
+                bounds = Arrays.copyOf(bounds, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            kinds[size] = kind;
+            origins[size] = origin;
+            bounds[size] = bound;
+            values[size] = value;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @param index a szám sorszáma a folyamban
+         * @param kind a kért fajta
+         * @param origin a kért alsó korlát
+         * @param bound a kért felső korlát
+         * @return Igaz, ha a felvett szám ugyanilyen kérésre született.
+         */
+        boolean matches(int index, byte kind, int origin, int bound) {
+            return kinds[index] == kind && origins[index] == origin && bounds[index] == bound;
+        }
+
+        long value(int index) {
+            return values[index];
+        }
+
+        /**
+         * @param index a szám sorszáma a folyamban
+         * @return A felvett kérés olvasható alakja.
+         */
+        String describe(int index) {
+            return ActionLog.describe(kinds[index], origins[index], bounds[index]);
+        }
+    }
+
+    /**
+     * @return Egy véletlenszám kérés olvasható alakja, például nextInt(5).
+     */
+    static String describe(byte kind, int origin, int bound) {
+        return switch (kind) {
+            case INT -> "nextInt(" + bound + ")";
+            case RANGE -> "nextInt(" + origin + ", " + bound + ")";
+            case BOOLEAN -> "nextBoolean()";
+            default -> "nextLong()";
+        };
+    }
+
+    /**
+     * Beolvas egy azonosítót: 0 után új sztring következik, különben a tábla egy korábbi elemének sorszáma + 1.
+     */
+    private static String readRef(DataInputStream in, List<String> strings) throws IOException {
+        int ref = readVarint(in);
+        if (ref > 0)
+            return strings.get(ref - 1);
+        String s = in.readUTF();
+        strings.add(s);
+        return s;
+    }
+
+    static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,325 @@
+package graphic.replay;
+
+import graphic.controller.ActionHandler;
+import graphic.model.Game;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.util.GameRandom;
+import graphic.model.util.GameSerializer;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Felveszi egy játék menetét az ActionLog formátumában.
+ * A hallgatók műveleteit a wrap által visszaadott ActionHandler rögzíti, a véletlen döntéseket (az NPC-k lépései
+ * a Controllerben, a szobák egyesítése és osztódása a Game.tick-ben) a játékra telepített felvevő generátor.
+ * Minden kör végén a játék állapotának hashe is a felvételbe kerül, és a puffer kiíródik.
+ * <p>
+ * Írási hiba esetén kiírja a hibát, és a játék zavartalanul folytatódik felvétel nélkül.
+ */
+public class ActionRecorder implements Closeable {
+
+    /**
+     * A felvétel kimenete, vagy null, ha a felvétel leállt.
+     */
+    private DataOutputStream out;
+
+    /**
+     * A már kiírt azonosítók a sztringtáblabeli sorszámukkal.
+     */
+    private final Map<String, Integer> refs = new HashMap<>();
+
+    /**
+     * A körök végi hashek számítója.
+     */
+    private final StateHash hash = new StateHash();
+
+    /**
+     * A felvett játék.
+     */
+    private Game game;
+
+    /**
+     * A következő leválasztott generátor folyamának sorszáma.
+     */
+    private int streams;
+
+    /**
+     * Igaz, amíg a splitUnrecorded fut.
+     */
+    private boolean unrecorded;
+
+    /**
+     * Létrehoz egy felvevőt a megadott kimenetre.
+     * @param stream a kimenet
+     */
+    public ActionRecorder(OutputStream stream) {
+        out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    /**
+     * Létrehoz egy felvevőt a megadott fájlba.
+     * @param file a felvétel fájlja
+     * @return a felvevő
+     */
+    public static ActionRecorder open(File file) throws IOException {
+        return new ActionRecorder(new FileOutputStream(file));
+    }
+
+    /**
+     * Kiírja a játék kiinduló állapotát, és a játék seedjéből felvevő generátort telepít rá.
+     * A felvevő generátor ugyanazokat a számokat adja, mint a setSeed által létrehozott, így a felvétel
+     * nem változtat a játék menetén. A Controller létrehozása előtt kell hívni.
+     * @param game a felveendő játék
+     */
+    public void attach(Game game) {
+        this.game = game;
+        try {
+            ByteArrayOutputStream state = new ByteArrayOutputStream();
+            GameSerializer.write(game, state);
+            out.writeInt(ActionLog.MAGIC);
+            out.writeShort(ActionLog.VERSION);
+            out.writeLong(game.getSeed());
+            out.writeInt(state.size());
+            state.writeTo(out);
+        } catch (IOException e) {
+            fail(e);
+        }
+        game.setRandom(new RecordingRandom(new SplittableRandom(game.getSeed()), true));
+    }
+
+    /**
+     * Leválaszt a játék generátorából egy generátort, amelynek a számai nem kerülnek a felvételbe, és nem kap
+     * folyamsorszámot. A hallgatók stratégiái ezt kapják: az ő döntéseik műveletként már a felvételben vannak,
+     * a visszajátszásban pedig nem futnak.
+     * @param game a felvett játék
+     * @return a leválasztott generátor
+     */
+    public GameRandom splitUnrecorded(Game game) {
+        unrecorded = true;
+        try {
+            return game.splitRandom();
+        } finally {
+            unrecorded = false;
+        }
+    }
+
+    /**
+     * @param handler a műveleteket végrehajtó kezelő, jellemzően a Controller
+     * @return Egy kezelő, amely minden hívást felvesz, majd továbbad.
+     */
+    public ActionHandler wrap(ActionHandler handler) {
+        return new RecordingHandler(handler);
+    }
+
+    /**
+     * Kiírja és lezárja a felvételt.
+     */
+    @Override
+    public void close() {
+        if (out == null)
+            return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.out.println("Could not write recording: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * Felvesz egy műveletet.
+     * @param op a művelet kódja
+     * @param ids a művelet paramétereinek azonosítói
+     */
+    private void action(byte op, String... ids) {
+        if (out == null)
+            return;
+        try {
+            out.writeByte(op);
+            for (String id : ids) {
+                Integer ref = refs.get(id);
+                if (ref != null) {
+                    ActionLog.writeVarint(out, ref);
+                } else {
+                    ActionLog.writeVarint(out, 0);
+                    out.writeUTF(id);
+                    refs.put(id, refs.size() + 1);
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Felveszi a kör végét a játék állapotának hashével, és kiírja a puffert.
+     */
+    private void endTurn() {
+        if (out == null)
+            return;
+        try {
+            out.writeByte(ActionLog.END_TURN);
+            out.writeLong(hash.of(game));
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Felvesz egy véletlen számot.
+     * @param kind a kérés fajtája
+     * @param stream a generátor folyama
+     * @param origin az alsó korlát, vagy 0
+     * @param bound a felső korlát, vagy 0
+     * @param value a kapott szám
+     */
+    private void draw(byte kind, int stream, int origin, int bound, long value) {
+        if (out == null || stream < 0)
+            return;
+        try {
+            out.writeByte(kind);
+            ActionLog.writeVarint(out, stream);
+            switch (kind) {
+                case ActionLog.INT -> {
+                    ActionLog.writeVarint(out, bound);
+                    ActionLog.writeVarint(out, (int) value);
+                }
+                case ActionLog.RANGE -> {
+                    ActionLog.writeVarint(out, ActionLog.zigzag(origin));
+                    ActionLog.writeVarint(out, ActionLog.zigzag(bound));
+                    ActionLog.writeVarint(out, ActionLog.zigzag((int) value));
+                }
+                case ActionLog.BOOLEAN -> out.writeBoolean(value != 0);
+                default -> out.writeLong(value);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Kiírja a hibát, és leállítja a felvételt.
+     * @param e a hiba
+     */
+    private void fail(IOException e) {
+        System.out.println("Could not write recording, recording stopped: " + e.getMessage());
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Már hibás kimenet
+        }
+        out = null;
+    }
+
+    /**
+     * A kapott számokat felvevő generátor. A leválasztott generátorok a leválasztás sorrendjében
+     * kapnak folyamsorszámot, ezt a visszajátszás ugyanígy követi.
+     */
+    private class RecordingRandom extends GameRandom {
+
+        /**
+         * A generátor folyamának sorszáma, vagy -1, ha a számai nem kerülnek a felvételbe.
+         */
+        private final int stream;
+
+        RecordingRandom(SplittableRandom random, boolean recorded) {
+            super(random);
+            stream = recorded ? streams++ : -1;
+        }
+
+        @Override
+        protected GameRandom child(SplittableRandom random) {
+            return new RecordingRandom(random, stream >= 0 && !unrecorded);
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            int value = super.nextInt(bound);
+            draw(ActionLog.INT, stream, 0, bound, value);
+            return value;
+        }
+
+        @Override
+        public int nextInt(int origin, int bound) {
+            int value = super.nextInt(origin, bound);
+            draw(ActionLog.RANGE, stream, origin, bound, value);
+            return value;
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            boolean value = super.nextBoolean();
+            draw(ActionLog.BOOLEAN, stream, 0, 0, value ? 1 : 0);
+            return value;
+        }
+
+        @Override
+        public long nextLong() {
+            long value = super.nextLong();
+            draw(ActionLog.LONG, stream, 0, 0, value);
+            return value;
+        }
+    }
+
+    /**
+     * A hívásokat felvevő, majd továbbadó kezelő.
+     */
+    private class RecordingHandler implements ActionHandler {
+
+        /**
+         * A műveleteket végrehajtó kezelő.
+         */
+        private final ActionHandler handler;
+
+        RecordingHandler(ActionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void move(Door door) {
+            action(ActionLog.MOVE, door.getID());
+            handler.move(door);
+        }
+
+        @Override
+        public void peek(Door door) {
+            action(ActionLog.PEEK, door.getID());
+            handler.peek(door);
+        }
+
+        @Override
+        public void pickup(Item item) {
+            action(ActionLog.PICKUP, item.getID());
+            handler.pickup(item);
+        }
+
+        @Override
+        public void drop(Item item) {
+            action(ActionLog.DROP, item.getID());
+            handler.drop(item);
+        }
+
+        @Override
+        public void link(Item item1, Item item2) {
+            action(ActionLog.LINK, item1.getID(), item2.getID());
+            handler.link(item1, item2);
+        }
+
+        @Override
+        public void activate(Item item) {
+            action(ActionLog.ACTIVATE, item.getID());
+            handler.activate(item);
+        }
+
+        @Override
+        public void endTurn() {
+            handler.endTurn();
+            ActionRecorder.this.endTurn();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package graphic.replay;
+
+import graphic.controller.Controller;
+import graphic.metrics.Metrics;
+import graphic.model.Game;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.util.GameRandom;
+import graphic.simulation.HeadlessDisplay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Egy felvett játék teljes sebességű, grafikus felület nélküli visszajátszása.
+ * A hallgatók műveletei a Controlleren keresztül, a felvett sorrendben futnak le. A véletlen döntések nem a seedből
+ * születnek újra: a generátorok a felvett számokat adják vissza, és ha a kód más kérést tesz, mint a felvételkor
+ * (más fajta vagy korlát, vagy több szám), a visszajátszás eltérést jelez. Kérésre minden kör végén a játék
+ * állapotának hashét is összeveti a felvettel.
+ * <p>
+ * Nem szálbiztos, egy példány egyszerre egy visszajátszást futtat.
+ * <p>
+ * Használat: {@code replay <felvétel> [-c] [-n ismétlések]}
+ */
+public class Replayer {
+
+    /**
+     * A visszajátszott felvétel.
+     */
+    private final ActionLog log;
+
+    /**
+     * A következő leválasztott generátor folyamának sorszáma a futó visszajátszásban.
+     */
+    private int streams;
+
+    /**
+     * Létrehoz egy visszajátszót.
+     * @param log a visszajátszandó felvétel
+     */
+    public Replayer(ActionLog log) {
+        this.log = log;
+    }
+
+    /**
+     * A visszajátszás belépési pontja.
+     * @param args a felvétel, a -c a hashek ellenőrzéséhez, a -n az ismétlések számához
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: replay <recording> [-c] [-n repeats]");
+            return;
+        }
+        boolean check = false;
+        int repeats = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-c" -> check = true;
+                case "-n" -> repeats = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ActionLog log;
+        try {
+            log = ActionLog.read(new File(args[0]));
+        } catch (IOException e) {
+            System.out.println("Could not open file: " + args[0]);
+            return;
+        }
+        System.out.println(String.format("Recording: seed %d, %d actions, %d turns, %d random draws",
+                log.getSeed(), log.getActionCount(), log.getTurnCount(), log.getDrawCount()));
+
+        Replayer replayer = new Replayer(log);
+        long best = Long.MAX_VALUE, total = 0;
+        for (int i = 0; i < repeats; i++) {
+            Result result = replayer.run(check);
+            if (result.divergence() != null) {
+                System.out.println("Diverged: " + result.divergence());
+                return;
+            }
+            best = Math.min(best, result.elapsedNanos());
+            total += result.elapsedNanos();
+            if (i == 0) {
+                System.out.println("Outcome: " + result.outcome() + " after " + result.turns() + " endTurn calls");
+                if (check)
+                    System.out.println("State hashes: " + result.turns() + " checked, all match");
+                System.out.println(String.format("Slowest endTurn: #%d, %.3f ms", result.slowestTurn(), result.slowestTurnNanos() / 1e6));
+            }
+        }
+        System.out.println(String.format("Replayed %d times, best %.3f ms, mean %.3f ms, %.0f actions/s",
+                repeats, best / 1e6, total / 1e6 / repeats, log.getActionCount() / (best / 1e9)));
+        if (Metrics.ENABLED)
+            Metrics.dump(System.out);
+    }
+
+    /**
+     * Visszajátssza a felvételt a kiinduló állapot egy friss másolatán.
+     * Az eltöltött időbe a másolat elkészítése és a hashek összevetése nem számít bele.
+     * @param check igaz, ha minden kör végén össze kell vetni az állapot hashét a felvettel
+     * @return a visszajátszás eredménye
+     */
+    public Result run(boolean check) {
+        Game game;
+        try {
+            game = log.newGame();
+        } catch (IOException e) {
+            return new Result(0, game(null), 0, 0, 0, "corrupt initial state: " + e.getMessage());
+        }
+        streams = 0;
+        game.setRandom(new ReplayRandom(new SplittableRandom(log.getSeed())));
+        HeadlessDisplay display = new HeadlessDisplay();
+        Controller controller = new Controller(game, display);
+        controller.startGame();
+        StateHash hash = check ? new StateHash() : null;
+
+        int turns = 0, slowest = 0;
+        long slowestNanos = 0, hashNanos = 0;
+        long start = System.nanoTime();
+        int i = 0;
+        try {
+            for (; i < log.getActionCount(); i++) {
+                switch (log.op(i)) {
+                    case ActionLog.MOVE -> controller.move(door(game, log.first(i)));
+                    case ActionLog.PEEK -> controller.peek(door(game, log.first(i)));
+                    case ActionLog.PICKUP -> controller.pickup(item(game, log.first(i)));
+                    case ActionLog.DROP -> controller.drop(item(game, log.first(i)));
+                    case ActionLog.ACTIVATE -> controller.activate(item(game, log.first(i)));
+                    case ActionLog.LINK -> controller.link(item(game, log.first(i)), item(game, log.second(i)));
+                    default -> {
+                        long turnStart = System.nanoTime();
+                        controller.endTurn();
+                        long turnNanos = System.nanoTime() - turnStart;
+                        if (turnNanos > slowestNanos) {
+                            slowestNanos = turnNanos;
+                            slowest = turns + 1;
+                        }
+                        if (hash != null) {
+                            // A hasheléshez az egész játékot szerializálni kell, ez nem számít a visszajátszás idejébe
+                            long hashStart = System.nanoTime();
+                            boolean same = hash.of(game) == log.hash(turns);
+                            hashNanos += System.nanoTime() - hashStart;
+                            if (!same)
+                                throw new IllegalStateException("state hash differs after turn " + (turns + 1));
+                        }
+                        turns++;
+                    }
+                }
+            }
+        } catch (IllegalStateException e) {
+            return new Result(turns, game(game), System.nanoTime() - start - hashNanos, slowest, slowestNanos, "action " + i + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Egy eltért visszajátszás a modellben is elbukhat, például egy nem várt null miatt
+            return new Result(turns, game(game), System.nanoTime() - start - hashNanos, slowest, slowestNanos, "action " + i + ": " + e);
+        }
+        return new Result(turns, game(game), System.nanoTime() - start - hashNanos, slowest, slowestNanos, null);
+    }
+
+    /**
+     * @return A játék állása olvasható formában.
+     */
+    private static String game(Game game) {
+        return game == null ? "none" : game.getReadableStatus();
+    }
+
+    private static Door door(Game game, String id) {
+        Door door = game.getDoor(id);
+        if (door == null)
+            throw new IllegalStateException("unknown door " + id);
+        return door;
+    }
+
+    private static Item item(Game game, String id) {
+        Item item = game.getItem(id);
+        if (item == null)
+            throw new IllegalStateException("unknown item " + id);
+        return item;
+    }
+
+    /**
+     * Egy visszajátszás eredménye.
+     * @param turns a lejátszott körök száma
+     * @param outcome a játék állása a végén
+     * @param elapsedNanos a visszajátszás ideje nanoszekundumban, a hashek ellenőrzése nélkül
+     * @param slowestTurn a leglassabb endTurn hívás sorszáma, 1-től számozva
+     * @param slowestTurnNanos a leglassabb endTurn hívás ideje nanoszekundumban, az NPC-k köreivel és a tickkel együtt
+     * @param divergence az eltérés leírása, vagy null, ha a visszajátszás a felvételt követte
+     */
+    public record Result(int turns, String outcome, long elapsedNanos, int slowestTurn, long slowestTurnNanos, String divergence) {
+    }
+
+    /**
+     * A felvett számokat visszaadó generátor. A folyamsorszámokat a felvevővel azonos sorrendben osztja ki.
+     */
+    private class ReplayRandom extends GameRandom {
+
+        /**
+         * A generátor folyamának sorszáma.
+         */
+        private final int stream = streams++;
+
+        /**
+         * A folyam felvett számai, vagy null, ha a felvételkor nem kértek belőle.
+         */
+        private final ActionLog.Draws draws = log.stream(stream);
+
+        /**
+         * A következő visszaadandó szám sorszáma.
+         */
+        private int position;
+
+        ReplayRandom(SplittableRandom random) {
+            super(random);
+        }
+
+        @Override
+        protected GameRandom child(SplittableRandom random) {
+            return new ReplayRandom(random);
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return (int) next(ActionLog.INT, 0, bound);
+        }
+
+        @Override
+        public int nextInt(int origin, int bound) {
+            return (int) next(ActionLog.RANGE, origin, bound);
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return next(ActionLog.BOOLEAN, 0, 0) != 0;
+        }
+
+        @Override
+        public long nextLong() {
+            return next(ActionLog.LONG, 0, 0);
+        }
+
+        /**
+         * Visszaadja a folyam következő felvett számát, ha ugyanilyen kérésre született.
+         */
+        private long next(byte kind, int origin, int bound) {
+            int index = position++;
+            if (draws == null || index >= draws.size())
+                throw new IllegalStateException("random stream " + stream + " has no draw " + index
+                        + " for " + ActionLog.describe(kind, origin, bound));
+            if (!draws.matches(index, kind, origin, bound))
+                throw new IllegalStateException("random stream " + stream + " draw " + index + " was "
+                        + draws.describe(index) + ", replay asked " + ActionLog.describe(kind, origin, bound));
+            return draws.value(index);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package graphic.replay;
+
+import graphic.model.Game;
+import graphic.model.util.GameSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A játék teljes állapotának 64 bites hashe. A játék GameSerializer mentéséből számolódik, így minden
+ * elmentett tulajdonság eltérését észreveszi. A mentés puffere újrahasznosul, egy példányt egy szál használjon.
+ */
+final class StateHash {
+
+    /**
+     * A mentés puffere.
+     */
+    private final Buffer buffer = new Buffer();
+
+    /**
+     * @param game a játék
+     * @return A játék állapotának FNV-1a hashe.
+     */
+    long of(Game game) {
+        buffer.reset();
+        try {
+            GameSerializer.write(game, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long hash = 0xcbf29ce484222325L;
+        byte[] bytes = buffer.bytes();
+        for (int i = 0; i < buffer.size(); i++) {
+            hash ^= bytes[i] & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Memóriabeli puffer, amelynek a tartalma másolás nélkül olvasható.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(1 << 14);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
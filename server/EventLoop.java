@@ -0,0 +1,223 @@
+package graphic.server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Egy szálon, egy selectorral kiszolgált kapcsolatok csoportja.
+ * Minden kapcsolat és a hozzá tartozó munkamenet végig ugyanazon a hurkon marad, így a játékok állapotát
+ * csak egy szál éri el. A parancsokat a hurok a beolvasásuk után azonnal végrehajtja.
+ */
+final class EventLoop implements Runnable {
+
+    /**
+     * Ha egy kliensnek ennél több bájtnyi válasz vár küldésre, a hurok addig nem olvas tőle.
+     */
+    private static final int MAX_PENDING = 1 << 20;
+
+    /**
+     * A kapcsolatokat figyelő selector.
+     */
+    private final Selector selector;
+
+    /**
+     * Az elfogadott, de még nem regisztrált kapcsolatok a munkamenetük seedjével.
+     */
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A szerver, amely a munkameneteket létrehozza.
+     */
+    private final GameServer server;
+
+    EventLoop(GameServer server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Átad egy elfogadott kapcsolatot a huroknak. Bármely szálról hívható. Ha a hurok már leállt, a kapcsolatot
+     * lezárja, hogy a kliens ne várakozzon a végtelenségig.
+     * @param channel a kapcsolat
+     * @param seed a munkamenet seedje
+     */
+    void register(SocketChannel channel, long seed) {
+        pending.add(new Registration(channel, seed));
+        // A leálló hurok előbb a selectort zárja le, utána üríti a sort, így egyik kapcsolat sem marad benne
+        if (selector.isOpen())
+            selector.wakeup();
+        else
+            rejectPending();
+    }
+
+    /**
+     * Leállítja a hurkot, és lezárja a kapcsolatait.
+     */
+    void close() throws IOException {
+        if (!selector.isOpen())
+            return;
+        for (SelectionKey key : selector.keys())
+            key.channel().close();
+        selector.close();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                registerPending();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // A szerver leállt
+        } catch (IOException e) {
+            System.out.println("Event loop failed: " + e.getMessage());
+            fail();
+        }
+    }
+
+    /**
+     * Leállítja a hibára futott hurkot: lezárja a kapcsolatait és a még regisztrálatlan kapcsolatokat.
+     */
+    private void fail() {
+        try {
+            for (SelectionKey key : new ArrayList<>(selector.keys()))
+                disconnect(key);
+            selector.close();
+        } catch (ClosedSelectorException | IOException e) {
+            // A szerver közben leállt
+        }
+        rejectPending();
+    }
+
+    /**
+     * Regisztrálja az átadott kapcsolatokat, és elindítja a munkameneteiket. Egy kapcsolat hibája csak azt
+     * a kapcsolatot zárja le.
+     */
+    private void registerPending() {
+        Registration next;
+        while ((next = pending.poll()) != null) {
+            SocketChannel channel = next.channel();
+            try {
+                channel.configureBlocking(false);
+                Connection connection = new Connection(new LineChannel(channel), server.newSession(next.seed()));
+                channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Could not start session: " + e);
+                reject(channel);
+            }
+        }
+    }
+
+    /**
+     * Lezárja az összes még regisztrálatlan kapcsolatot.
+     */
+    private void rejectPending() {
+        Registration next;
+        while ((next = pending.poll()) != null)
+            reject(next.channel());
+    }
+
+    /**
+     * Lezár egy regisztrálatlan kapcsolatot, a munkamenete nem indul el.
+     * @param channel a kapcsolat
+     */
+    private void reject(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Már lezárt kapcsolat
+        }
+        server.sessionClosed();
+    }
+
+    /**
+     * Kiszolgál egy kapcsolatot: beolvassa és végrehajtja a parancsait, majd elküldi a válaszokat.
+     * @param key a kapcsolat kulcsa
+     */
+    private void handle(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        LineChannel lines = connection.lines();
+        try {
+            if (key.isReadable() && !lines.read(line -> execute(connection, line))) {
+                disconnect(key);
+                return;
+            }
+            boolean flushed = lines.flush();
+            if (flushed && lines.isClosing()) {
+                disconnect(key);
+                return;
+            }
+            int ops = flushed ? 0 : SelectionKey.OP_WRITE;
+            if (lines.pending() < MAX_PENDING && !lines.isClosing())
+                ops |= SelectionKey.OP_READ;
+            key.interestOps(ops);
+        } catch (IOException e) {
+            disconnect(key);
+        } catch (RuntimeException e) {
+            System.out.println("Connection failed: " + e);
+            disconnect(key);
+        }
+    }
+
+    /**
+     * Végrehajt egy parancsot, és sorba állítja a válaszát.
+     * @param connection a kapcsolat
+     * @param line a parancs
+     */
+    private void execute(Connection connection, String line) {
+        if (connection.lines().isClosing() || line.isBlank())
+            return;
+        String reply = connection.session().execute(line);
+        server.commandExecuted();
+        if (reply == null) {
+            connection.lines().send("BYE");
+            connection.lines().closeAfterFlush();
+        } else {
+            connection.lines().send(reply);
+        }
+    }
+
+    /**
+     * Lezár egy kapcsolatot, a munkamenete ezzel megszűnik.
+     * @param key a kapcsolat kulcsa
+     */
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Már lezárt kapcsolat
+        }
+        server.sessionClosed();
+    }
+
+    /**
+     * Egy elfogadott, a hurokra váró kapcsolat.
+     * @param channel a kapcsolat
+     * @param seed a munkamenet seedje
+     */
+    private record Registration(SocketChannel channel, long seed) {
+    }
+
+    /**
+     * Egy kliens kapcsolata és a munkamenete.
+     * @param lines a kapcsolat
+     * @param session a munkamenet
+     */
+    private record Connection(LineChannel lines, Session session) {
+    }
+}
@@ -0,0 +1,176 @@
+package graphic.server;
+
+import graphic.model.Game;
+import graphic.simulation.GameTemplate;
+import graphic.simulation.Simulator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Több egyidejű játékmenetet kiszolgáló helyi szerver.
+ * Minden kapcsolat egy saját munkamenetet kap a pálya friss másolatával. A kapcsolatokat néhány eseményhurok
+ * szolgálja ki nem blokkoló socketekkel, így egy szál több száz munkamenetet is elbír.
+ * A szerver csak a loopback címen figyel.
+ * <p>
+ * A protokoll soralapú, minden parancsra egy válaszsor érkezik:
+ * <ul>
+ *     <li>{@code move <ajtó>}, {@code peek <ajtó>}, {@code pickup <tárgy>}, {@code drop <tárgy>},
+ *     {@code activate <tárgy>}, {@code link <tárgy> <tárgy>}, {@code endTurn}: az ActionHandler műveletei
+ *     a soron lévő hallgatóval</li>
+ *     <li>{@code state}: a soron lévő hallgató állapota</li>
+ *     <li>{@code new [seed]}: új játék a pálya friss másolatán</li>
+ *     <li>{@code quit}: a kapcsolat bontása</li>
+ * </ul>
+ * A válasz "OK" és az állapot, "ERR" és a hiba oka, vagy a játék végén "END" és az eredmény.
+ * <p>
+ * Használat: {@code serve <pálya> [-p port] [-t eseményhurkok] [-s seed]}
+ */
+public class GameServer {
+
+    /**
+     * Az alapértelmezett port.
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    /**
+     * A pálya, amelyből a munkamenetek játékai készülnek.
+     */
+    private final GameTemplate template;
+
+    /**
+     * Az eseményhurkok, a kapcsolatokat sorban kapják.
+     */
+    private final EventLoop[] loops;
+
+    /**
+     * A nyitott munkamenetek száma.
+     */
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    /**
+     * A végrehajtott parancsok száma.
+     */
+    private final LongAdder commands = new LongAdder();
+
+    /**
+     * Létrehoz egy szervert.
+     * @param template a pálya, amelyből a munkamenetek játékai készülnek
+     * @param threads az eseményhurkok száma
+     */
+    public GameServer(GameTemplate template, int threads) throws IOException {
+        this.template = template;
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++)
+            loops[i] = new EventLoop(this);
+    }
+
+    /**
+     * A szerver belépési pontja.
+     * @param args a pálya és a kapcsolók
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: serve <map> [-p port] [-t threads] [-s seed]");
+            return;
+        }
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-p" -> port = Integer.parseInt(value);
+                case "-t" -> threads = Integer.parseInt(value);
+                case "-s" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Game game;
+        try {
+            game = Simulator.loadGame(args[0]);
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Could not open file: " + args[0]);
+            return;
+        }
+
+        try {
+            new GameServer(new GameTemplate(game), threads).serve(port, seed);
+        } catch (IOException e) {
+            System.out.println("Server failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Elindítja az eseményhurkokat, majd a leállításig fogadja a kapcsolatokat.
+     * @param port a port, amelyen a szerver figyel
+     * @param seed az alap seed, ebből kapják a munkamenetek a saját seedjüket
+     */
+    public void serve(int port, long seed) throws IOException {
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "logarlec-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+            System.out.println("Listening on " + server.getLocalAddress() + " with " + loops.length + " event loops, seed " + seed);
+            for (int next = 0; ; next = (next + 1) % loops.length) {
+                SocketChannel channel = server.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                sessions.incrementAndGet();
+                loops[next].register(channel, seeds.nextLong());
+            }
+        } finally {
+            for (EventLoop loop : loops)
+                loop.close();
+        }
+    }
+
+    /**
+     * Létrehoz egy munkamenetet a pálya friss másolatával. Az eseményhurkok hívják.
+     * @param seed a munkamenet seedje
+     * @return az új munkamenet
+     */
+    Session newSession(long seed) {
+        return new Session(template, seed);
+    }
+
+    /**
+     * Feljegyez egy végrehajtott parancsot.
+     */
+    void commandExecuted() {
+        commands.increment();
+    }
+
+    /**
+     * Feljegyzi egy munkamenet végét.
+     */
+    void sessionClosed() {
+        sessions.decrementAndGet();
+    }
+
+    /**
+     * @return A nyitott munkamenetek száma.
+     */
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    /**
+     * @return Az indulás óta végrehajtott parancsok száma.
+     */
+    public long getCommandCount() {
+        return commands.sum();
+    }
+}
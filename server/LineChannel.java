@@ -0,0 +1,120 @@
+package graphic.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Egy nem blokkoló socket sorokra tördelt, UTF-8 kódolású olvasása és írása.
+ * A szerver és a terheléses kliens is ezt használja. Nem szálbiztos.
+ */
+final class LineChannel {
+
+    /**
+     * Egy sor legnagyobb hossza bájtban, a bemeneti puffer mérete.
+     */
+    static final int MAX_LINE = 8192;
+
+    /**
+     * A socket.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * A beolvasott, de még fel nem dolgozott bájtok.
+     */
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+
+    /**
+     * A még el nem küldött bájtok, írási módban.
+     */
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+
+    /**
+     * Igaz, ha a puffer kiürülése után a kapcsolatot le kell zárni.
+     */
+    private boolean closing;
+
+    LineChannel(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Beolvassa a socketen elérhető bájtokat, és a teljes sorokat sorban átadja a feldolgozónak.
+     * @param lines a sorok feldolgozója
+     * @return hamis, ha a túloldal lezárta a kapcsolatot
+     * @throws IOException ha az olvasás sikertelen vagy egy sor túl hosszú
+     */
+    boolean read(Consumer<String> lines) throws IOException {
+        if (channel.read(in) < 0)
+            return false;
+        byte[] bytes = in.array();
+        int start = 0;
+        for (int i = 0; i < in.position(); i++) {
+            if (bytes[i] != '\n')
+                continue;
+            int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+            lines.accept(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            start = i + 1;
+        }
+        in.flip().position(start);
+        in.compact();
+        if (!in.hasRemaining())
+            throw new IOException("Line too long");
+        return true;
+    }
+
+    /**
+     * Sorba állít egy sort küldésre, a végére sortörést tesz. A küldést a flush végzi.
+     * @param line a sor
+     */
+    void send(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        if (out.remaining() < bytes.length + 1) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes.length + 1));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+        out.put(bytes).put((byte) '\n');
+    }
+
+    /**
+     * Elküldi a sorba állított bájtokat, amennyit a socket éppen fogad.
+     * @return igaz, ha minden bájt elment
+     * @throws IOException ha az írás sikertelen
+     */
+    boolean flush() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    /**
+     * @return A még el nem küldött bájtok száma.
+     */
+    int pending() {
+        return out.position();
+    }
+
+    /**
+     * Megjelöli a kapcsolatot, hogy a sorba állított válaszok elküldése után lezárható.
+     */
+    void closeAfterFlush() {
+        closing = true;
+    }
+
+    /**
+     * @return Igaz, ha a kapcsolat lezárásra vár.
+     */
+    boolean isClosing() {
+        return closing;
+    }
+}
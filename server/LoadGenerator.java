@@ -0,0 +1,346 @@
+package graphic.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Terheléses kliens a GameServerhez.
+ * Megadott számú kapcsolatot nyit, mindegyiken egy véletlenszerűen játszó hallgatót futtat: a kliens mindig
+ * megvárja az előző parancs válaszát, és a válaszban kapott állapot alapján választja a következőt.
+ * A bemelegítés után méri a parancsok átbocsátását és a válaszidők eloszlását.
+ * <p>
+ * Használat: {@code loadgen [-p port] [-c kliensek] [-d másodperc] [-w bemelegítés] [-s seed] [-t szálak]}
+ */
+public class LoadGenerator {
+
+    /**
+     * A szerver portja.
+     */
+    private int port = GameServer.DEFAULT_PORT;
+
+    /**
+     * A kapcsolatok száma.
+     */
+    private int clients = 100;
+
+    /**
+     * A mérés hossza másodpercben.
+     */
+    private double duration = 10;
+
+    /**
+     * A bemelegítés hossza másodpercben, ennyi ideig nem mér.
+     */
+    private double warmup = 2;
+
+    /**
+     * A kliensek döntéseinek seedje.
+     */
+    private long seed = 42;
+
+    /**
+     * A klienseket kiszolgáló szálak száma.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * A terheléses kliens belépési pontja.
+     * @param args a kapcsolók
+     */
+    public static void main(String[] args) {
+        LoadGenerator generator = new LoadGenerator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-p" -> generator.port = Integer.parseInt(value);
+                case "-c" -> generator.clients = Integer.parseInt(value);
+                case "-d" -> generator.duration = Double.parseDouble(value);
+                case "-w" -> generator.warmup = Double.parseDouble(value);
+                case "-s" -> generator.seed = Long.parseLong(value);
+                case "-t" -> generator.threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        try {
+            System.out.print(generator.run());
+        } catch (IOException e) {
+            System.out.println("Could not connect to port " + generator.port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lefuttatja a terhelést, és összesíti a szálak méréseit.
+     * @return az eredmény szövegesen
+     */
+    public String run() throws IOException {
+        long start = System.nanoTime();
+        long measureFrom = start + (long) (warmup * 1e9);
+        long measureTo = measureFrom + (long) (duration * 1e9);
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int count = clients / threads + (i < clients % threads ? 1 : 0);
+            workers.add(new Worker(count, seeds.split(), measureFrom, measureTo));
+        }
+        List<Thread> running = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            Thread thread = new Thread(workers.get(i), "logarlec-loadgen-" + i);
+            thread.start();
+            running.add(thread);
+        }
+        for (Thread thread : running) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long actions = 0, errors = 0, games = 0;
+        int samples = 0;
+        for (Worker worker : workers) {
+            if (worker.failure != null)
+                throw worker.failure;
+            actions += worker.actions;
+            errors += worker.errors;
+            games += worker.games;
+            samples += worker.samples;
+        }
+        long[] latencies = new long[samples];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.samples);
+            offset += worker.samples;
+        }
+        Arrays.sort(latencies);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Clients: %d on %d threads, measured %.1f s after %.1f s warmup%n", clients, threads, duration, warmup));
+        sb.append(String.format("Actions: %d (%.1f/s), errors: %d, games finished: %d%n", actions, actions / duration, errors, games));
+        sb.append(String.format("Latency p50: %.3f ms, p99: %.3f ms, p99.9: %.3f ms, max: %.3f ms%n",
+                percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6, percentile(latencies, 1) / 1e6));
+        return sb.toString();
+    }
+
+    /**
+     * @param sorted a rendezett minták
+     * @param p a kért arány 0 és 1 között
+     * @return A minták p-edik kvantilise, minták nélkül 0.
+     */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * A kliensek egy csoportját egy selectorral kiszolgáló szál, saját mérésekkel.
+     */
+    private class Worker implements Runnable {
+
+        /**
+         * A szál klienseinek száma.
+         */
+        private final int count;
+
+        /**
+         * A kliensek generátorainak forrása.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * A mérési időszak eleje és vége, System.nanoTime szerint.
+         */
+        private final long measureFrom;
+        private final long measureTo;
+
+        /**
+         * A mérési időszakban kapott válaszok ideje nanoszekundumban.
+         */
+        private long[] latencies = new long[1 << 16];
+        private int samples;
+
+        /**
+         * A mérési időszakban kapott összes, hibás és játékvége válasz száma.
+         */
+        private long actions;
+        private long errors;
+        private long games;
+
+        /**
+         * A szálat leállító hiba, vagy null.
+         */
+        private IOException failure;
+
+        Worker(int count, SplittableRandom random, long measureFrom, long measureTo) {
+            this.count = count;
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+        }
+
+        @Override
+        public void run() {
+            try (Selector selector = Selector.open()) {
+                InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+                for (int i = 0; i < count; i++) {
+                    SocketChannel channel = SocketChannel.open(address);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    channel.configureBlocking(false);
+                    Client client = new Client(new LineChannel(channel), random.split());
+                    channel.register(selector, SelectionKey.OP_READ, client);
+                    client.send("state");
+                    client.lines.flush();
+                }
+
+                while (System.nanoTime() < measureTo) {
+                    selector.select(100);
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable() && !client.lines.read(line -> reply(client, line)))
+                            throw new IOException("Server closed the connection");
+                        key.interestOps(client.lines.flush() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+                for (SelectionKey key : selector.keys())
+                    key.channel().close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Feldolgoz egy választ, feljegyzi a válaszidőt, és elküldi a kliens következő parancsát.
+         * @param client a kliens
+         * @param line a válasz
+         */
+        private void reply(Client client, String line) {
+            long now = System.nanoTime();
+            if (now >= measureFrom && now < measureTo) {
+                if (samples == latencies.length)
+                    latencies = Arrays.copyOf(latencies, samples * 2);
+                latencies[samples++] = now - client.sentAt;
+                actions++;
+                if (line.startsWith("ERR"))
+                    errors++;
+                else if (line.startsWith("END"))
+                    games++;
+            }
+            if (line.startsWith("OK")) {
+                client.parse(line);
+                client.send(client.next());
+            } else if (line.startsWith("END")) {
+                client.send("new");
+            } else {
+                client.send("state");
+            }
+        }
+    }
+
+    /**
+     * Egy kapcsolat és a hozzá tartozó véletlenszerű hallgató.
+     * A döntései a RandomPolicy-t követik: felveszi a tárgyak többségét, néha összekapcsol, aktivál vagy eldob
+     * egyet, majd továbbmegy vagy befejezi a körét.
+     */
+    private static class Client {
+
+        /**
+         * A kapcsolat a szerverrel.
+         */
+        private final LineChannel lines;
+
+        /**
+         * A döntésekhez használt generátor.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Az utolsó parancs elküldésének ideje.
+         */
+        private long sentAt;
+
+        /**
+         * Az utoljára kapott állapot: lépett-e már a hallgató, és a használható ajtók, a szoba tárgyai és a nála lévő tárgyak.
+         */
+        private boolean moved;
+        private String[] exits = new String[0];
+        private String[] items = new String[0];
+        private String[] inventory = new String[0];
+
+        Client(LineChannel lines, SplittableRandom random) {
+            this.lines = lines;
+            this.random = random;
+        }
+
+        /**
+         * Sorba állítja a parancsot, és feljegyzi az idejét.
+         * @param command a parancs
+         */
+        void send(String command) {
+            sentAt = System.nanoTime();
+            lines.send(command);
+        }
+
+        /**
+         * Kiolvassa az állapotot egy "OK" válaszból.
+         * @param line a válasz
+         */
+        void parse(String line) {
+            for (String token : line.split(" ")) {
+                int eq = token.indexOf('=');
+                if (eq < 0)
+                    continue;
+                String value = token.substring(eq + 1);
+                switch (token.substring(0, eq)) {
+                    case "moved" -> moved = value.equals("1");
+                    case "exits" -> exits = list(value);
+                    case "items" -> items = list(value);
+                    case "inventory" -> inventory = list(value);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return A következő parancs az utoljára kapott állapot alapján.
+         */
+        String next() {
+            if (items.length > 0 && random.nextInt(4) != 0)
+                return "pickup " + pick(items);
+            if (inventory.length >= 2 && random.nextInt(8) == 0)
+                return "link " + pick(inventory) + " " + pick(inventory);
+            if (inventory.length > 0 && random.nextInt(4) == 0)
+                return "activate " + pick(inventory);
+            if (inventory.length > 0 && random.nextInt(10) == 0)
+                return "drop " + pick(inventory);
+            if (!moved && exits.length > 0)
+                return (random.nextInt(8) == 0 ? "peek " : "move ") + pick(exits);
+            return "endTurn";
+        }
+
+        private String pick(String[] ids) {
+            return ids[random.nextInt(ids.length)];
+        }
+
+        private static String[] list(String value) {
+            return value.equals("-") ? new String[0] : value.split(",");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package graphic.server;
+
+import graphic.controller.Controller;
+import graphic.model.Game;
+import graphic.model.characters.Entity;
+import graphic.model.characters.Student;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.simulation.GameTemplate;
+import graphic.simulation.HeadlessDisplay;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A szerver egy játékmenete: egy saját játék a hozzá tartozó Controllerrel és headless megjelenítéssel.
+ * A kliens szöveges parancsait az ActionHandler hívásaivá alakítja, és minden parancsra egy sornyi választ ad.
+ * <p>
+ * Nem szálbiztos, egy munkamenetet mindig ugyanaz az eseményhurok kezel.
+ */
+public class Session {
+
+    /**
+     * A pálya, amelyből a munkamenet játékai készülnek.
+     */
+    private final GameTemplate template;
+
+    /**
+     * A következő játékok seedjeinek forrása.
+     */
+    private final SplittableRandom seeds;
+
+    /**
+     * Az éppen futó játék.
+     */
+    private Game game;
+
+    /**
+     * A játékot vezérlő Controller.
+     */
+    private Controller controller;
+
+    /**
+     * A Controller üzeneteit tároló megjelenítés.
+     */
+    private HeadlessDisplay display;
+
+    /**
+     * Létrehoz egy munkamenetet, és elindítja az első játékot.
+     * @param template a pálya, amelyből a játékok készülnek
+     * @param seed a munkamenet seedje, ebből származnak a játékok seedjei
+     */
+    public Session(GameTemplate template, long seed) {
+        this.template = template;
+        this.seeds = new SplittableRandom(seed);
+        start(seeds.nextLong());
+    }
+
+    /**
+     * Új játékot indít a pálya friss másolatán.
+     * @param seed az új játék seedje
+     */
+    private void start(long seed) {
+        game = template.newGame();
+        game.setSeed(seed);
+        display = new HeadlessDisplay();
+        controller = new Controller(game, display);
+        controller.startGame();
+    }
+
+    /**
+     * @return Az éppen futó játék.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Végrehajt egy parancsot.
+     * A sikeres parancsok válasza "OK" és a soron lévő hallgató állapota, a hibásaké "ERR" és a hiba oka,
+     * a befejezett játéké "END" és a játék végén kapott üzenet.
+     * @param line a parancs sora
+     * @return a válasz sora, vagy null, ha a kliens bontja a kapcsolatot
+     */
+    public String execute(String line) {
+        String[] cmd = line.trim().split("\\s+");
+        try {
+            return switch (cmd[0]) {
+                case "quit" -> null;
+                case "new" -> {
+                    start(cmd.length > 1 ? Long.parseLong(cmd[1]) : seeds.nextLong());
+                    yield state("OK seed=" + game.getSeed());
+                }
+                case "state" -> state("OK");
+                case "move", "peek", "pickup", "drop", "activate", "link", "endTurn" -> action(cmd);
+                default -> "ERR Unknown command: " + cmd[0];
+            };
+        } catch (NumberFormatException e) {
+            return "ERR Invalid number: " + e.getMessage();
+        } catch (RuntimeException e) {
+            return "ERR " + e;
+        }
+    }
+
+    /**
+     * Végrehajt egy játékbeli parancsot a soron lévő hallgatóval.
+     * @param cmd a parancs és a paraméterei
+     * @return a válasz sora
+     */
+    private String action(String[] cmd) {
+        if (display.getEndMessage() != null)
+            return "END " + display.getEndMessage();
+        if (!(controller.getActiveCharacter() instanceof Student student))
+            return "ERR No active student";
+        int arity = cmd[0].equals("endTurn") ? 1 : cmd[0].equals("link") ? 3 : 2;
+        if (cmd.length != arity)
+            return "ERR Usage: " + cmd[0] + (arity == 1 ? "" : arity == 2 ? " <id>" : " <id> <id>");
+
+        Room room = student.getRoom();
+        switch (cmd[0]) {
+            case "move", "peek" -> {
+                Door door = game.getDoor(cmd[1]);
+                if (door == null || !room.getDoors().contains(door))
+                    return "ERR No such door here: " + cmd[1];
+                if (cmd[0].equals("move")) {
+                    controller.move(door);
+                } else {
+                    controller.peek(door);
+                    return state("OK") + " peek=" + describe(display.getPeekedRoom());
+                }
+            }
+            case "pickup" -> {
+                Item item = game.getItem(cmd[1]);
+                if (item == null || !room.getItems().contains(item))
+                    return "ERR No such item here: " + cmd[1];
+                controller.pickup(item);
+            }
+            case "drop", "activate" -> {
+                Item item = game.getItem(cmd[1]);
+                if (item == null || !student.getItems().contains(item))
+                    return "ERR No such item in inventory: " + cmd[1];
+                if (cmd[0].equals("drop"))
+                    controller.drop(item);
+                else
+                    controller.activate(item);
+            }
+            case "link" -> {
+                Item item1 = game.getItem(cmd[1]);
+                Item item2 = game.getItem(cmd[2]);
+                if (item1 == null || item2 == null || !student.getItems().contains(item1) || !student.getItems().contains(item2))
+                    return "ERR No such items in inventory: " + cmd[1] + " " + cmd[2];
+                controller.link(item1, item2);
+            }
+            default -> controller.endTurn();
+        }
+        if (display.getEndMessage() != null)
+            return "END " + display.getEndMessage();
+        return state("OK");
+    }
+
+    /**
+     * Leírja a soron lévő hallgató állapotát:
+     * {@code turn=<kör> student=<név> moved=<0|1> room=<szoba> exits=<ajtók> items=<tárgyak> inventory=<tárgyak>}.
+     * Az exits csak azokat az ajtókat sorolja fel, amelyeken a hallgató átmehet. Az üres listák helyén "-" áll.
+     * @param prefix a válasz eleje
+     * @return a válasz sora
+     */
+    private String state(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        sb.append(" turn=").append(game.getTurn());
+        if (!(controller.getActiveCharacter() instanceof Student student))
+            return sb.toString();
+        Room room = student.getRoom();
+        sb.append(" student=").append(student.getID());
+        sb.append(" moved=").append(student.getStudentMoved() ? 1 : 0);
+        sb.append(" room=").append(room.getID());
+        sb.append(" exits=");
+        int length = sb.length();
+        for (Door door : room.getDoors()) {
+            if (door.isClosed() || (door.isOneway() && door.getSecondRoom().equals(room)))
+                continue;
+            if (sb.length() > length)
+                sb.append(',');
+            sb.append(door.getID());
+        }
+        if (sb.length() == length)
+            sb.append('-');
+        appendItems(sb.append(" items="), room.getItems());
+        appendItems(sb.append(" inventory="), student.getItems());
+        return sb.toString();
+    }
+
+    /**
+     * @param room a megtekintett szoba
+     * @return A szoba és a benne lévő entitások, például {@code Room#3:Prof#1,Player2}.
+     */
+    private static String describe(Room room) {
+        if (room == null)
+            return "-";
+        StringBuilder sb = new StringBuilder(room.getID()).append(':');
+        List<Entity> entities = room.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(entities.get(i).getID());
+        }
+        if (entities.isEmpty())
+            sb.append('-');
+        return sb.toString();
+    }
+
+    /**
+     * Vesszővel elválasztva hozzáfűzi a tárgyak azonosítóit, üres lista helyett "-" jelet.
+     * @param sb a válasz
+     * @param items a tárgyak
+     */
+    private static void appendItems(StringBuilder sb, List<Item> items) {
+        if (items.isEmpty()) {
+            sb.append('-');
+            return;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(items.get(i).getID());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package graphic.simulation;
+
+import java.util.Map;
+
+/**
+ * Egy lejátszott játék eredménye.
+ */
+public class GameResult {
+
+    /**
+     * A játék lehetséges kimenetelei.
+     */
+    public enum Outcome {
+        /** A hallgatók megszerezték a Logarlecet. */
+        WON,
+        /** Minden hallgató meghalt. */
+        ALL_STUDENTS_KILLED,
+        /** Elfogytak a körök. */
+        OUT_OF_TURNS
+    }
+
+    /**
+     * A játék seedje, amellyel a játék megismételhető.
+     */
+    private final long seed;
+
+    /**
+     * A játék lejátszásának ideje nanoszekundumban.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * A játék kimenetele.
+     */
+    private final Outcome outcome;
+
+    /**
+     * A játék végén a körök száma.
+     */
+    private final int turns;
+
+    /**
+     * A játék során meghalt hallgatók száma.
+     */
+    private final int studentsKilled;
+
+    /**
+     * A hallgatók halálokai: a gyilkos osztálya és az általa megölt hallgatók száma.
+     */
+    private final Map<String, Integer> deathCauses;
+
+    /**
+     * Létrehoz egy játékeredményt.
+     * @param seed a játék seedje
+     * @param elapsedNanos a játék lejátszásának ideje nanoszekundumban
+     * @param outcome a játék kimenetele
+     * @param turns a játék végén a körök száma
+     * @param studentsKilled a meghalt hallgatók száma
+     * @param deathCauses a halálokok és előfordulásaik
+     */
+    public GameResult(long seed, long elapsedNanos, Outcome outcome, int turns, int studentsKilled, Map<String, Integer> deathCauses) {
+        this.seed = seed;
+        this.elapsedNanos = elapsedNanos;
+        this.outcome = outcome;
+        this.turns = turns;
+        this.studentsKilled = studentsKilled;
+        this.deathCauses = deathCauses;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isWon() {
+        return outcome == Outcome.WON;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getStudentsKilled() {
+        return studentsKilled;
+    }
+
+    public Map<String, Integer> getDeathCauses() {
+        return deathCauses;
+    }
+}
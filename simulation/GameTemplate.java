@@ -0,0 +1,43 @@
+package graphic.simulation;
+
+import graphic.model.Game;
+import graphic.model.util.GameSerializer;
+
+import java.io.*;
+
+/**
+ * Egy egyszer felépített játék állapotát tárolja, amiből tetszőleges számú független másolat készíthető.
+ * Így egy pálya többször is lejátszható anélkül, hogy újra fel kellene építeni.
+ */
+public class GameTemplate {
+
+    /**
+     * A játék bináris mentése.
+     */
+    private final byte[] data;
+
+    /**
+     * Elmenti a megadott játék állapotát.
+     * @param game a lemásolandó játék
+     */
+    public GameTemplate(Game game) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GameSerializer.write(game, bytes);
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return A tárolt állapotból létrehozott új, független játék.
+     */
+    public Game newGame() {
+        try {
+            return GameSerializer.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
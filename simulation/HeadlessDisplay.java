@@ -0,0 +1,59 @@
+package graphic.simulation;
+
+import graphic.controller.ActionHandler;
+import graphic.controller.GameDisplay;
+import graphic.model.characters.Student;
+import graphic.model.places.Room;
+
+/**
+ * Grafikus felület nélküli megjelenítés, amely csak eltárolja a Controller által küldött információkat.
+ * Nem tölt be semmilyen AWT vagy Swing osztályt.
+ */
+public class HeadlessDisplay implements GameDisplay {
+
+    /**
+     * A játék végén kapott üzenet, vagy null, ha még nem ért véget a játék.
+     */
+    private String endMessage;
+
+    /**
+     * Az utoljára megtekintett szoba.
+     */
+    private Room peekedRoom;
+
+    @Override
+    public void registerActionHandler(ActionHandler actionHandler) {
+    }
+
+    @Override
+    public void update(Student student) {
+    }
+
+    @Override
+    public void peek(Room room) {
+        peekedRoom = room;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void displayEndMessage(String text) {
+        endMessage = text;
+    }
+
+    /**
+     * @return A játék végén kapott üzenet, vagy null.
+     */
+    public String getEndMessage() {
+        return endMessage;
+    }
+
+    /**
+     * @return Az utoljára megtekintett szoba.
+     */
+    public Room getPeekedRoom() {
+        return peekedRoom;
+    }
+}
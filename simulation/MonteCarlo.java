@@ -0,0 +1,152 @@
+package graphic.simulation;
+
+import graphic.model.Game;
+import graphic.replay.ActionRecorder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Egy pálya független játékait párhuzamosan, fork-join módon lejátszó futtató.
+ * Minden játék a sablonból készült saját másolatán fut, így a szálak nem osztoznak játékállapoton.
+ * Minden játék a sorszámából és az alap seedből származtatott saját seedet kap, ezért az eredmény
+ * nem függ attól, hogy a játékok melyik szálon futnak.
+ */
+public class MonteCarlo {
+
+    /**
+     * A mért játékok előtt, a statisztikán és az időmérésen kívül lejátszott bemelegítő játékok száma. Nélkülük a
+     * leglassabb játék mindig az egyik első, még értelmezett módban futó játék lenne.
+     */
+    private static final int WARMUP_GAMES = 200;
+
+    /**
+     * A pálya, amelyből a játékok készülnek.
+     */
+    private final GameTemplate template;
+
+    /**
+     * Az alap seed, amelyből a játékok seedjei származnak.
+     */
+    private final long seed;
+
+    /**
+     * Létrehoz egy futtatót a megadott pályához.
+     * @param template a pálya, amelyből a játékok készülnek
+     * @param seed az alap seed, amelyből a játékok seedjei származnak
+     */
+    public MonteCarlo(GameTemplate template, long seed) {
+        this.template = template;
+        this.seed = seed;
+    }
+
+    /**
+     * Lejátssza a megadott számú játékot a megadott számú szálon. Előtte legfeljebb WARMUP_GAMES bemelegítő
+     * játékot játszik a hívó szálon, ezek seedjei nem esnek egybe a mértekével.
+     * @param games a lejátszandó játékok száma
+     * @param parallelism a használt szálak száma
+     * @return az összesített statisztika
+     */
+    public SimulationStats run(int games, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int threshold = Math.max(1, games / (parallelism * 8));
+            for (int i = 0; i < Math.min(games, WARMUP_GAMES); i++)
+                play(-1 - i);
+            long start = System.nanoTime();
+            SimulationStats stats = pool.invoke(new Batch(0, games, threshold));
+            stats.setElapsedNanos(System.nanoTime() - start);
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Lejátssza a megadott sorszámú játékot.
+     * @param index a játék sorszáma
+     * @return a játék eredménye
+     */
+    public GameResult play(int index) {
+        return playSeed(gameSeed(index));
+    }
+
+    /**
+     * Lejátszik egy játékot a megadott seeddel. Egy korábbi eredmény seedjével a játék pontosan megismételhető.
+     * @param gameSeed a játék seedje
+     * @return a játék eredménye
+     */
+    public GameResult playSeed(long gameSeed) {
+        return playSeed(gameSeed, null);
+    }
+
+    /**
+     * Lejátszik egy játékot a megadott seeddel, és felveszi a menetét. A felvétel nem változtat a játék menetén.
+     * @param gameSeed a játék seedje
+     * @param recorder a felvevő, vagy null
+     * @return a játék eredménye
+     */
+    public GameResult playSeed(long gameSeed, ActionRecorder recorder) {
+        Game game = template.newGame();
+        game.setSeed(gameSeed);
+        if (recorder == null)
+            return new Simulation(game, new RandomPolicy(game.splitRandom())).run();
+        recorder.attach(game);
+        return new Simulation(game, new RandomPolicy(recorder.splitUnrecorded(game)), recorder).run();
+    }
+
+    /**
+     * @param index a játék sorszáma
+     * @return A megadott sorszámú játék seedje.
+     */
+    public long gameSeed(int index) {
+        return new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    /**
+     * A játékok egy egybefüggő tartományát lejátszó feladat. Ha a tartomány túl nagy, kettéosztja.
+     */
+    private class Batch extends RecursiveTask<SimulationStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Az első lejátszandó játék sorszáma.
+         */
+        private final int from;
+
+        /**
+         * Az utolsó utáni játék sorszáma.
+         */
+        private final int to;
+
+        /**
+         * Ennél nem nagyobb tartományt már nem oszt tovább a feladat.
+         */
+        private final int threshold;
+
+        Batch(int from, int to, int threshold) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= threshold) {
+                SimulationStats stats = new SimulationStats();
+                for (int i = from; i < to; i++)
+                    stats.add(play(i));
+                return stats;
+            }
+
+            int middle = (from + to) >>> 1;
+            Batch left = new Batch(from, middle, threshold);
+            left.fork();
+            SimulationStats stats = new Batch(middle, to, threshold).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+}
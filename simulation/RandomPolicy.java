@@ -0,0 +1,61 @@
+package graphic.simulation;
+
+import graphic.controller.ActionHandler;
+import graphic.model.Game;
+import graphic.model.characters.Student;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.model.util.GameRandom;
+
+import java.util.ArrayList;
+
+/**
+ * Véletlenszerűen játszó hallgató: felveszi a tárgyakat, néha aktivál, összekapcsol vagy eldob egyet,
+ * majd egy véletlenszerű, átjárható ajtón keresztül továbbmegy.
+ */
+public class RandomPolicy implements StudentPolicy {
+
+    /**
+     * A döntésekhez használt véletlenszám generátor.
+     */
+    private final GameRandom random;
+
+    /**
+     * Létrehoz egy véletlenszerű stratégiát a megadott generátorral.
+     * @param random a döntésekhez használt generátor, jellemzően a játékból leválasztva
+     */
+    public RandomPolicy(GameRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void play(Student student, Game game, ActionHandler actions) {
+        Room room = student.getRoom();
+
+        for (Item item : new ArrayList<>(room.getItems())) {
+            if (random.nextInt(4) != 0)
+                actions.pickup(item);
+        }
+
+        ArrayList<Item> items = student.getItems();
+        if (items.size() >= 2 && random.nextInt(8) == 0) {
+            actions.link(items.get(random.nextInt(items.size())), items.get(random.nextInt(items.size())));
+        }
+        if (!items.isEmpty() && random.nextInt(4) == 0) {
+            actions.activate(items.get(random.nextInt(items.size())));
+        }
+        if (!items.isEmpty() && random.nextInt(10) == 0) {
+            actions.drop(items.get(random.nextInt(items.size())));
+        }
+
+        ArrayList<Door> doors = new ArrayList<>();
+        for (Door door : student.getRoom().getDoors()) {
+            if (door.isClosed() || (door.isOneway() && door.getSecondRoom().equals(student.getRoom()))) continue;
+            doors.add(door);
+        }
+        if (!doors.isEmpty()) {
+            actions.move(doors.get(random.nextInt(doors.size())));
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package graphic.simulation;
+
+import graphic.controller.Controller;
+import graphic.model.Game;
+import graphic.model.characters.Entity;
+import graphic.model.characters.Student;
+import graphic.model.items.Item;
+import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.model.util.MapBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A MapBuilder parancsnyelvét játékbeli parancsokkal bővítő futtató. A pálya felépítése után a játék
+ * grafikus felület nélkül, a Controlleren keresztül játszható le, és az állapota ellenőrizhető,
+ * így a regressziós és teljesítménytesztek szövegfájlként írhatók meg.
+ * <p>
+ * A játékparancsok a soron lévő hallgatóval hajtódnak végre, az első indítja el a játékot:
+ * <ul>
+ *     <li>{@code move <ajtó>}, {@code peek <ajtó>}: az ajtónak a hallgató szobájában kell lennie</li>
+ *     <li>{@code pickup <tárgy>}: a tárgynak a hallgató szobájában kell lennie</li>
+ *     <li>{@code drop <tárgy>}, {@code activate <tárgy>}, {@code link <tárgy> <tárgy>}: a tárgyaknak a hallgatónál kell lenniük</li>
+ *     <li>{@code endTurn [db]}: befejezi a kört, az NPC-k és a Game.tick is lefutnak</li>
+ *     <li>{@code assert [not] <feltétel>}: ellenőrzi a játék állapotát, lásd a check metódust</li>
+ * </ul>
+ * A {@code seed <n>} pályaépítő parancs a játék seedjét állítja, alapértelmezetten 0, így a szkriptek determinisztikusak.
+ * <p>
+ * Használat: {@code script <fájl> [-n futások] [-s seed]}. A pályát egyszer építi fel, a játékparancsokat
+ * a pálya friss másolatain futtatja le a megadott számú alkalommal. A hibákat csak az első futásból írja ki.
+ */
+public class ScriptRunner extends MapBuilder {
+
+    /**
+     * A játékparancsok, az első ilyen sor előtti rész a pálya felépítése.
+     */
+    private static final Set<String> PLAY_COMMANDS = Set.of(
+            "move", "peek", "pickup", "drop", "activate", "link", "endTurn", "assert");
+
+    /**
+     * A játékot vezérlő Controller, vagy null, ha a játék még nem indult el.
+     */
+    private Controller controller;
+
+    /**
+     * A Controller üzeneteit tároló megjelenítés.
+     */
+    private HeadlessDisplay display;
+
+    /**
+     * A játék, amelyet a Controller vezérel. Ha a load parancs lecseréli a játékot, új Controller indul.
+     */
+    private Game controlled;
+
+    /**
+     * Az eddig jelzett hibák és sikertelen ellenőrzések száma.
+     */
+    private int errors;
+
+    /**
+     * Igaz, ha a hibák nem íródnak ki, csak számolódnak.
+     */
+    private boolean quiet;
+
+    /**
+     * Létrehoz egy futtatót egy üres, 0 seedű játékkal.
+     */
+    public ScriptRunner() {
+        getGame().setSeed(0);
+    }
+
+    /**
+     * A futtató belépési pontja.
+     * @param args a szkript és a kapcsolók
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: script <file> [-n runs] [-s seed]");
+            return;
+        }
+        int runs = 1;
+        Long seed = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-n" -> runs = Integer.parseInt(value);
+                case "-s" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        File file = new File(args[0]);
+        if (!file.exists())
+            file = new File("maps" + File.separator + args[0]);
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file.toPath());
+        } catch (IOException e) {
+            System.out.println("Could not open file: " + args[0]);
+            return;
+        }
+
+        int setup = 0;
+        while (setup < lines.size() && !isPlayCommand(lines.get(setup)))
+            setup++;
+        ScriptRunner runner = new ScriptRunner();
+        for (int i = 0; i < setup; i++)
+            runner.execute(i + 1, lines.get(i));
+        GameTemplate template = new GameTemplate(runner.getGame());
+
+        int failedRuns = 0;
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            int before = runner.errors;
+            Game game = template.newGame();
+            if (seed != null)
+                game.setSeed(seed);
+            runner.setGame(game);
+            for (int i = setup; i < lines.size(); i++)
+                runner.execute(i + 1, lines.get(i));
+            if (runner.errors > before)
+                failedRuns++;
+            runner.quiet = true;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Runs: " + runs + ", failed: " + failedRuns + ", errors: " + runner.errors);
+        System.out.println(String.format("Elapsed: %.3f ms, %.1f runs/s, %.0f commands/s", elapsed / 1e6,
+                runs / (elapsed / 1e9), (double) runs * (lines.size() - setup) / (elapsed / 1e9)));
+    }
+
+    /**
+     * @param line egy parancssor
+     * @return Igaz, ha a sor játékparancs.
+     */
+    private static boolean isPlayCommand(String line) {
+        String trimmed = line.trim();
+        int space = trimmed.indexOf(' ');
+        return PLAY_COMMANDS.contains(space < 0 ? trimmed : trimmed.substring(0, space));
+    }
+
+    /**
+     * @return Az eddig jelzett hibák és sikertelen ellenőrzések száma.
+     */
+    public int getErrorCount() {
+        return errors;
+    }
+
+    @Override
+    protected void error(String message) {
+        errors++;
+        if (!quiet)
+            super.error(message);
+    }
+
+    @Override
+    public void setGame(Game game) {
+        super.setGame(game);
+        controller = null;
+    }
+
+    @Override
+    protected boolean command(String[] cmd) {
+        switch (cmd[0]) {
+            case "seed" -> {
+                if (!checkArgs(cmd, 2)) return true;
+                if (controller != null) {
+                    error("seed must precede the first play command");
+                    return true;
+                }
+                getGame().setSeed(Long.parseLong(cmd[1]));
+            }
+            case "move", "peek", "pickup", "drop", "activate", "link", "endTurn" -> play(cmd);
+            case "assert" -> {
+                if (!checkArgs(cmd, 2)) return true;
+                boolean negated = cmd[1].equals("not");
+                if (negated && !checkArgs(cmd, 3)) return true;
+                Boolean result = check(cmd, negated ? 2 : 1);
+                if (result != null && result == negated)
+                    error("Assertion failed: " + String.join(" ", cmd));
+            }
+            default -> {
+                return super.command(cmd);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Elindítja a játékot, ha még nem fut, vagy ha a load parancs lecserélte.
+     */
+    private void ensureStarted() {
+        if (controller != null && controlled == getGame())
+            return;
+        controlled = getGame();
+        display = new HeadlessDisplay();
+        controller = new Controller(controlled, display);
+        controller.startGame();
+    }
+
+    /**
+     * Végrehajt egy játékparancsot a soron lévő hallgatóval.
+     * @param cmd a parancs és az argumentumai
+     */
+    private void play(String[] cmd) {
+        ensureStarted();
+        if (display.getEndMessage() != null) {
+            error("Game has ended: " + display.getEndMessage());
+            return;
+        }
+        if (cmd[0].equals("endTurn")) {
+            int count = cmd.length > 1 ? Integer.parseInt(cmd[1]) : 1;
+            for (int i = 0; i < count && display.getEndMessage() == null; i++)
+                controller.endTurn();
+            return;
+        }
+        if (!(controller.getActiveCharacter() instanceof Student student)) {
+            error("No active student");
+            return;
+        }
+        if (!checkArgs(cmd, cmd[0].equals("link") ? 3 : 2)) return;
+
+        Room room = student.getRoom();
+        switch (cmd[0]) {
+            case "move", "peek" -> {
+                Door door = getGame().getDoor(cmd[1]);
+                if (door == null || !room.getDoors().contains(door)) {
+                    error("No such door in " + room.getID() + ": " + cmd[1]);
+                    return;
+                }
+                if (cmd[0].equals("move"))
+                    controller.move(door);
+                else
+                    controller.peek(door);
+            }
+            case "pickup" -> {
+                Item item = getGame().getItem(cmd[1]);
+                if (item == null || !room.getItems().contains(item)) {
+                    error("No such item in " + room.getID() + ": " + cmd[1]);
+                    return;
+                }
+                controller.pickup(item);
+            }
+            case "drop", "activate" -> {
+                Item item = findHeld(student, cmd[1]);
+                if (item == null) return;
+                if (cmd[0].equals("drop"))
+                    controller.drop(item);
+                else
+                    controller.activate(item);
+            }
+            default -> {
+                Item item1 = findHeld(student, cmd[1]);
+                Item item2 = findHeld(student, cmd[2]);
+                if (item1 == null || item2 == null) return;
+                controller.link(item1, item2);
+            }
+        }
+    }
+
+    /**
+     * Megkeresi a hallgatónál lévő tárgyat az azonosítója alapján.
+     * @param student a hallgató
+     * @param id a tárgy azonosítója
+     * @return a tárgy, vagy null, ha nincs a hallgatónál
+     */
+    private Item findHeld(Student student, String id) {
+        Item item = getGame().getItem(id);
+        if (item == null || !student.getItems().contains(item)) {
+            error(student.getID() + " does not hold " + id);
+            return null;
+        }
+        return item;
+    }
+
+    /**
+     * Kiértékel egy feltételt. A feltételek:
+     * {@code turn <n>}, {@code rooms <n>}, {@code status <ongoing|won|lost>}, {@code active <hallgató>},
+     * {@code room <entitás> <szoba>}, {@code holds <entitás> <tárgy>}, {@code contains <szoba> <tárgy|entitás>},
+     * {@code killed|stunned|drunk <entitás>}, {@code toxic|wet|cursed|sticky <szoba>}, {@code capacity <szoba> <n>}.
+     * @param cmd az assert parancs argumentumai
+     * @param from a feltétel nevének indexe
+     * @return a feltétel értéke, vagy null, ha a feltétel hibás
+     */
+    private Boolean check(String[] cmd, int from) {
+        String what = cmd[from];
+        int arity = switch (what) {
+            case "turn", "rooms", "status", "active", "killed", "stunned", "drunk", "toxic", "wet", "cursed", "sticky" -> 1;
+            case "room", "holds", "contains", "capacity" -> 2;
+            default -> -1;
+        };
+        if (arity < 0) {
+            error("Unknown assertion: " + what);
+            return null;
+        }
+        if (!checkArgs(cmd, from + 1 + arity)) return null;
+        String arg = cmd[from + 1];
+        Game game = getGame();
+
+        return switch (what) {
+            case "turn" -> game.getTurn() == Integer.parseInt(arg);
+            case "rooms" -> game.getRooms().size() == Integer.parseInt(arg);
+            case "status" -> game.getReadableStatus().equals(arg);
+            case "active" -> {
+                ensureStarted();
+                yield controller.getActiveCharacter() != null && controller.getActiveCharacter().getID().equals(arg);
+            }
+            case "room", "holds", "killed", "stunned", "drunk" -> {
+                Entity entity = game.getEntity(arg);
+                if (entity == null) {
+                    error("Unknown entity: " + arg);
+                    yield null;
+                }
+                yield switch (what) {
+                    case "room" -> entity.getRoom() != null && entity.getRoom().getID().equals(cmd[from + 2]);
+                    case "holds" -> {
+                        Item item = game.getItem(cmd[from + 2]);
+                        yield item != null && entity.getItems().contains(item);
+                    }
+                    case "killed" -> entity.isKilled();
+                    case "stunned" -> entity.isStunned();
+                    default -> entity instanceof Student student && student.isDrunk();
+                };
+            }
+            default -> {
+                Room room = findRoom(arg);
+                if (room == null)
+                    yield null;
+                yield switch (what) {
+                    case "contains" -> {
+                        Item item = game.getItem(cmd[from + 2]);
+                        Entity entity = game.getEntity(cmd[from + 2]);
+                        yield (item != null && room.getItems().contains(item))
+                                || (entity != null && room.getEntities().contains(entity));
+                    }
+                    case "capacity" -> room.getCapacity() == Integer.parseInt(cmd[from + 2]);
+                    case "toxic" -> room.getToxic();
+                    case "wet" -> room.getWet();
+                    case "cursed" -> room.getCursed();
+                    default -> room.getSticky();
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package graphic.simulation;
+
+import graphic.controller.ActionHandler;
+import graphic.model.Game;
+import graphic.model.characters.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Előre megírt lépéseket játszó hallgató. Minden körben a soron következő lépést hajtja végre,
+ * a lépések elfogyása után pedig csak befejezi a kört.
+ */
+public class ScriptedPolicy implements StudentPolicy {
+
+    /**
+     * A körönként végrehajtandó lépések.
+     */
+    private final List<StudentPolicy> steps;
+
+    /**
+     * A következő végrehajtandó lépés sorszáma.
+     */
+    private int next = 0;
+
+    /**
+     * Létrehoz egy szkriptelt stratégiát a megadott lépésekből.
+     * @param steps a körönként végrehajtandó lépések
+     */
+    public ScriptedPolicy(List<StudentPolicy> steps) {
+        this.steps = new ArrayList<>(steps);
+    }
+
+    @Override
+    public void play(Student student, Game game, ActionHandler actions) {
+        if (next >= steps.size()) return;
+        steps.get(next++).play(student, game, actions);
+    }
+}
@@ -0,0 +1,103 @@
+package graphic.simulation;
+
+import graphic.controller.ActionHandler;
+import graphic.controller.Controller;
+import graphic.model.Game;
+import graphic.model.characters.Entity;
+import graphic.model.characters.Student;
+import graphic.replay.ActionRecorder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Egyetlen játékot játszik le grafikus felület nélkül a Controller segítségével.
+ * A hallgatók köreit a megadott stratégia játssza le, az NPC-ket és a Game.tick-et a Controller kezeli.
+ */
+public class Simulation {
+
+    /**
+     * A lejátszandó játék.
+     */
+    private final Game game;
+
+    /**
+     * A hallgatók lépéseit meghatározó stratégia.
+     */
+    private final StudentPolicy policy;
+
+    /**
+     * A játék menetének felvevője, vagy null.
+     */
+    private final ActionRecorder recorder;
+
+    /**
+     * Létrehoz egy szimulációt.
+     * @param game a lejátszandó játék
+     * @param policy a hallgatók lépéseit meghatározó stratégia
+     */
+    public Simulation(Game game, StudentPolicy policy) {
+        this(game, policy, null);
+    }
+
+    /**
+     * Létrehoz egy felvett szimulációt.
+     * @param game a lejátszandó játék, amelyhez a felvevő már csatolva van
+     * @param policy a hallgatók lépéseit meghatározó stratégia
+     * @param recorder a játék menetének felvevője, vagy null
+     */
+    public Simulation(Game game, StudentPolicy policy, ActionRecorder recorder) {
+        this.game = game;
+        this.policy = policy;
+        this.recorder = recorder;
+    }
+
+    /**
+     * Végigjátssza a játékot, amíg az véget nem ér.
+     * @return a játék eredménye
+     */
+    public GameResult run() {
+        long start = System.nanoTime();
+        HeadlessDisplay display = new HeadlessDisplay();
+        Controller controller = new Controller(game, display);
+        ActionHandler actions = recorder != null ? recorder.wrap(controller) : controller;
+        controller.startGame();
+
+        while (!game.gameEnded()) {
+            if (controller.getActiveCharacter() instanceof Student student && !student.isKilled())
+                policy.play(student, game, actions);
+            actions.endTurn();
+        }
+
+        return result(System.nanoTime() - start);
+    }
+
+    /**
+     * @param elapsedNanos a játék lejátszásának ideje nanoszekundumban
+     * @return A befejezett játék eredménye.
+     */
+    private GameResult result(long elapsedNanos) {
+        int killed = 0;
+        int students = 0;
+        Map<String, Integer> deathCauses = new HashMap<>();
+        for (Entity e : game.getEntities()) {
+            if (e instanceof Student student) {
+                students++;
+                if (student.isKilled()) {
+                    killed++;
+                    deathCauses.merge(student.getKilledBy(), 1, Integer::sum);
+                }
+            }
+        }
+
+        GameResult.Outcome outcome;
+        if (game.isGameWon())
+            outcome = GameResult.Outcome.WON;
+        else if (killed == students)
+            outcome = GameResult.Outcome.ALL_STUDENTS_KILLED;
+        else
+            outcome = GameResult.Outcome.OUT_OF_TURNS;
+
+        return new GameResult(game.getSeed(), elapsedNanos, outcome, game.getTurn(), killed, deathCauses);
+    }
+}
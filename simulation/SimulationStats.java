@@ -0,0 +1,168 @@
+package graphic.simulation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Több lejátszott játék eredményeit összesítő statisztika.
+ */
+public class SimulationStats {
+
+    /**
+     * A lejátszott játékok száma.
+     */
+    private int games;
+
+    /**
+     * A kimenetelek előfordulásainak száma.
+     */
+    private final Map<GameResult.Outcome, Integer> outcomes = new EnumMap<>(GameResult.Outcome.class);
+
+    /**
+     * A megnyert játékok köreinek összege.
+     */
+    private long turnsToWin;
+
+    /**
+     * Az összes játékban meghalt hallgatók száma.
+     */
+    private long studentsKilled;
+
+    /**
+     * A halálokok előfordulásainak száma az összes játékban.
+     */
+    private final Map<String, Integer> deathCauses = new TreeMap<>();
+
+    /**
+     * A leglassabban lejátszott játék eredménye, vagy null, ha még nem volt játék.
+     */
+    private GameResult slowest;
+
+    /**
+     * A játékok lejátszására fordított idő nanoszekundumban.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Hozzáad egy játékeredményt a statisztikához.
+     * @param result a hozzáadandó eredmény
+     */
+    public void add(GameResult result) {
+        games++;
+        outcomes.merge(result.getOutcome(), 1, Integer::sum);
+        if (result.isWon())
+            turnsToWin += result.getTurns();
+        studentsKilled += result.getStudentsKilled();
+        result.getDeathCauses().forEach((cause, count) -> deathCauses.merge(cause, count, Integer::sum));
+        if (slowest == null || result.getElapsedNanos() > slowest.getElapsedNanos())
+            slowest = result;
+    }
+
+    /**
+     * Hozzáadja a paraméterként kapott statisztika eredményeit ehhez a statisztikához.
+     * Az eltelt időt nem adja össze, mert a párhuzamosan futó részek ideje átfedi egymást.
+     * @param other a hozzáadandó statisztika
+     */
+    public void merge(SimulationStats other) {
+        games += other.games;
+        other.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Integer::sum));
+        turnsToWin += other.turnsToWin;
+        studentsKilled += other.studentsKilled;
+        other.deathCauses.forEach((cause, count) -> deathCauses.merge(cause, count, Integer::sum));
+        if (slowest == null || (other.slowest != null && other.slowest.getElapsedNanos() > slowest.getElapsedNanos()))
+            slowest = other.slowest;
+    }
+
+    /**
+     * Beállítja a játékok lejátszására fordított időt.
+     * @param elapsedNanos az eltelt idő nanoszekundumban
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @param outcome a keresett kimenetel
+     * @return Hány játék végződött a megadott módon.
+     */
+    public int getCount(GameResult.Outcome outcome) {
+        return outcomes.getOrDefault(outcome, 0);
+    }
+
+    public int getWins() {
+        return getCount(GameResult.Outcome.WON);
+    }
+
+    public int getLosses() {
+        return games - getWins();
+    }
+
+    /**
+     * @return A megnyert játékok aránya.
+     */
+    public double getWinRatio() {
+        return games == 0 ? 0 : (double) getWins() / games;
+    }
+
+    /**
+     * @return A megnyert játékok átlagos körszáma.
+     */
+    public double getAverageTurnsToWin() {
+        return getWins() == 0 ? 0 : (double) turnsToWin / getWins();
+    }
+
+    public long getStudentsKilled() {
+        return studentsKilled;
+    }
+
+    public Map<String, Integer> getDeathCauses() {
+        return deathCauses;
+    }
+
+    /**
+     * @return A leglassabban lejátszott játék eredménye, amelynek seedjével a játék megismételhető.
+     */
+    public GameResult getSlowest() {
+        return slowest;
+    }
+
+    /**
+     * @return A másodpercenként lejátszott játékok száma.
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * @return Visszatér a statisztika olvasható formájával.
+     */
+    public String getinfo() {
+        StringBuilder builder = new StringBuilder();
+        String newLine = System.lineSeparator();
+
+        builder.append("Games: ").append(games).append(newLine);
+        builder.append("Won: ").append(getWins()).append(newLine);
+        builder.append("Lost: ").append(getLosses()).append(newLine);
+        for (GameResult.Outcome outcome : GameResult.Outcome.values()) {
+            if (outcome == GameResult.Outcome.WON) continue;
+            builder.append("\t").append(outcome).append(": ").append(getCount(outcome)).append(newLine);
+        }
+        builder.append(String.format("Win ratio: %.4f", getWinRatio())).append(newLine);
+        builder.append(String.format("Average turns to win: %.2f", getAverageTurnsToWin())).append(newLine);
+        builder.append("Students killed: ").append(studentsKilled).append(newLine);
+        for (Map.Entry<String, Integer> cause : deathCauses.entrySet()) {
+            builder.append("\tby ").append(cause.getKey()).append(": ").append(cause.getValue()).append(newLine);
+        }
+        if (slowest != null)
+            builder.append(String.format("Slowest game after warmup: seed %d (%.3f ms)", slowest.getSeed(), slowest.getElapsedNanos() / 1e6)).append(newLine);
+        builder.append(String.format("Elapsed: %.3f s", elapsedNanos / 1e9)).append(newLine);
+        builder.append(String.format("Games/second: %.1f", getGamesPerSecond())).append(newLine);
+
+        return builder.toString();
+    }
+}
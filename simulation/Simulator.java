@@ -0,0 +1,94 @@
+package graphic.simulation;
+
+import graphic.metrics.Metrics;
+import graphic.model.Game;
+import graphic.model.util.GameSerializer;
+import graphic.model.util.MapBuilder;
+import graphic.replay.ActionRecorder;
+
+import java.io.*;
+
+/**
+ * A headless szimuláció belépési pontja. Betölt egy pályát, majd megadott számú játékot
+ * játszik le rajta véletlenszerű hallgatókkal, végül kiírja az eredményeket.
+ * <p>
+ * A játékok alapértelmezetten az összes processzormagon párhuzamosan futnak.
+ * <p>
+ * Egy korábbi játék a seedjével megismételhető, ilyenkor csak az az egy játék fut le,
+ * és a -Dlogarlec.record=&lt;fájl&gt; kapcsolóval a menete fel is vehető.
+ * <p>
+ * Használat: {@code simulate <pálya> [játékok száma] [seed] [szálak száma]}
+ * vagy {@code simulate <pálya> --seed <játék seedje>}
+ */
+public class Simulator {
+
+    /**
+     * A szimuláció belépési pontja.
+     * @param args a pálya, a játékok száma, a seed és a szálak száma
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: simulate <map> [games] [seed] [threads] | simulate <map> --seed <game seed>");
+            return;
+        }
+        boolean single = args.length > 2 && args[1].equals("--seed");
+        int games = args.length > 1 && !single ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Game game;
+        try {
+            game = loadGame(args[0]);
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Could not open file: " + args[0]);
+            return;
+        }
+
+        MonteCarlo monteCarlo = new MonteCarlo(new GameTemplate(game), seed);
+        if (single) {
+            GameResult result;
+            String record = System.getProperty("logarlec.record");
+            if (record != null) {
+                try (ActionRecorder recorder = ActionRecorder.open(new File(record))) {
+                    result = monteCarlo.playSeed(seed, recorder);
+                } catch (IOException e) {
+                    System.out.println("Could not write file: " + record);
+                    return;
+                }
+                System.out.println("Recorded: " + record);
+            } else {
+                result = monteCarlo.playSeed(seed);
+            }
+            System.out.println("Outcome: " + result.getOutcome());
+            System.out.println("Turns: " + result.getTurns());
+            System.out.println(String.format("Elapsed: %.3f ms", result.getElapsedNanos() / 1e6));
+            if (Metrics.ENABLED)
+                Metrics.dump(System.out);
+            return;
+        }
+
+        SimulationStats stats = monteCarlo.run(games, threads);
+        System.out.print(stats.getinfo());
+        if (Metrics.ENABLED)
+            Metrics.dump(System.out);
+    }
+
+    /**
+     * Betölt egy játékot. A ".data" végű fájlokat mentésként, a többit pályaleíró parancsokként olvassa be.
+     * Ha a fájl nem létezik, a maps mappában is keresi.
+     * @param path a fájl elérési útja
+     * @return a betöltött játék
+     */
+    public static Game loadGame(String path) throws IOException, ClassNotFoundException {
+        File file = new File(path);
+        if (!file.exists())
+            file = new File("maps" + File.separator + path);
+
+        if (file.getName().endsWith(".data"))
+            return GameSerializer.load(file);
+
+        MapBuilder builder = new MapBuilder();
+        builder.setSaveEnabled(false);
+        return builder.build(file);
+    }
+}
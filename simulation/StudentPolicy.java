@@ -0,0 +1,20 @@
+package graphic.simulation;
+
+import graphic.controller.ActionHandler;
+import graphic.model.Game;
+import graphic.model.characters.Student;
+
+/**
+ * A StudentPolicy interfész egy hallgató körének automatikus lejátszását írja le.
+ * Az implementációk kizárólag az ActionHandler műveletein keresztül léphetnek.
+ */
+public interface StudentPolicy {
+
+    /**
+     * Lejátssza a hallgató körét. A kört nem kell befejeznie, azt a szimuláció teszi meg.
+     * @param student a soron lévő hallgató
+     * @param game a játék, amelyben a hallgató van
+     * @param actions a végrehajtható műveletek
+     */
+    void play(Student student, Game game, ActionHandler actions);
+}
@@ -0,0 +1,286 @@
+package graphic.view;
+
+import graphic.model.common.Notifications;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A View ablakra rajzolt, F3-mal ki- és bekapcsolható teljesítménymérő overlay. Megjeleníti a szoba- és
+ * hallgatópanelek frissítési idejét, a kattintástól az általa kért kirajzolásig eltelt időt az EDT-n, az egy
+ * kattintásra jutó megfigyelő-értesítéseket, a heap foglaltságát és a GC szüneteket.
+ * <p>
+ * Az overlay az ablak glass pane-je, egérfigyelő nélkül, így a kattintásokat nem fogja el. A méréseket csak
+ * látható állapotban gyűjti, a panelek frissítési idejét mindig. A -Dlogarlec.overlay=true kapcsolóval
+ * bekapcsolva indul.
+ */
+public class PerfOverlay extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A szoba- és hallgatópanelek update(List) hívásainak ideje nanoszekundumban.
+     */
+    public static final Samples ROOM_PANEL_UPDATES = new Samples();
+    public static final Samples STUDENT_PANEL_UPDATES = new Samples();
+
+    /**
+     * A kiírt értékek frissítési ideje ezredmásodpercben.
+     */
+    private static final int REFRESH_MILLIS = 500;
+
+    /**
+     * A kattintástól a következő kirajzolásig eltelt idő nanoszekundumban.
+     */
+    private final Samples clickLatency = new Samples();
+
+    /**
+     * Az egy kattintás és a következő kirajzolás között kézbesített értesítések száma.
+     */
+    private final Samples notificationsPerClick = new Samples();
+
+    /**
+     * A legutóbbi, még ki nem rajzolt kattintás ideje és az akkori értesítésszám, vagy 0, ha nincs ilyen.
+     */
+    private long clickStart;
+    private long clickDelivered;
+
+    /**
+     * Igaz, ha a legutóbbi kattintás kezelése lefutott, a következő kirajzolás már az eredményét mutatja.
+     */
+    private boolean clickHandled;
+
+    /**
+     * Az újrarajzolási kéréseket számláló RepaintManager, és a számlálója a legutóbbi kattintáskor.
+     */
+    private final RepaintCounter repaints = new RepaintCounter(this);
+    private long clickRepaints;
+
+    /**
+     * A GC-k száma és összes ideje az előző frissítéskor, valamint a két frissítés közötti különbségük.
+     */
+    private long gcCount, gcMillis, gcCountDelta, gcMillisDelta;
+
+    /**
+     * A kiírt értékeket frissítő időzítő, csak látható állapotban fut.
+     */
+    private final Timer refresh = new Timer(REFRESH_MILLIS, e -> {
+        sampleGc();
+        repaint();
+    });
+
+    /**
+     * A kattintásokat figyelő AWT figyelő.
+     */
+    private final AWTEventListener clicks = event -> {
+        // A gombok a felengedéskor, a címkék a rá következő kattintáskor reagálnak, a mérés a felengedéskor indul
+        if (event.getID() != MouseEvent.MOUSE_RELEASED)
+            return;
+        MouseEvent click = (MouseEvent) event;
+        // A sorban töltött időt a kattintás időbélyege alapján adja hozzá
+        long queued = Math.max(0, System.currentTimeMillis() - click.getWhen());
+        clickStart = System.nanoTime() - queued * 1_000_000;
+        clickDelivered = Notifications.getDeliveredCount();
+        clickRepaints = repaints.requests.sum();
+        clickHandled = false;
+        // A figyelő a felengedés kezelése előtt fut, ez a feladat a felengedés és a kattintás kezelése után,
+        // de a közben kért újrarajzolás előtt. Ha a kattintás semmit sem rajzoltatott újra, a következő
+        // kirajzolást az időzítő kéri, a mérés eldobandó.
+        SwingUtilities.invokeLater(() -> {
+            if (repaints.requests.sum() == clickRepaints)
+                clickStart = 0;
+            else
+                clickHandled = true;
+        });
+    };
+
+    /**
+     * Létrehozza az overlayt, és a glass pane-jeként a megadott ablakra telepíti. Az F3 billentyű kapcsolja.
+     * @param frame az ablak
+     */
+    public static void install(JFrame frame) {
+        PerfOverlay overlay = new PerfOverlay();
+        RepaintManager.setCurrentManager(overlay.repaints);
+        frame.setGlassPane(overlay);
+        JRootPane root = frame.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "perfOverlay");
+        root.getActionMap().put("perfOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                overlay.setVisible(!overlay.isVisible());
+            }
+        });
+        overlay.setVisible(Boolean.getBoolean("logarlec.overlay"));
+    }
+
+    private PerfOverlay() {
+        setOpaque(false);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+    }
+
+    /**
+     * Láthatóvá tételkor elindítja a mérést, elrejtéskor leállítja.
+     * @param visible az új láthatóság
+     */
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+        if (visible) {
+            sampleGc();
+            gcCountDelta = gcMillisDelta = 0;
+            Toolkit.getDefaultToolkit().addAWTEventListener(clicks, AWTEvent.MOUSE_EVENT_MASK);
+            refresh.start();
+        } else {
+            Toolkit.getDefaultToolkit().removeAWTEventListener(clicks);
+            refresh.stop();
+            clickStart = 0;
+        }
+    }
+
+    /**
+     * Kirajzolja a mért értékeket. A glass pane minden, alatta lévő komponens kirajzolása után rajzolódik,
+     * így itt zárul le egy kattintás mérése.
+     * @param g a rajzolási környezet
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (clickStart != 0 && clickHandled) {
+            clickLatency.record(System.nanoTime() - clickStart);
+            notificationsPerClick.record(Notifications.getDeliveredCount() - clickDelivered);
+            clickStart = 0;
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        List<String> lines = List.of(
+                ROOM_PANEL_UPDATES.format("Room panel update", true),
+                STUDENT_PANEL_UPDATES.format("Student panel update", true),
+                clickLatency.format("Click to repaint", true),
+                notificationsPerClick.format("Notifications/click", false),
+                String.format("%-21s %d / %d MB", "Heap used", heap.getUsed() >> 20,
+                        (heap.getMax() > 0 ? heap.getMax() : heap.getCommitted()) >> 20),
+                String.format("%-21s %d in %d ms (last %d ms: %d, %d ms)", "GC", gcCount, gcMillis,
+                        REFRESH_MILLIS, gcCountDelta, gcMillisDelta),
+                "F3 hides this overlay");
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        FontMetrics metrics = g2.getFontMetrics();
+        int width = 0;
+        for (String line : lines)
+            width = Math.max(width, metrics.stringWidth(line));
+        int lineHeight = metrics.getHeight();
+        g2.setColor(new Color(0, 0, 0, 180));
+        g2.fillRect(4, 4, width + 12, lines.size() * lineHeight + 8);
+        g2.setColor(Color.WHITE);
+        for (int i = 0; i < lines.size(); i++)
+            g2.drawString(lines.get(i), 10, 8 + i * lineHeight + metrics.getAscent());
+        g2.dispose();
+    }
+
+    /**
+     * Lekérdezi a GC-k összesített számát és idejét, és kiszámolja az előző lekérdezés óta eltelt különbséget.
+     */
+    private void sampleGc() {
+        long count = 0, millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        gcCountDelta = count - gcCount;
+        gcMillisDelta = millis - gcMillis;
+        gcCount = count;
+        gcMillis = millis;
+    }
+
+    /**
+     * Az overlayen kívüli komponensek újrarajzolási és újraelrendezési kéréseit számláló RepaintManager.
+     * A repaint és a revalidate bármely szálról hívható, ezért a számláló szálbiztos.
+     */
+    private static final class RepaintCounter extends RepaintManager {
+
+        /**
+         * Az overlay, ennek saját kérései nem számítanak.
+         */
+        private final JComponent overlay;
+
+        /**
+         * Az eddigi kérések száma.
+         */
+        final LongAdder requests = new LongAdder();
+
+        RepaintCounter(JComponent overlay) {
+            this.overlay = overlay;
+        }
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            if (c != overlay && w > 0 && h > 0)
+                requests.increment();
+            super.addDirtyRegion(c, x, y, w, h);
+        }
+
+        @Override
+        public void addInvalidComponent(JComponent invalidComponent) {
+            requests.increment();
+            super.addInvalidComponent(invalidComponent);
+        }
+    }
+
+    /**
+     * Az utolsó néhány mért érték, ezek legutóbbi, átlagos és legnagyobb értékét jeleníti meg az overlay.
+     * Több szálról is írható.
+     */
+    public static final class Samples {
+
+        /**
+         * A megtartott értékek száma.
+         */
+        private static final int SIZE = 64;
+
+        /**
+         * Az értékek gyűrűpuffere.
+         */
+        private final long[] values = new long[SIZE];
+
+        /**
+         * Az eddig feljegyzett értékek száma.
+         */
+        private long count;
+
+        /**
+         * Feljegyez egy értéket, a legrégebbi megtartott érték kiesik.
+         * @param value az érték
+         */
+        public synchronized void record(long value) {
+            values[(int) (count++ % SIZE)] = value;
+        }
+
+        /**
+         * @param label a sor címkéje
+         * @param nanos igaz, ha az értékek nanoszekundumban mért időtartamok
+         * @return A legutóbbi, átlagos és legnagyobb érték egy sorban.
+         */
+        synchronized String format(String label, boolean nanos) {
+            if (count == 0)
+                return String.format("%-21s -", label);
+            int n = (int) Math.min(count, SIZE);
+            long sum = 0, max = 0;
+            for (int i = 0; i < n; i++) {
+                sum += values[i];
+                max = Math.max(max, values[i]);
+            }
+            long last = values[(int) ((count - 1) % SIZE)];
+            if (nanos)
+                return String.format("%-21s last %7.2f  avg %7.2f  max %7.2f ms", label, last / 1e6, sum / 1e6 / n, max / 1e6);
+            return String.format("%-21s last %7d  avg %7.1f  max %7d", label, last, (double) sum / n, max);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package graphic.view;
 
 import graphic.controller.ActionHandler;
-import graphic.controller.Controller;
+import graphic.controller.GameDisplay;
+import graphic.metrics.GameEvents;
+import graphic.metrics.Histogram;
+import graphic.metrics.Metrics;
 import graphic.model.Game;
 import graphic.model.characters.Entity;
 import graphic.model.characters.Student;
+import graphic.model.common.Notifications;
 import graphic.model.places.Room;
+import graphic.view.labels.IconCache;
 import graphic.view.panels.RoomPanelView;
 import graphic.view.panels.StudentPanelView;
 
@@ -13,27 +18,55 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A View osztály a játék grafikus felhasználói felületét (GUI) képviseli.
  * Felelős a hallgatói és szobai panelek megjelenítéséért és frissítéséért.
  */
-public class View extends JFrame {
-    private Controller callback;
-    private final List<StudentPanelView> studentPanels;
-    private final List<RoomPanelView> roomPanels;
+public class View extends JFrame implements GameDisplay {
+
+    /**
+     * A megtartott szobapanelek legnagyobb száma, a -Dlogarlec.roomPanels kapcsolóval állítható.
+     */
+    private static final int ROOM_PANEL_CACHE = Math.max(2, Integer.getInteger("logarlec.roomPanels", 32));
+
+    /**
+     * Egy kattintás utáni teljes frissítés ideje, a panelek értesítésével együtt.
+     */
+    private static final Histogram UPDATE = Metrics.timer("view.update");
+
+    /**
+     * A hallgatók paneljei a hallgató azonosítója szerint.
+     */
+    private final Map<String, StudentPanelView> studentPanels;
+
+    /**
+     * A szobák paneljei a szoba azonosítója szerint, legutóbbi használat szerinti sorrendben.
+     * A panelek csak megjelenítéskor jönnek létre, a legrégebben használt kikerül, ha túl sok van.
+     */
+    private final Map<String, RoomPanelView> roomPanels;
     private StudentPanelView activeStudentPanel;
     private RoomPanelView activeRoomPanel;
     private JPanel mainPanel = new JPanel(new BorderLayout());
+    private ActionHandler actionHandler;
 
     /**
      * Létrehozza a View objektumot és inicializálja a panel listákat.
      */
     public View(){
-        studentPanels = new ArrayList<>();
-        roomPanels = new ArrayList<>();
+        studentPanels = new LinkedHashMap<>();
+        roomPanels = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RoomPanelView> eldest) {
+                // Az éppen megjelenített szoba paneljét nem dobja el
+                if(size() <= ROOM_PANEL_CACHE || eldest.getValue() == activeRoomPanel)
+                    return false;
+                eldest.getValue().detach();
+                return true;
+            }
+        };
     }
 
     /**
@@ -41,53 +74,102 @@ public class View extends JFrame {
      *
      * @param actionHandler az ActionHandler, amely kezeli a felhasználói műveleteket
      */
+    @Override
     public void registerActionHandler(ActionHandler actionHandler) {
-        for(StudentPanelView sp : studentPanels) {
+        this.actionHandler = actionHandler;
+        for(StudentPanelView sp : studentPanels.values()) {
             sp.registerActionHandler(actionHandler);
         }
-        for(RoomPanelView rp : roomPanels) {
+        for(RoomPanelView rp : roomPanels.values()) {
             rp.registerActionHandler(actionHandler);
         }
     }
 
     /**
-     * Frissíti a nézetet a megadott hallgató állapotának megfelelően.
+     * Megjeleníti a megadott hallgató és a szobája panelét. A panelek a modell változásait maguk követik,
+     * ezért teljes frissítést csak akkor kapnak, ha most váltják a korábban megjelenítettet, és az ablak
+     * elrendezése is csak ekkor, illetve egy bepillantás után számolódik újra.
      *
-     * @param student a hallgató, amelynek állapota megváltozott
+     * @param student a soron lévő hallgató
      */
+    @Override
     public void update(Student student) {
-        mainPanel.removeAll();
-        for(StudentPanelView studentPanel : studentPanels){
-            if(studentPanel.getStudent().equals(student)){
-                if(activeStudentPanel != null)
-                    mainPanel.remove(activeStudentPanel);
-                activeStudentPanel = studentPanel;
+        long start = Metrics.now();
+        GameEvents.ViewUpdate event = new GameEvents.ViewUpdate();
+        event.begin();
+        boolean switched = false;
+        StudentPanelView studentPanel = studentPanels.get(student.getID());
+        if(studentPanel != null && studentPanel != activeStudentPanel) {
+            activeStudentPanel = studentPanel;
+            studentPanel.update();
+            switched = true;
+        }
+        Room room = student.getRoom();
+        RoomPanelView cached = roomPanels.get(room.getID());
+        RoomPanelView roomPanel = roomPanel(room);
+        if(roomPanel != activeRoomPanel) {
+            activeRoomPanel = roomPanel;
+            // Az újonnan létrehozott panel már a szoba mostani állapotát mutatja
+            if(roomPanel == cached)
+                roomPanel.update();
+            switched = true;
+        }
+        if(switched || !showsActivePanels()) {
+            mainPanel.removeAll();
+            if(activeStudentPanel != null)
                 mainPanel.add(activeStudentPanel, BorderLayout.WEST);
-            }
+            mainPanel.add(activeRoomPanel, BorderLayout.EAST);
+            fitToContent();
         }
-        displayRoom(student.getRoom());
-        activeStudentPanel.update();
-        activeRoomPanel.update();
-        pack();
-        setLocationRelativeTo(null); // Center the frame on the screen
+        UPDATE.since(start);
+        event.end();
+        if(event.shouldCommit()) {
+            event.student = student.getID();
+            event.room = room.getID();
+            event.roomEntities = room.getEntities().size();
+            event.roomItems = room.getItems().size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Csak akkor méretezi át az ablakot, ha a tartalom nem fér el benne, és nem helyezi újra középre,
+     * így egy kattintás nem számolja újra a teljes ablak elrendezését.
+     */
+    private void fitToContent() {
+        Dimension preferred = getPreferredSize();
+        if(getWidth() < preferred.width || getHeight() < preferred.height)
+            setSize(Math.max(getWidth(), preferred.width), Math.max(getHeight(), preferred.height));
         mainPanel.revalidate();
         mainPanel.repaint();
     }
 
     /**
-     * Megjeleníti a megadott szobát a nézetben.
+     * @return Igaz, ha a fő panel az aktív hallgató és szoba paneljét mutatja, nem egy bepillantást.
+     */
+    private boolean showsActivePanels() {
+        return (activeStudentPanel == null || activeStudentPanel.getParent() == mainPanel)
+                && activeRoomPanel.getParent() == mainPanel && mainPanel.getComponentCount() <= 2;
+    }
+
+    /**
+     * Visszaadja a szoba paneljét. Ha a szobának még nincs panelje, vagy az már kikerült a gyorsítótárból,
+     * akkor most hozza létre.
      *
-     * @param room a megjelenítendő szoba
+     * @param room a szoba
+     * @return a szoba panelje
      */
-    private void displayRoom(Room room) {
-        for(RoomPanelView roomPanel : roomPanels){
-            if(roomPanel.getRoom().equals(room)){
-                if(activeRoomPanel != null)
-                    mainPanel.remove(activeRoomPanel);
-                activeRoomPanel = roomPanel;
-                mainPanel.add(roomPanel, BorderLayout.EAST);
-            }
-        }
+    private RoomPanelView roomPanel(Room room) {
+        RoomPanelView roomPanel = roomPanels.get(room.getID());
+        if(roomPanel != null && roomPanel.getRoom() == room)
+            return roomPanel;
+        if(roomPanel != null)
+            roomPanel.detach();
+        roomPanel = new RoomPanelView(room);
+        if(actionHandler != null)
+            roomPanel.registerActionHandler(actionHandler);
+        roomPanels.put(room.getID(), roomPanel);
+        return roomPanel;
     }
 
     /**
@@ -95,6 +177,7 @@ public class View extends JFrame {
      *
      * @param room a megtekintett szoba
      */
+    @Override
     public void peek(Room room) {
         mainPanel.removeAll();
         JPanel backPanel = new JPanel(new GridBagLayout());
@@ -109,22 +192,12 @@ public class View extends JFrame {
             mainPanel.removeAll();
             mainPanel.add(activeStudentPanel, BorderLayout.WEST);
             mainPanel.add(activeRoomPanel, BorderLayout.EAST);
-            pack();
-            setLocationRelativeTo(null); // Center the frame on the screen
-            mainPanel.repaint();
-            mainPanel.revalidate();
+            fitToContent();
         });
         backPanel.add(backButton, gbc);
         mainPanel.add(backPanel, BorderLayout.WEST);
-        for(RoomPanelView roomPanel : roomPanels){
-            if(roomPanel.getRoom().equals(room)){
-                mainPanel.add(roomPanel, BorderLayout.EAST);
-            }
-        }
-        pack();
-        setLocationRelativeTo(null); // Center the frame on the screen
-        mainPanel.revalidate();
-        mainPanel.repaint();
+        mainPanel.add(roomPanel(room), BorderLayout.EAST);
+        fitToContent();
     }
 
     /**
@@ -133,15 +206,22 @@ public class View extends JFrame {
      * @param model a játék modellje
      */
     public void init(Game model){
+        IconCache.preload();
         for(Entity e : model.getEntities()) {
             if (e instanceof Student student) {
-                studentPanels.add(new StudentPanelView(student));
+                studentPanels.put(student.getID(), new StudentPanelView(student));
             }
         }
-        for(Room r : model.getRooms()){
-            roomPanels.add(new RoomPanelView(r));
-        }
         add(mainPanel);
+        PerfOverlay.install(this);
+
+        // Az összevont értesítések az EDT-n kerülnek kézbesítésre
+        Notifications.setDispatcher(flush -> {
+            if(SwingUtilities.isEventDispatchThread())
+                flush.run();
+            else
+                SwingUtilities.invokeLater(flush);
+        });
 
         pack();
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -152,8 +232,13 @@ public class View extends JFrame {
     /**
      * Megnyitja a nézetet és láthatóvá teszi az ablakot.
      */
+    @Override
     public void start() {
-        SwingUtilities.invokeLater(() -> setVisible(true));
+        SwingUtilities.invokeLater(() -> {
+            pack();
+            setLocationRelativeTo(null); // Center the frame on the screen
+            setVisible(true);
+        });
     }
 
     /**
@@ -161,6 +246,7 @@ public class View extends JFrame {
      *
      * @param text a megjelenítendő üzenet
      */
+    @Override
     public void displayEndMessage(String text){
         // Custom panel for the dialog
         JPanel panel = new JPanel();
@@ -3,13 +3,8 @@ package graphic.view.labels;
 import graphic.model.characters.Entity;
 import graphic.model.common.Observer;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
-import javax.swing.text.LabelView;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 
 public class EntityLabelView extends JLabel implements Observer {
     protected Entity entity;
@@ -24,18 +19,9 @@ public class EntityLabelView extends JLabel implements Observer {
      */
     public EntityLabelView(Entity entity, String normal, String stunned) {
         this.entity = entity;
-        BufferedImage originalNormal = null, originalStunned = null;
-        try {
-            originalNormal = ImageIO.read(new File(normal));
-            originalStunned = ImageIO.read(new File(stunned));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        Image scaledNormal = originalNormal.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-        Image scaledStunned = originalStunned.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
 
-        this.normalIcon = new ImageIcon(scaledNormal);
-        this.stunnedIcon = new ImageIcon(scaledStunned);
+        this.normalIcon = IconCache.get(normal);
+        this.stunnedIcon = IconCache.get(stunned);
 
         initialize();
     }
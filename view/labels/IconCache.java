@@ -0,0 +1,93 @@
+package graphic.view.labels;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A címkék ikonjainak folyamatszintű gyorsítótára.
+ * Minden képfájl egyszer kerül beolvasásra és 64x64-es méretre kicsinyítésre, a címkék ugyanazt az
+ * ImageIcon példányt kapják, így sem az indulási idő, sem a memória nem nő a tárgyak és a szobapanelek számával.
+ * A kicsinyített képet egy saját BufferedImage tárolja, az eredeti kép nem marad a memóriában.
+ */
+public final class IconCache {
+
+    /**
+     * Az ikonok oldalhossza pixelben.
+     */
+    public static final int SIZE = 64;
+
+    /**
+     * A játék összes ikonja, ezeket tölti be a preload.
+     */
+    private static final String[] ASSETS = {
+            "res/AirConditioner.png", "res/AirConditioner_NoHealth.png",
+            "res/Beer.png", "res/Beer_NoHealth.png",
+            "res/Camembert.jpg", "res/Camembert_NoHealth.png",
+            "res/FFP2.png", "res/FFP2_NoHealth.png",
+            "res/Logarlec.png",
+            "res/Transistor.png", "res/Transistor_NoHealth.png", "res/Transistor_Linked.png",
+            "res/Tvsz.png", "res/TVSZ_NoHealth.png",
+            "res/WetSponge.png", "res/WetSponge_NoHealth.png",
+            "res/CleaningLady.png", "res/CleanningLady_Stunned.png",
+            "res/Professor.png", "res/Professor_Stunned.png",
+            "res/Student.png", "res/Student_Stunned.png", "res/Student_Drunk.png"
+    };
+
+    /**
+     * A betöltött ikonok elérési útvonal szerint.
+     */
+    private static final Map<String, ImageIcon> icons = new ConcurrentHashMap<>();
+
+    private IconCache() {
+    }
+
+    /**
+     * Betölti a játék összes ikonját, hogy a játék közben ne kelljen képfájlt olvasni.
+     */
+    public static void preload() {
+        for (String path : ASSETS)
+            get(path);
+    }
+
+    /**
+     * Visszaadja a megadott képfájl kicsinyített ikonját, az első kéréskor betölti.
+     *
+     * @param path a képfájl elérési útvonala
+     * @return a megosztott ikon
+     */
+    public static ImageIcon get(String path) {
+        return icons.computeIfAbsent(path, IconCache::load);
+    }
+
+    /**
+     * Beolvassa és kicsinyíti a képet.
+     *
+     * @param path a képfájl elérési útvonala
+     * @return az ikon
+     */
+    private static ImageIcon load(String path) {
+        BufferedImage original;
+        try {
+            original = ImageIO.read(new File(path));
+        } catch (IOException e) {
+            throw new RuntimeException(path, e);
+        }
+        if (original == null)
+            throw new RuntimeException("Unsupported image: " + path);
+
+        // Az ImageIcon megvárja a kicsinyítés végét, utána a kép átmásolható
+        Image scaled = new ImageIcon(original.getScaledInstance(SIZE, SIZE, Image.SCALE_SMOOTH)).getImage();
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(scaled, 0, 0, null);
+        g.dispose();
+        scaled.flush();
+        return new ImageIcon(image);
+    }
+}
@@ -3,12 +3,8 @@ package graphic.view.labels;
 import graphic.model.common.Observer;
 import graphic.model.items.Item;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 
 public class ItemLabelView extends JLabel implements Observer {
     protected Item item;
@@ -24,18 +20,8 @@ public class ItemLabelView extends JLabel implements Observer {
     public ItemLabelView(Item item, String hasHealth, String noHealth) {
         this.item = item;
 
-        BufferedImage originalHasHealth, originalNoHealth;
-        try {
-            originalHasHealth = ImageIO.read(new File(hasHealth));
-            originalNoHealth = ImageIO.read(new File(noHealth));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        Image scaledHasHealth = originalHasHealth.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-        Image scaledNoHealth = originalNoHealth.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-
-        this.hasHealthIcon = new ImageIcon(scaledHasHealth);
-        this.noHealthIcon = new ImageIcon(scaledNoHealth);
+        this.hasHealthIcon = IconCache.get(hasHealth);
+        this.noHealthIcon = IconCache.get(noHealth);
         if(item.hasHealth()){
             setIcon(hasHealthIcon);
         }
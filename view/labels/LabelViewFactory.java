@@ -3,8 +3,12 @@ package graphic.view.labels;
 import graphic.model.characters.*;
 import graphic.model.items.*;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A LabelViewFactory osztály felelős az ItemLabelView és EntityLabelView objektumok létrehozásáért és tárolásáért.
@@ -35,7 +39,7 @@ public class LabelViewFactory {
             } else if (item.getClass().equals(FakeLogarlec.class)) {
                 itemLabelView = new ItemLabelView(item, "res/Logarlec.png", "res/Logarlec.png");
             } else if(item.getClass().equals(FakeTVSZ.class)){
-                itemLabelView = new ItemLabelView(item, "res/TVSZ.png", "res/TVSZ_NoHealth.png");
+                itemLabelView = new ItemLabelView(item, "res/Tvsz.png", "res/TVSZ_NoHealth.png");
             } else if (item.getClass().equals(FFP2.class)) {
                 itemLabelView = new ItemLabelView(item, "res/FFP2.png", "res/FFP2_NoHealth.png");
             } else if(item.getClass().equals(Logarlec.class)){
@@ -79,4 +83,35 @@ public class LabelViewFactory {
             return entityLabelViews.get(entity);
         }
     }
+
+    /**
+     * Leválasztja a tárgyakról és elfelejti azoknak a tárgyaknak a nézetét, amelyeket a panel már nem jelenít meg,
+     * például mert a hallgató eldobta vagy felhasználta őket, vagy kikerültek a szobából. Enélkül a gyár minden
+     * valaha megjelenített tárgy nézetét életben tartaná, és a tárgyak a panel teljes élete alatt frissítenék őket.
+     *
+     * @param shown a panelen most megjelenített tárgyak
+     */
+    public void retainItems(Collection<Item> shown) {
+        Set<Item> keep = new HashSet<>(shown);
+        Iterator<Map.Entry<Item, ItemLabelView>> it = itemLabelViews.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Item, ItemLabelView> entry = it.next();
+            if (!keep.contains(entry.getKey())) {
+                entry.getKey().removeObserver(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Leválasztja a létrehozott tárgynézeteket a tárgyakról és elfelejti az összes nézetet.
+     * A gyár ezután újra használható, a nézeteket szükség esetén újra létrehozza.
+     */
+    public void dispose() {
+        for (Map.Entry<Item, ItemLabelView> entry : itemLabelViews.entrySet()) {
+            entry.getKey().removeObserver(entry.getValue());
+        }
+        itemLabelViews.clear();
+        entityLabelViews.clear();
+    }
 }
@@ -2,15 +2,9 @@ package graphic.view.labels;
 
 import graphic.model.characters.Entity;
 import graphic.model.characters.Student;
-import graphic.model.common.Observer;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
-import javax.swing.text.LabelView;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 
 public class StudentLabelView extends EntityLabelView {
     private Student student;
@@ -21,19 +15,12 @@ public class StudentLabelView extends EntityLabelView {
      * @param student - Az eltárolt entitás.
      * @param normal - A megfelelő kép elérési útvonala.
      * @param stunned - A megfelelő kép elérési útvonala.
+     * @param drunk - A megfelelő kép elérési útvonala.
      */
     public StudentLabelView(Entity student, String normal, String stunned, String drunk) {
         super(student, normal, stunned);
 
-        BufferedImage originalDrunk = null;
-        try {
-            originalDrunk = ImageIO.read(new File(normal));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        Image scaledDrunk = originalDrunk.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-
-        this.drunkIcon = new ImageIcon(scaledDrunk);
+        this.drunkIcon = IconCache.get(drunk);
         this.student = (Student)student;
 
         initialize();
@@ -1,16 +1,9 @@
 package graphic.view.labels;
 
-import graphic.model.common.Observer;
 import graphic.model.items.Item;
-import graphic.model.items.Transistor;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionListener;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 
 public class TransistorLabelView extends ItemLabelView {
     protected Icon linkedIcon;
@@ -23,14 +16,7 @@ public class TransistorLabelView extends ItemLabelView {
     public TransistorLabelView(Item item, String hasHealth, String noHealth, String linked) {
         super(item, hasHealth, noHealth);
 
-        BufferedImage originalLinked = null;
-        try {
-            originalLinked = ImageIO.read(new File(linked));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        Image scaledLinked = originalLinked.getScaledInstance(64, 64, Image.SCALE_SMOOTH);
-        this.linkedIcon = new ImageIcon(scaledLinked);
+        this.linkedIcon = IconCache.get(linked);
 
         initialize();
     }
@@ -3,9 +3,11 @@ package graphic.view.panels;
 import graphic.controller.ActionHandler;
 import graphic.model.characters.Entity;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 import graphic.model.common.Observer;
 import graphic.model.items.Item;
 import graphic.model.places.Room;
+import graphic.view.PerfOverlay;
 import graphic.view.labels.EntityLabelView;
 import graphic.view.labels.ItemLabelView;
 import graphic.view.labels.LabelViewFactory;
@@ -16,6 +18,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.List;
 
 /**
  * A RoomPanelView osztály a felhasználói felület része, amely egy szoba állapotát jeleníti meg.
@@ -188,6 +191,67 @@ public class RoomPanelView extends JPanel implements Observer {
         repaint();
     }
 
+    /**
+     * Feldolgozza a változásokat, és a teljesítmény-overlay számára méri a frissítés idejét.
+     *
+     * @param events a szoba változásai
+     */
+    @Override
+    public void update(List<ModelEvent> events) {
+        long start = System.nanoTime();
+        applyEvents(events);
+        PerfOverlay.ROOM_PANEL_UPDATES.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Csak a változások által érintett alpaneleket frissíti: a tulajdonságokat, a hallgatókat,
+     * az egyéb entitásokat vagy a tárgyakat. Az ajtókat és a befogadóképességet a panel nem jeleníti meg.
+     *
+     * @param events a szoba változásai
+     */
+    private void applyEvents(List<ModelEvent> events) {
+        boolean status = false, students = false, others = false, items = false;
+        for (ModelEvent event : events) {
+            if (event instanceof ModelEvent.RoomFlagChanged) {
+                status = true;
+            } else if (event instanceof ModelEvent.EntityEntered entered) {
+                if (entered.entity() instanceof Student) students = true;
+                else others = true;
+            } else if (event instanceof ModelEvent.EntityLeft left) {
+                if (left.entity() instanceof Student) students = true;
+                else others = true;
+            } else if (event instanceof ModelEvent.EntityChanged changed) {
+                if (changed.source() instanceof Student) students = true;
+                else others = true;
+            } else if (event instanceof ModelEvent.ItemAdded || event instanceof ModelEvent.ItemRemoved) {
+                items = true;
+            } else if (event instanceof ModelEvent.Changed) {
+                update();
+                return;
+            }
+        }
+        if (!(status || students || others || items))
+            return;
+
+        if (status) {
+            updateRoomStatusPanel();
+            roomStatusPanel.revalidate();
+        }
+        if (students) {
+            studentsPanel.removeAll();
+            updateStudentsPanel();
+            studentsPanel.revalidate();
+        }
+        if (others)
+            updateLabels(othersPanel);
+        if (items) {
+            itemsPanel.removeAll();
+            updateItemPanel();
+            itemsPanel.revalidate();
+        }
+        repaint();
+    }
+
     /**
      * Eltávolítja az összes egérhallgatót (MouseListener) a megadott címkéről (JLabel).
      *
@@ -238,6 +302,7 @@ public class RoomPanelView extends JPanel implements Observer {
      * Frissíti az elemek panelt a szobában található elemekkel.
      */
     private void updateItemPanel() {
+        factory.retainItems(room.getItems());
         for (Item i : room.getItems()) {
             ItemLabelView itemLabelView = factory.getItemLabel(i);
             if (itemLabelView == null) {
@@ -273,6 +338,14 @@ public class RoomPanelView extends JPanel implements Observer {
         }
     }
 
+    /**
+     * Leválasztja a panelt a szobáról és a tárgyakról, miután a nézet eldobta.
+     */
+    public void detach() {
+        room.removeObserver(this);
+        factory.dispose();
+    }
+
     /**
      * Visszaadja a szobát, amelyet ez a nézet megjelenít.
      *
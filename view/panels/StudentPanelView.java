@@ -3,9 +3,12 @@ package graphic.view.panels;
 import graphic.controller.ActionHandler;
 import graphic.model.characters.Entity;
 import graphic.model.characters.Student;
+import graphic.model.common.ModelEvent;
 import graphic.model.common.Observer;
 import graphic.model.items.Item;
 import graphic.model.places.Door;
+import graphic.model.places.Room;
+import graphic.view.PerfOverlay;
 import graphic.view.labels.EntityLabelView;
 import graphic.view.labels.ItemLabelView;
 import graphic.view.labels.LabelViewFactory;
@@ -17,6 +20,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.List;
 
 /**
  * A StudentPanelView osztály a felhasználói felület része, amely egy hallgató állapotát jeleníti meg.
@@ -37,6 +41,11 @@ public class StudentPanelView extends JPanel implements Observer {
     private Item item2;
     private JComboBox<String> doorsComboBox;
 
+    /**
+     * A szoba, amelynek az ajtóit a panel éppen figyeli.
+     */
+    private Room observedRoom;
+
     private LabelViewFactory factory = new LabelViewFactory();
 
     /**
@@ -47,7 +56,7 @@ public class StudentPanelView extends JPanel implements Observer {
     public StudentPanelView(Student student) {
         this.student = student;
         student.addObserver(this);
-        student.getRoom().addObserver(this);
+        observeRoom();
 
         initialize();
     }
@@ -249,6 +258,7 @@ public class StudentPanelView extends JPanel implements Observer {
      */
     @Override
     public void update() {
+        observeRoom();
         updatePlayerDetails();
         updateItemGridPanel();
         studentLabel.update();
@@ -261,6 +271,79 @@ public class StudentPanelView extends JPanel implements Observer {
         repaint();
     }
 
+    /**
+     * Feldolgozza a változásokat, és a teljesítmény-overlay számára méri a frissítés idejét.
+     *
+     * @param events a hallgató változásai
+     */
+    @Override
+    public void update(List<ModelEvent> events) {
+        long start = System.nanoTime();
+        applyEvents(events);
+        PerfOverlay.STUDENT_PANEL_UPDATES.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Csak a változások által érintett részeket frissíti: az állapotot, a tárgyakat vagy az ajtókat.
+     * A szobából érkező, más entitásokra vagy a szoba tárgyaira vonatkozó eseményeket figyelmen kívül hagyja.
+     *
+     * @param events a hallgató és a szobája változásai
+     */
+    private void applyEvents(List<ModelEvent> events) {
+        boolean details = false, items = false, doors = false;
+        for (ModelEvent event : events) {
+            if (event instanceof ModelEvent.EntityChanged changed) {
+                if (changed.source() != student) continue;
+                switch (changed.property()) {
+                    case STUNNED, DRUNK, KILLED -> details = true;
+                    case ROOM -> doors = true;
+                    default -> { }
+                }
+            } else if (event instanceof ModelEvent.ItemAdded || event instanceof ModelEvent.ItemRemoved) {
+                if (event.source() == student) items = true;
+            } else if (event instanceof ModelEvent.DoorAdded || event instanceof ModelEvent.DoorRemoved
+                    || event instanceof ModelEvent.DoorToggled) {
+                doors = true;
+            } else if (event instanceof ModelEvent.Changed) {
+                update();
+                return;
+            }
+        }
+        if (!(details || items || doors))
+            return;
+
+        if (details) {
+            updatePlayerDetails();
+            studentLabel.update();
+        }
+        if (items) {
+            updateItemGridPanel();
+            if(!student.getItems().contains(item1)) item1 = null;
+            if(!student.getItems().contains(item2)) item2 = null;
+            updateIconsOfSelectedItems();
+        }
+        if (doors) {
+            observeRoom();
+            updateDoors();
+        }
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * A hallgató aktuális szobájára helyezi át a szoba megfigyelését, ha a hallgató szobát váltott.
+     */
+    private void observeRoom() {
+        Room room = student.getRoom();
+        if (room == observedRoom)
+            return;
+        if (observedRoom != null)
+            observedRoom.removeObserver(this);
+        observedRoom = room;
+        if (room != null)
+            room.addObserver(this);
+    }
+
     /**
      * Frissíti a hallgató részleteit megjelenítő panelt.
      */
@@ -275,6 +358,7 @@ public class StudentPanelView extends JPanel implements Observer {
      */
     private void updateItemGridPanel() {
         itemGridPanel.removeAll();
+        factory.retainItems(student.getItems());
 
         for(Item item : student.getItems()) {
             // Get label of item